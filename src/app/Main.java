@@ -1,20 +1,47 @@
 package app;
 
 import model.*;
+import service.BinarySnapshot;
 import service.CarInventory;
 import service.CSVExporter;
-
+import service.ConsoleEventSink;
+import service.InventoryStore;
+import service.CsvRentalArchive;
+import service.RentalJournal;
+import service.RentalSummary;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.util.Scanner;
 import java.util.List;
 
 public class Main {
 
     private static Scanner scanner = new Scanner(System.in);
-    private static CarInventory inventory = new CarInventory();
 
     // CSV file names (single source of truth)
     private static final String CARS_FILE = "cars.csv";
     private static final String RENTALS_FILE = "rentals.csv";
+    private static final String ARCHIVE_FILE = "rentals-archive.csv";
+
+    // Binary copy of the same state, saved with the CSV files and preferred on startup
+    private static final String SNAPSHOT_FILE = "inventory.snapshot";
+
+    // Every change since the last save, appended as it happens (replayed on startup);
+    // written in the background, made durable by every save
+    private static final String JOURNAL_FILE = "inventory.journal";
+
+    private static RentalJournal journal = new RentalJournal(Path.of(JOURNAL_FILE), new ConsoleEventSink(), true);
+    private static CarInventory inventory = new CarInventory(journal);
+
+    // Returned rentals beyond the newest ones are moved to ARCHIVE_FILE
+    private static final int KEEP_RECENT_RENTALS = 100;
+
+    // Saves only sync the journal; the files are rewritten once it holds this many changes
+    private static InventoryStore store = new InventoryStore(Path.of(CARS_FILE), Path.of(RENTALS_FILE),
+            Path.of(SNAPSHOT_FILE), journal, InventoryStore.DEFAULT_CHECKPOINT_RECORDS, KEEP_RECENT_RENTALS);
 
     public static void main(String[] args) {
 
@@ -50,18 +77,22 @@ public class Main {
                     viewRentalSummary();
                     break;
                 case 7:
-                    exportToCSV(); // acts as "manual save/report"
+                    saveChanges();
+                    break;
+                case 8:
+                    exportToCSV(); // full rewrite of every file
                     break;
                 case 0:
                     // ====== AUTO SAVE ON EXIT ======
                     try {
-                        CSVExporter.saveCars(inventory, CARS_FILE);
-                        CSVExporter.saveRentals(inventory, RENTALS_FILE);
-                        System.out.println("\n✓ Data saved successfully (cars.csv, rentals.csv).");
+                        boolean exported = store.save(inventory);
+                        System.out.println("\n✓ Data saved successfully ("
+                                + (exported ? "cars.csv, rentals.csv, " + SNAPSHOT_FILE : JOURNAL_FILE) + ").");
                     } catch (Exception e) {
                         System.out.println("\n✗ ERROR while saving data on exit.");
                         e.printStackTrace();
                     }
+                    closeJournal();
 
                     running = false;
                     System.out.println("\n✓ Thank you for using Car Rental System!");
@@ -76,18 +107,31 @@ public class Main {
 
     private static void loadDataOnStartup() {
         try {
-            int carsLoaded = CSVExporter.loadCarsIntoInventory(inventory, CARS_FILE);
-            int rentalsLoaded = CSVExporter.loadRentalsIntoInventory(inventory, RENTALS_FILE);
+            inventory.setArchive(new CsvRentalArchive(Path.of(ARCHIVE_FILE)));
+
+            int carsLoaded;
+            int rentalsLoaded;
+            if (loadSnapshot()) {
+                carsLoaded = inventory.getAllCars().size();
+                rentalsLoaded = inventory.getRentalCount();
+                System.out.println("✓ Loaded " + carsLoaded + " car(s) and " + rentalsLoaded
+                        + " rental(s) from " + SNAPSHOT_FILE);
+            } else {
+                carsLoaded = CSVExporter.loadCarsIntoInventory(inventory, CARS_FILE);
+                rentalsLoaded = CSVExporter.loadRentalsIntoInventory(inventory, RENTALS_FILE);
 
-            if (carsLoaded > 0) {
-                System.out.println("✓ Loaded " + carsLoaded + " car(s) from " + CARS_FILE);
-            }
-            if (rentalsLoaded > 0) {
-                System.out.println("✓ Loaded " + rentalsLoaded + " rental(s) from " + RENTALS_FILE);
+                if (carsLoaded > 0) {
+                    System.out.println("✓ Loaded " + carsLoaded + " car(s) from " + CARS_FILE);
+                }
+                if (rentalsLoaded > 0) {
+                    System.out.println("✓ Loaded " + rentalsLoaded + " rental(s) from " + RENTALS_FILE);
+                }
             }
+            replayJournal();
+            inventory.archiveReturnedRentals(KEEP_RECENT_RENTALS);
 
             // If no saved cars exist, initialize defaults (first run experience)
-            if (carsLoaded == 0) {
+            if (inventory.getAllCars().isEmpty()) {
                 initializeDefaultCars();
             }
 
@@ -102,6 +146,48 @@ public class Main {
         }
     }
 
+    // Load SNAPSHOT_FILE unless it is missing, unreadable or older than the CSV files
+    // (e.g. they were edited or replaced by hand); false = load the CSV files instead
+    private static boolean loadSnapshot() {
+        Path snapshot = Path.of(SNAPSHOT_FILE);
+        try {
+            if (!Files.exists(snapshot) || isNewer(CARS_FILE, snapshot) || isNewer(RENTALS_FILE, snapshot)) {
+                return false;
+            }
+            return BinarySnapshot.load(inventory, snapshot);
+        } catch (IOException e) {
+            System.out.println("✗ Could not read " + SNAPSHOT_FILE + " (" + e.getMessage() + "), loading CSV files.");
+            return false;
+        }
+    }
+
+    // Apply the changes made since the last save, then record new ones to JOURNAL_FILE
+    private static void replayJournal() {
+        try {
+            int replayed = journal.replay(inventory);
+            if (replayed > 0) {
+                System.out.println("✓ Replayed " + replayed + " change(s) from " + JOURNAL_FILE);
+            }
+            journal.open();
+        } catch (IOException | UncheckedIOException e) {
+            System.out.println("✗ Could not read " + JOURNAL_FILE + " (" + e.getMessage() + "), every save rewrites the files.");
+        }
+    }
+
+    private static void closeJournal() {
+        try {
+            journal.close();
+        } catch (IOException e) {
+            System.out.println("✗ Could not close " + JOURNAL_FILE + " (" + e.getMessage() + ").");
+        }
+    }
+
+    private static boolean isNewer(String fileName, Path than) throws IOException {
+        Path path = Path.of(fileName);
+        return Files.exists(path)
+                && Files.getLastModifiedTime(path).compareTo(Files.getLastModifiedTime(than)) > 0;
+    }
+
     // ============== MENU ==============
     private static void displayMenu() {
         System.out.println("╔════════════════════════════════════╗");
@@ -113,7 +199,8 @@ public class Main {
         System.out.println("║ 4. Return a Car                    ║");
         System.out.println("║ 5. Search Cars                     ║");
         System.out.println("║ 6. View Rental Summary             ║");
-        System.out.println("║ 7. Export/Save Data to CSV         ║");
+        System.out.println("║ 7. Save Changes                    ║");
+        System.out.println("║ 8. Export Data to CSV              ║");
         System.out.println("║ 0. Exit                            ║");
         System.out.println("╚════════════════════════════════════╝");
     }
@@ -163,10 +250,14 @@ public class Main {
 
         System.out.println("\n--- Customer Information ---");
         String customerId = getStringInput("Enter Customer ID: ");
-        String customerName = getStringInput("Enter Customer Name: ");
-        String customerPhone = getStringInput("Enter Customer Phone: ");
-
-        Customer customer = new Customer(customerId, customerName, customerPhone);
+        // Returning customers see their stored details as defaults (Enter keeps them)
+        Customer known = inventory.getCustomerRegistry().findCustomerById(customerId);
+        if (known != null) {
+            System.out.println("Returning customer: " + known.getName() + " (" + known.getPhone() + ")");
+        }
+        String customerName = getStringInput("Enter Customer Name", known == null ? null : known.getName());
+        String customerPhone = getStringInput("Enter Customer Phone", known == null ? null : known.getPhone());
+        Customer customer = inventory.getCustomerRegistry().canonical(customerId, customerName, customerPhone);
         int days = getIntInput("Enter number of rental days: ");
 
         Rental rental = inventory.rentCar(carId, customer, days);
@@ -188,18 +279,15 @@ public class Main {
     private static void returnCar() {
         System.out.println("\n--- Return a Car ---");
 
-        List<Rental> allRentals = inventory.getAllRentals();
         System.out.println("\nActive Rentals:");
         boolean hasActive = false;
 
-        for (Rental rental : allRentals) {
-            if (!rental.isReturned()) {
-                hasActive = true;
-                System.out.println("  Rental ID: " + rental.getRentalId()
-                        + " | Car: " + rental.getCar().getBrand()
-                        + " | Customer: " + rental.getCustomer().getName()
-                        + " | Fee: $" + rental.getTotalFee());
-            }
+        for (Rental rental : inventory.getActiveRentals()) {
+            hasActive = true;
+            System.out.println("  Rental ID: " + rental.getRentalId()
+                    + " | Car: " + rental.getCar().getBrand()
+                    + " | Customer: " + rental.getCustomer().getName()
+                    + " | Fee: $" + rental.getTotalFee());
         }
 
         if (!hasActive) {
@@ -256,56 +344,68 @@ public class Main {
     private static void viewRentalSummary() {
         System.out.println("\n--- Rental Summary Report ---\n");
 
-        List<Rental> allRentals = inventory.getAllRentals();
-        if (allRentals.isEmpty()) {
+        // Running totals: no copy of the inventory and no loop over the rentals
+        RentalSummary summary = inventory.getRentalSummary();
+        if (summary.getTotalRentals() == 0) {
             System.out.println("No rentals in the system.");
             return;
         }
 
-        int activeRentals = 0;
-        int completedRentals = 0;
-        double totalRevenue = 0.0;
-        double pendingRevenue = 0.0;
-
         System.out.println("All Rentals:");
-        for (Rental rental : allRentals) {
-            String status = rental.isReturned() ? "COMPLETED" : "ACTIVE";
-            System.out.println("  [" + status + "] "
-                    + rental.getRentalId() + " | "
-                    + rental.getCar().getBrand() + " | "
-                    + rental.getCustomer().getName() + " | "
-                    + rental.getDays() + " days | $" + rental.getTotalFee());
-
-            if (rental.isReturned()) {
-                completedRentals++;
-                totalRevenue += rental.getTotalFee();
-            } else {
-                activeRentals++;
-                pendingRevenue += rental.getTotalFee();
+        try {
+            // Archived rentals are streamed from disk, not loaded all at once
+            if (inventory.getArchive() != null) {
+                inventory.getArchive().scan(Main::printRental);
             }
+            inventory.getRentals().forEach(Main::printRental);
+        } catch (IOException e) {
+            System.out.println("  ✗ Could not read archived rentals: " + e.getMessage());
         }
 
         System.out.println("\nStatistics:");
-        System.out.println("  Total Rentals: " + allRentals.size());
-        System.out.println("  Active Rentals: " + activeRentals);
-        System.out.println("  Completed Rentals: " + completedRentals);
-        System.out.println("  Revenue from Completed: $" + totalRevenue);
-        System.out.println("  Pending Revenue: $" + pendingRevenue);
-        System.out.println("  Total Potential Revenue: $" + (totalRevenue + pendingRevenue));
+        System.out.println("  Total Rentals: " + summary.getTotalRentals());
+        System.out.println("  Active Rentals: " + summary.getActiveRentals());
+        System.out.println("  Completed Rentals: " + summary.getCompletedRentals());
+        System.out.println("  Revenue from Completed: $" + summary.getCompletedRevenue());
+        System.out.println("  Pending Revenue: $" + summary.getPendingRevenue());
+        System.out.println("  Total Potential Revenue: $" + summary.getTotalPotentialRevenue());
         System.out.println();
     }
 
-    // ============== 7. EXPORT / SAVE TO CSV ==============
+    private static void printRental(Rental rental) {
+        String status = rental.isCancelled() ? "CANCELLED" : rental.isReturned() ? "COMPLETED" : "ACTIVE";
+        System.out.println("  [" + status + "] "
+                + rental.getRentalId() + " | "
+                + rental.getCar().getBrand() + " | "
+                + rental.getCustomer().getName() + " | "
+                + rental.getDays() + " days | $" + rental.getTotalFee());
+    }
+
+    // ============== 7. SAVE CHANGES ==============
+    private static void saveChanges() {
+        try {
+            if (store.save(inventory)) {
+                System.out.println("\n✓ Data saved (" + CARS_FILE + ", " + RENTALS_FILE + ", " + SNAPSHOT_FILE + ").\n");
+            } else {
+                System.out.println("\n✓ Changes saved to " + JOURNAL_FILE + ".\n");
+            }
+        } catch (Exception e) {
+            System.out.println("\n✗ ERROR while saving data.");
+            e.printStackTrace();
+        }
+    }
+
+    // ============== 8. EXPORT TO CSV ==============
     private static void exportToCSV() {
         System.out.println("\n--- Export/Save Data to CSV ---");
 
         try {
-            CSVExporter.saveCars(inventory, CARS_FILE);
-            CSVExporter.saveRentals(inventory, RENTALS_FILE);
+            store.export(inventory);
 
             System.out.println("✓ CSV files saved successfully!");
             System.out.println("  - " + CARS_FILE);
             System.out.println("  - " + RENTALS_FILE);
+            System.out.println("  - " + SNAPSHOT_FILE + " (binary, for fast startup)");
 
         } catch (Exception e) {
             System.out.println("✗ ERROR while saving CSV files.");
@@ -330,6 +430,15 @@ public class Main {
         return scanner.nextLine().trim();
     }
 
+    // Prompt showing defaultValue, returned on an empty answer (no default: a plain prompt)
+    private static String getStringInput(String prompt, String defaultValue) {
+        if (defaultValue == null) {
+            return getStringInput(prompt + ": ");
+        }
+        String input = getStringInput(prompt + " [" + defaultValue + "]: ");
+        return input.isEmpty() ? defaultValue : input;
+    }
+
     private static int getIntInput(String prompt) {
         while (true) {
             try {
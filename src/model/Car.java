@@ -1,18 +1,21 @@
 package model;
 
+import java.util.concurrent.atomic.AtomicBoolean;
+
 public abstract class Car implements Rentable {
     // Fields (encapsulated with private)
     private String id;
     private String brand;
-    private double pricePerDay;
-    private boolean available;
+    private volatile double pricePerDay;
+    private final AtomicBoolean available; // atomic so concurrent rentals cannot double-book
+    private volatile CarListener listener; // notified on state changes (null = nobody)
     
     // Constructor
     public Car(String id, String brand, double pricePerDay, boolean available) {
         this.id = id;
-        this.brand = brand;
+        this.brand = StringDictionary.BRANDS.intern(brand); // shared with other cars of this brand
         this.pricePerDay = pricePerDay;
-        this.available = available;
+        this.available = new AtomicBoolean(available);
     }
     
     // Getters for all fields
@@ -29,16 +32,46 @@ public abstract class Car implements Rentable {
     }
     
     public boolean isAvailable() {
-        return available;
+        return available.get();
     }
     
     // Setters for fields that can change
     public void setAvailable(boolean available) {
-        this.available = available;
+        if (this.available.getAndSet(available) != available) {
+            notifyAvailabilityChanged();
+        }
+    }
+    
+    // Atomically switch from available to rented.
+    // Returns false if another rental got the car first.
+    public boolean tryRent() {
+        if (!available.compareAndSet(true, false)) {
+            return false;
+        }
+        notifyAvailabilityChanged();
+        return true;
     }
     
     public void setPricePerDay(double pricePerDay) {
+        double old = this.pricePerDay;
         this.pricePerDay = pricePerDay;
+        if (Double.compare(old, pricePerDay) != 0) {
+            CarListener l = listener;
+            if (l != null) {
+                l.priceChanged(this);
+            }
+        }
+    }
+    
+    public void setListener(CarListener listener) {
+        this.listener = listener;
+    }
+    
+    private void notifyAvailabilityChanged() {
+        CarListener l = listener;
+        if (l != null) {
+            l.availabilityChanged(this);
+        }
     }
     
     // Abstract method - must be implemented by subclasses
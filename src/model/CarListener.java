@@ -0,0 +1,9 @@
+package model;
+
+// Callback for changes to a car's state.
+// CarInventory registers one on every car it holds to keep its indexes in sync.
+public interface CarListener {
+    void availabilityChanged(Car car);
+
+    void priceChanged(Car car);
+}
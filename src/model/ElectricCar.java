@@ -1,6 +1,9 @@
 package model;
 
 public class ElectricCar extends Car {
+    // Electric cars get 10% discount (eco-friendly pricing)
+    public static final double FEE_FACTOR = 0.9;
+
     // Additional field specific to electric cars
     private double batteryCapacity;
     
@@ -15,10 +18,14 @@ public class ElectricCar extends Car {
         return batteryCapacity;
     }
     
+    // Multiplier applied to days * price per day
+    public double getFeeFactor() {
+        return FEE_FACTOR;
+    }
+    
     // Override the abstract method from Car
     @Override
     public double calculateRentalFee(int days) {
-        // Electric cars get 10% discount (eco-friendly pricing)
-        return days * getPricePerDay() * 0.9;
+        return days * getPricePerDay() * getFeeFactor();
     }
 }
\ No newline at end of file
@@ -1,13 +1,20 @@
 package model;
 
 public class GasCar extends Car {
+    private static final int DIESEL = StringDictionary.FUEL_TYPES.code("Diesel");
+
+    // Optional: Add 15% surcharge for Diesel
+    public static final double DIESEL_FEE_FACTOR = 1.15;
+
     // Additional field specific to gas cars
     private String fuelType;
+    private int fuelCode; // StringDictionary.FUEL_TYPES code (same for any letter case)
     
     // Constructor
     public GasCar(String id, String brand, double pricePerDay, String fuelType) {
         super(id, brand, pricePerDay, true); // true = available initially
-        this.fuelType = fuelType;
+        this.fuelType = StringDictionary.FUEL_TYPES.intern(fuelType);
+        this.fuelCode = StringDictionary.FUEL_TYPES.code(fuelType);
     }
     
     // Getter for fuel type
@@ -15,14 +22,18 @@ public class GasCar extends Car {
         return fuelType;
     }
     
+    public int getFuelCode() {
+        return fuelCode;
+    }
+    
+    // Multiplier applied to days * price per day (gas cars use standard pricing)
+    public double getFeeFactor() {
+        return fuelCode == DIESEL ? DIESEL_FEE_FACTOR : 1.0;
+    }
+    
     // Override the abstract method from Car
     @Override
     public double calculateRentalFee(int days) {
-        // Gas cars use standard pricing
-        // Optional: Add 15% surcharge for Diesel
-        if (fuelType.equalsIgnoreCase("Diesel")) {
-            return days * getPricePerDay() * 1.15;
-        }
-        return days * getPricePerDay();
+        return days * getPricePerDay() * getFeeFactor();
     }
 }
\ No newline at end of file
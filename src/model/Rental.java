@@ -1,5 +1,8 @@
 package model;
 
+import java.time.LocalDate;
+import java.util.concurrent.atomic.AtomicBoolean;
+
 public class Rental {
 
     // ===================== Fields =====================
@@ -7,15 +10,46 @@ public class Rental {
     private Car car;
     private Customer customer;
     private int days;
-    private boolean returned;
+    private LocalDate startDate;   // first day of the rental
+    private final AtomicBoolean returned;
+    private volatile boolean holdsCar; // true = this rental took the car off the lot (set by the inventory)
+    private volatile boolean cancelled; // returned before its start date: earns nothing
+    private final double totalFee; // fixed when the rental is created
 
-    // ===================== Constructor =====================
+    // ===================== Constructors =====================
+    // Rental starting today
     public Rental(String rentalId, Car car, Customer customer, int days) {
+        this(rentalId, car, customer, LocalDate.now(), days);
+    }
+
+    // Rental starting on startDate (a reservation if that is after today)
+    public Rental(String rentalId, Car car, Customer customer, LocalDate startDate, int days) {
+        this(rentalId, car, customer, startDate, days, car.calculateRentalFee(days));
+    }
+
+    // Rental restored from a record that stores the fee it was charged
+    public Rental(String rentalId, Car car, Customer customer, LocalDate startDate, int days, double totalFee) {
         this.rentalId = rentalId;
         this.car = car;
         this.customer = customer;
         this.days = days;
-        this.returned = false; // Initially not returned
+        this.startDate = startDate;
+        this.returned = new AtomicBoolean(false); // Initially not returned
+        this.totalFee = totalFee;
+    }
+
+    // Copy of another rental (e.g. for a snapshot), attached to the given car.
+    // Fee, dates and returned state are copied as they are, not recomputed.
+    public Rental(Rental other, Car car) {
+        this.rentalId = other.rentalId;
+        this.car = car;
+        this.customer = other.customer;
+        this.days = other.days;
+        this.startDate = other.startDate;
+        this.returned = new AtomicBoolean(other.isReturned());
+        this.holdsCar = other.holdsCar;
+        this.cancelled = other.cancelled;
+        this.totalFee = other.totalFee;
     }
 
     // ===================== Getters =====================
@@ -35,18 +69,60 @@ public class Rental {
         return days;
     }
 
+    public LocalDate getStartDate() {
+        return startDate;
+    }
+
+    // Day after the last rental day (exclusive end)
+    public LocalDate getEndDate() {
+        return startDate.plusDays(days);
+    }
+
+    // Future bookings do not take the car off the lot until they start.
+    // Computed against today, so a reservation turns into a rental on its start date.
+    public boolean isReservation() {
+        return startDate.isAfter(LocalDate.now());
+    }
+
     public boolean isReturned() {
-        return returned;
+        return returned.get();
+    }
+
+    // A reservation returned before it started (also isReturned())
+    public boolean isCancelled() {
+        return cancelled;
+    }
+
+    // Whether this rental claimed the car's availability flag, so returning it frees the car.
+    // Fixed when the rental is created or loaded; not derived from today's date.
+    public boolean holdsCar() {
+        return holdsCar;
     }
 
     // ===================== Setter =====================
+    public void setCancelled(boolean cancelled) {
+        this.cancelled = cancelled;
+    }
+
+    public void setHoldsCar(boolean holdsCar) {
+        this.holdsCar = holdsCar;
+    }
+
     public void setReturned(boolean returned) {
-        this.returned = returned;
+        this.returned.set(returned);
+    }
+
+    // Atomically mark as returned.
+    // Returns false if the rental was already returned (e.g. by another thread).
+    public boolean markReturned() {
+        return returned.compareAndSet(false, true);
     }
 
     // ===================== Business Logic =====================
     // Used in: CarInventory, Payment, CSVExporter
+    // The fee is locked in at rental time, so later price changes on the car
+    // do not change what an existing rental costs.
     public double getTotalFee() {
-        return car.calculateRentalFee(days);
+        return totalFee;
     }
 }
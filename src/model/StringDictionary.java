@@ -0,0 +1,65 @@
+package model;
+
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+// StringDictionary for low-cardinality strings (brands, fuel types, car types).
+// Every distinct spelling is stored once and shared, and gets a small code.
+// Spellings that differ only in case share the same code, so case-insensitive
+// comparisons become int comparisons.
+public final class StringDictionary {
+
+    public static final StringDictionary BRANDS = new StringDictionary();
+    public static final StringDictionary FUEL_TYPES = new StringDictionary();
+    public static final StringDictionary CAR_TYPES = new StringDictionary();
+
+    public static final int NO_CODE = -1; // null, or a value never seen
+
+    private static final class Entry {
+        final String value;
+        final int code;
+
+        Entry(String value, int code) {
+            this.value = value;
+            this.code = code;
+        }
+    }
+
+    private final Map<String, Entry> byValue = new ConcurrentHashMap<>();    // Key = exact spelling
+    private final Map<String, Integer> byFolded = new ConcurrentHashMap<>(); // Key = lowercase value
+    private final AtomicInteger nextCode = new AtomicInteger();
+
+    private Entry entry(String value) {
+        Entry entry = byValue.get(value);
+        if (entry != null) {
+            return entry;
+        }
+        return byValue.computeIfAbsent(value, v -> new Entry(v,
+                byFolded.computeIfAbsent(v.toLowerCase(Locale.ROOT), k -> nextCode.getAndIncrement())));
+    }
+
+    // The shared instance equal to value (added if new)
+    public String intern(String value) {
+        return value == null ? null : entry(value).value;
+    }
+
+    // Case-insensitive code of value (added if new)
+    public int code(String value) {
+        return value == null ? NO_CODE : entry(value).code;
+    }
+
+    // Case-insensitive code of value, or NO_CODE if it was never added (for lookups)
+    public int find(String value) {
+        if (value == null) return NO_CODE;
+        Entry entry = byValue.get(value);
+        if (entry != null) return entry.code;
+        Integer code = byFolded.get(value.toLowerCase(Locale.ROOT));
+        return code == null ? NO_CODE : code;
+    }
+
+    public int size() {
+        return byValue.size();
+    }
+}
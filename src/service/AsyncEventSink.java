@@ -0,0 +1,220 @@
+package service;
+
+import model.Car;
+import model.Rental;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+// Forwards events to another sink on a background thread.
+// Events go through a fixed ring of pre-allocated slots, so publishing an event
+// only copies a few references: no allocation, no I/O on the caller's thread.
+// Many threads may publish at once; events reach the delegate in claim order.
+// When the ring is full, publishers wait for the consumer (nothing is dropped).
+// After close(), events are delivered on the publishing thread instead.
+public class AsyncEventSink implements InventoryEventSink, AutoCloseable {
+
+    private static final int DEFAULT_CAPACITY = 1024;
+
+    // Event types stored in a slot
+    private static final int CAR_ADDED = 0;
+    private static final int CAR_REMOVED = 1;
+    private static final int CAR_NOT_FOUND = 2;
+    private static final int CAR_RENTED = 3;
+    private static final int RENT_REJECTED = 4;
+    private static final int CAR_RETURNED = 5;
+    private static final int RETURN_REJECTED = 6;
+    private static final int BATCH_RENTED = 7;
+    private static final int BATCH_RETURNED = 8;
+    private static final int CAR_RESERVED = 9;
+    private static final int PRICE_CHANGED = 10;
+    private static final int TASK = 11; // not an event: see afterPublished
+
+    // One ring entry. sequence == n means "free for event n"; n + 1 means "event n published".
+    private static final class Slot {
+        volatile long sequence;
+        int type;
+        Car car;
+        Rental rental;
+        String key;
+        BatchResult.Status reason;
+        BatchResult batch;
+        Runnable task;
+    }
+
+    private final InventoryEventSink delegate;
+    private final Slot[] slots;
+    private final int mask;
+    // Closed once CLOSED is set; the other bits are the next sequence to hand to a publisher.
+    // One word, so no publisher can claim a slot after the consumer decided to stop.
+    private static final long CLOSED = Long.MIN_VALUE;
+    private final AtomicLong claimed = new AtomicLong();
+    private volatile long consumed;                       // next sequence the consumer will read
+    private final Thread consumer;
+
+    // Constructor
+    public AsyncEventSink(InventoryEventSink delegate) {
+        this(delegate, DEFAULT_CAPACITY);
+    }
+
+    // capacity is rounded up to a power of two
+    public AsyncEventSink(InventoryEventSink delegate, int capacity) {
+        if (capacity <= 0) {
+            throw new IllegalArgumentException("Capacity must be positive.");
+        }
+        int size = Integer.highestOneBit(capacity);
+        if (size < capacity) size <<= 1;
+
+        this.delegate = delegate;
+        this.slots = new Slot[size];
+        this.mask = size - 1;
+        for (int i = 0; i < size; i++) {
+            slots[i] = new Slot();
+            slots[i].sequence = i;
+        }
+
+        this.consumer = new Thread(this::drainLoop, "inventory-events");
+        this.consumer.setDaemon(true);
+        this.consumer.start();
+    }
+
+    // ============== PUBLISHING ==============
+
+    private void publish(int type, Car car, Rental rental, String key, BatchResult.Status reason, BatchResult batch) {
+        publish(type, car, rental, key, reason, batch, null);
+    }
+
+    private void publish(int type, Car car, Rental rental, String key, BatchResult.Status reason, BatchResult batch,
+                         Runnable task) {
+        long seq;
+        do {
+            seq = claimed.get();
+            if ((seq & CLOSED) != 0) {
+                publishClosed(type, car, rental, key, reason, batch, task);
+                return;
+            }
+        } while (!claimed.compareAndSet(seq, seq + 1));
+
+        Slot slot = slots[(int) (seq & mask)];
+        while (slot.sequence != seq) {
+            LockSupport.parkNanos(1_000); // ring full: wait for the consumer
+        }
+        slot.type = type;
+        slot.car = car;
+        slot.rental = rental;
+        slot.key = key;
+        slot.reason = reason;
+        slot.batch = batch;
+        slot.task = task;
+        slot.sequence = seq + 1; // publish
+    }
+
+    // No consumer any more: deliver directly, after the events still in the ring
+    private void publishClosed(int type, Car car, Rental rental, String key, BatchResult.Status reason, BatchResult batch,
+                               Runnable task) {
+        awaitConsumer();
+        Slot slot = new Slot();
+        slot.type = type;
+        slot.car = car;
+        slot.rental = rental;
+        slot.key = key;
+        slot.reason = reason;
+        slot.batch = batch;
+        slot.task = task;
+        deliver(slot);
+    }
+
+    @Override public void carAdded(Car car) { publish(CAR_ADDED, car, null, null, null, null); }
+    @Override public void carRemoved(Car car) { publish(CAR_REMOVED, car, null, null, null, null); }
+    @Override public void priceChanged(Car car) { publish(PRICE_CHANGED, car, null, null, null, null); }
+    @Override public void carNotFound(String carId) { publish(CAR_NOT_FOUND, null, null, carId, null, null); }
+    @Override public void carRented(Rental rental) { publish(CAR_RENTED, null, rental, null, null, null); }
+    @Override public void carReserved(Rental rental) { publish(CAR_RESERVED, null, rental, null, null, null); }
+    @Override public void rentRejected(String carId, BatchResult.Status reason) { publish(RENT_REJECTED, null, null, carId, reason, null); }
+    @Override public void carReturned(Rental rental) { publish(CAR_RETURNED, null, rental, null, null, null); }
+    @Override public void returnRejected(String rentalId, BatchResult.Status reason) { publish(RETURN_REJECTED, null, null, rentalId, reason, null); }
+    @Override public void batchRented(BatchResult result) { publish(BATCH_RENTED, null, null, null, null, result); }
+    @Override public void batchReturned(BatchResult result) { publish(BATCH_RETURNED, null, null, null, null, result); }
+
+    // Run task on the consumer thread once the events published before it reached the delegate
+    public void afterPublished(Runnable task) {
+        publish(TASK, null, null, null, null, null, task);
+    }
+
+    // ============== CONSUMING ==============
+
+    private void drainLoop() {
+        long next = 0;
+        while (true) {
+            Slot slot = slots[(int) (next & mask)];
+            if (slot.sequence != next + 1) {
+                if (claimed.get() == (next | CLOSED)) return; // closed and fully drained
+                LockSupport.parkNanos(100_000);
+                continue;
+            }
+
+            deliver(slot);
+
+            slot.car = null;
+            slot.rental = null;
+            slot.key = null;
+            slot.reason = null;
+            slot.batch = null;
+            slot.task = null;
+            slot.sequence = next + slots.length; // free for the next lap
+            next++;
+            consumed = next;
+        }
+    }
+
+    private void deliver(Slot slot) {
+        try {
+            dispatch(slot);
+        } catch (RuntimeException e) {
+            // A failing delegate must not stop event delivery
+            e.printStackTrace();
+        }
+    }
+
+    private void dispatch(Slot slot) {
+        switch (slot.type) {
+            case CAR_ADDED: delegate.carAdded(slot.car); break;
+            case CAR_REMOVED: delegate.carRemoved(slot.car); break;
+            case PRICE_CHANGED: delegate.priceChanged(slot.car); break;
+            case CAR_NOT_FOUND: delegate.carNotFound(slot.key); break;
+            case CAR_RENTED: delegate.carRented(slot.rental); break;
+            case CAR_RESERVED: delegate.carReserved(slot.rental); break;
+            case RENT_REJECTED: delegate.rentRejected(slot.key, slot.reason); break;
+            case CAR_RETURNED: delegate.carReturned(slot.rental); break;
+            case RETURN_REJECTED: delegate.returnRejected(slot.key, slot.reason); break;
+            case BATCH_RENTED: delegate.batchRented(slot.batch); break;
+            case BATCH_RETURNED: delegate.batchReturned(slot.batch); break;
+            case TASK: slot.task.run(); break;
+            default: break;
+        }
+    }
+
+    // Wait until every event published before this call reached the delegate
+    public void flush() {
+        long target = claimed.get() & ~CLOSED;
+        while (consumed < target) {
+            LockSupport.parkNanos(100_000);
+        }
+    }
+
+    // Deliver the remaining events and stop the background thread
+    @Override
+    public void close() {
+        claimed.getAndUpdate(seq -> seq | CLOSED);
+        awaitConsumer();
+    }
+
+    private void awaitConsumer() {
+        if (Thread.currentThread() == consumer) return; // a delegate publishing from its own callback
+        try {
+            consumer.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
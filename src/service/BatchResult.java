@@ -0,0 +1,76 @@
+package service;
+
+import model.Rental;
+
+import java.util.*;
+
+// Outcome of a batch rent/return. Batches are all-or-nothing: either every
+// item succeeded, or none was applied and each item says why.
+public class BatchResult {
+
+    public enum Status {
+        RENTED,
+        RETURNED,
+        CAR_NOT_FOUND,
+        CAR_NOT_AVAILABLE,
+        INVALID_DAYS,
+        INVALID_DATES,    // reservation does not start in the future
+        DATES_UNAVAILABLE, // car is already booked for (part of) those dates
+        RENTAL_NOT_FOUND,
+        ALREADY_RETURNED,
+        DUPLICATE,        // same car or rental appears twice in the batch
+        ROLLED_BACK       // item was valid, but another item failed
+    }
+
+    // Result for one item, in the same position as its request
+    public static class Item {
+        private final String key;     // carId (rent) or rentalId (return)
+        private final Status status;
+        private final Rental rental;  // null when the item was not applied
+
+        Item(String key, Status status, Rental rental) {
+            this.key = key;
+            this.status = status;
+            this.rental = rental;
+        }
+
+        public String getKey() {
+            return key;
+        }
+
+        public Status getStatus() {
+            return status;
+        }
+
+        public Rental getRental() {
+            return rental;
+        }
+    }
+
+    private final boolean success;
+    private final List<Item> items;
+
+    BatchResult(boolean success, List<Item> items) {
+        this.success = success;
+        this.items = Collections.unmodifiableList(items);
+    }
+
+    public boolean isSuccess() {
+        return success;
+    }
+
+    public List<Item> getItems() {
+        return items;
+    }
+
+    // Rentals created/returned by the batch (empty if it was rolled back)
+    public List<Rental> getRentals() {
+        List<Rental> rentals = new ArrayList<>();
+        if (success) {
+            for (Item item : items) {
+                rentals.add(item.getRental());
+            }
+        }
+        return rentals;
+    }
+}
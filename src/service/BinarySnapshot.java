@@ -0,0 +1,282 @@
+package service;
+
+import model.*;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.DateTimeException;
+import java.time.LocalDate;
+import java.util.*;
+import java.util.zip.CRC32;
+
+// Binary copy of an inventory's state for fast startup; the CSV files stay the
+// interchange format. Saved from an InventorySnapshot, loaded into an empty inventory.
+//
+// Layout (big-endian):
+//   header   magic "CRSS", format version, body length, CRC-32 of the body
+//   strings  every distinct string once (IDs, brands, fuel types, names, phones)
+//   cars     type tag, string refs, price, availability, battery or fuel type
+//   customers  string refs
+//   rentals  number (or string ref), car and customer by ordinal, start day, days, fee, flags
+// The whole file is read with one bulk read and checked before anything is added.
+public class BinarySnapshot {
+
+    private static final int MAGIC = 0x43525353; // "CRSS"
+    private static final int FORMAT_VERSION = 1;
+    private static final int HEADER_SIZE = 16;
+
+    // Car type tags
+    private static final byte ELECTRIC = 0;
+    private static final byte GAS = 1;
+
+    // Rental flags
+    private static final byte RETURNED = 1;
+    private static final byte NUMBERED = 2; // ID is "R<number>", stored as the number
+    private static final byte NO_CAR = 4;   // Car no longer in the inventory
+    private static final byte CANCELLED = 8; // Returned before it started (see Rental.isCancelled)
+
+    private static final int NO_REF = -1;
+
+    // ===================== SAVE =====================
+
+    // Cars of unknown types are left out (as in cars.csv)
+    public static void save(InventorySnapshot snapshot, Path file) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        DataOutputStream body = new DataOutputStream(bytes);
+
+        // Collect the strings first: the table comes before the records using it
+        Map<String, Integer> strings = new LinkedHashMap<>();
+        Map<Customer, Integer> customers = new IdentityHashMap<>();
+        List<Car> cars = new ArrayList<>();
+        Map<String, Integer> carOrdinals = new HashMap<>();
+        for (Car car : snapshot.getCars()) {
+            if (!(car instanceof ElectricCar) && !(car instanceof GasCar)) continue;
+            carOrdinals.put(car.getId(), cars.size());
+            cars.add(car);
+            stringRef(strings, car.getId());
+            stringRef(strings, car.getBrand());
+            if (car instanceof GasCar) stringRef(strings, ((GasCar) car).getFuelType());
+        }
+        for (Rental rental : snapshot.getRentals()) {
+            if (RentalIdAllocator.keyOf(rental.getRentalId()) < 0) {
+                stringRef(strings, rental.getRentalId());
+            }
+            Customer customer = rental.getCustomer();
+            if (customers.putIfAbsent(customer, customers.size()) == null) {
+                stringRef(strings, customer.getCustomerId());
+                stringRef(strings, customer.getName());
+                stringRef(strings, customer.getPhone());
+            }
+        }
+
+        body.writeLong(snapshot.getRentalIdHighWaterMark());
+
+        body.writeInt(strings.size());
+        for (String value : strings.keySet()) {
+            byte[] utf8 = value.getBytes(StandardCharsets.UTF_8);
+            body.writeInt(utf8.length);
+            body.write(utf8);
+        }
+
+        body.writeInt(cars.size());
+        for (Car car : cars) {
+            body.writeByte(car instanceof ElectricCar ? ELECTRIC : GAS);
+            body.writeInt(strings.get(car.getId()));
+            body.writeInt(strings.get(car.getBrand()));
+            body.writeDouble(car.getPricePerDay());
+            body.writeBoolean(car.isAvailable());
+            if (car instanceof ElectricCar) {
+                body.writeDouble(((ElectricCar) car).getBatteryCapacity());
+            } else {
+                body.writeInt(strings.get(((GasCar) car).getFuelType()));
+            }
+        }
+
+        // Customers in ordinal order
+        Customer[] customerTable = new Customer[customers.size()];
+        customers.forEach((customer, ordinal) -> customerTable[ordinal] = customer);
+        body.writeInt(customerTable.length);
+        for (Customer customer : customerTable) {
+            body.writeInt(stringRefOrNone(strings, customer.getCustomerId()));
+            body.writeInt(stringRefOrNone(strings, customer.getName()));
+            body.writeInt(stringRefOrNone(strings, customer.getPhone()));
+        }
+
+        body.writeInt(snapshot.getRentals().size());
+        for (Rental rental : snapshot.getRentals()) {
+            Integer carOrdinal = carOrdinals.get(rental.getCar().getId());
+            long number = RentalIdAllocator.keyOf(rental.getRentalId());
+            byte flags = 0;
+            if (rental.isReturned()) flags |= RETURNED;
+            if (rental.isCancelled()) flags |= CANCELLED;
+            if (number >= 0) flags |= NUMBERED;
+            if (carOrdinal == null) flags |= NO_CAR;
+
+            body.writeByte(flags);
+            if (number >= 0) {
+                body.writeLong(number);
+            } else {
+                body.writeInt(strings.get(rental.getRentalId()));
+            }
+            body.writeInt(carOrdinal == null ? NO_REF : carOrdinal);
+            body.writeInt(customers.get(rental.getCustomer()));
+            body.writeLong(rental.getStartDate().toEpochDay());
+            body.writeInt(rental.getDays());
+            body.writeDouble(rental.getTotalFee());
+        }
+        body.flush();
+
+        byte[] content = bytes.toByteArray();
+        CRC32 crc = new CRC32();
+        crc.update(content);
+        ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+        header.putInt(MAGIC).putInt(FORMAT_VERSION).putInt(content.length).putInt((int) crc.getValue());
+        header.flip();
+
+        // Same temp file and rename as the CSV files (see CsvWriter)
+        Path target = file.toAbsolutePath();
+        Path temp = target.resolveSibling(target.getFileName() + ".tmp");
+        try {
+            try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                    StandardOpenOption.TRUNCATE_EXISTING)) {
+                ByteBuffer[] parts = {header, ByteBuffer.wrap(content)};
+                while (parts[1].hasRemaining()) {
+                    channel.write(parts);
+                }
+                channel.force(true);
+            }
+            CsvWriter.moveIntoPlace(temp, target);
+        } finally {
+            Files.deleteIfExists(temp); // Only left behind if something failed
+        }
+    }
+
+    private static void stringRef(Map<String, Integer> strings, String value) {
+        if (value != null) strings.putIfAbsent(value, strings.size());
+    }
+
+    private static int stringRefOrNone(Map<String, Integer> strings, String value) {
+        return value == null ? NO_REF : strings.get(value);
+    }
+
+    // ===================== LOAD =====================
+
+    // Load a saved snapshot into the inventory; false if there is no such file.
+    // A damaged, truncated or newer-format file is an IOException and nothing is added.
+    public static boolean load(CarInventory inventory, Path file) throws IOException {
+        if (!Files.exists(file)) return false;
+
+        byte[] content = Files.readAllBytes(file);
+        ByteBuffer in = ByteBuffer.wrap(content);
+        if (content.length < HEADER_SIZE || in.getInt() != MAGIC) {
+            throw new IOException(file + " is not an inventory snapshot");
+        }
+        int version = in.getInt();
+        if (version != FORMAT_VERSION) {
+            throw new IOException(file + " has unsupported snapshot version " + version);
+        }
+        int length = in.getInt();
+        int checksum = in.getInt();
+        CRC32 crc = new CRC32();
+        if (length != content.length - HEADER_SIZE) {
+            throw new IOException(file + " is truncated");
+        }
+        crc.update(content, HEADER_SIZE, length);
+        if ((int) crc.getValue() != checksum) {
+            throw new IOException(file + " is damaged (checksum mismatch)");
+        }
+
+        // Decode everything before touching the inventory
+        List<Car> cars = new ArrayList<>();
+        List<Rental> rentals = new ArrayList<>();
+        List<String> orphanIds = new ArrayList<>(); // Rentals whose car is gone: only their IDs are kept
+        long highWaterMark;
+        try {
+            highWaterMark = in.getLong();
+
+            String[] strings = new String[count(in)];
+            for (int i = 0; i < strings.length; i++) {
+                int size = count(in);
+                strings[i] = new String(content, in.position(), size, StandardCharsets.UTF_8);
+                in.position(in.position() + size);
+            }
+
+            int carCount = count(in);
+            for (int i = 0; i < carCount; i++) {
+                byte type = in.get();
+                String id = string(strings, in.getInt());
+                String brand = string(strings, in.getInt());
+                double price = in.getDouble();
+                boolean available = in.get() != 0;
+                Car car;
+                if (type == ELECTRIC) {
+                    car = new ElectricCar(id, brand, price, in.getDouble());
+                } else if (type == GAS) {
+                    car = new GasCar(id, brand, price, string(strings, in.getInt()));
+                } else {
+                    throw new IOException(file + " has unknown car type " + type);
+                }
+                car.setAvailable(available);
+                cars.add(car);
+            }
+
+            Customer[] customers = new Customer[count(in)];
+            for (int i = 0; i < customers.length; i++) {
+                customers[i] = new Customer(string(strings, in.getInt()), string(strings, in.getInt()),
+                        string(strings, in.getInt()));
+            }
+
+            int rentalCount = count(in);
+            for (int i = 0; i < rentalCount; i++) {
+                byte flags = in.get();
+                String id = (flags & NUMBERED) != 0
+                        ? RentalIdAllocator.PREFIX + in.getLong()
+                        : string(strings, in.getInt());
+                int carOrdinal = in.getInt();
+                Customer customer = customers[ordinal(in.getInt(), customers.length)];
+                LocalDate startDate = LocalDate.ofEpochDay(in.getLong());
+                int days = in.getInt();
+                double fee = in.getDouble();
+                if ((flags & NO_CAR) != 0) {
+                    orphanIds.add(id);
+                    continue;
+                }
+                Rental rental = new Rental(id, cars.get(ordinal(carOrdinal, cars.size())), customer, startDate, days, fee);
+                rental.setReturned((flags & RETURNED) != 0);
+                rental.setCancelled((flags & CANCELLED) != 0);
+                rentals.add(rental);
+            }
+        } catch (BufferUnderflowException | IndexOutOfBoundsException | DateTimeException e) {
+            throw new IOException(file + " is damaged", e);
+        }
+
+        cars.forEach(inventory::addCarFromStorage);
+        inventory.getRentalIdAllocator().advanceTo(highWaterMark);
+        orphanIds.forEach(inventory.getRentalIdAllocator()::observe);
+        rentals.forEach(inventory::addRentalFromStorage);
+        return true;
+    }
+
+    private static int count(ByteBuffer in) throws IOException {
+        int count = in.getInt();
+        if (count < 0 || count > in.remaining()) throw new IOException("invalid count " + count);
+        return count;
+    }
+
+    private static String string(String[] strings, int ref) throws IOException {
+        return ref == NO_REF ? null : strings[ordinal(ref, strings.length)];
+    }
+
+    private static int ordinal(int ref, int size) throws IOException {
+        if (ref < 0 || ref >= size) throw new IOException("invalid reference " + ref);
+        return ref;
+    }
+}
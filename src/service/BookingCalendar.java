@@ -0,0 +1,90 @@
+package service;
+
+import model.Rental;
+
+import java.time.LocalDate;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+
+// Per-car interval index of booked date ranges [start, end).
+// Each car's bookings never overlap and are kept in a TreeMap by start date,
+// so an overlap check only needs the booking with the latest start before the
+// requested end: O(log n) per car.
+class BookingCalendar {
+
+    // Key = carId, Value = bookings of that car by start date (guarded by the TreeMap itself).
+    // Only cars with bookings have an entry (changed inside compute, so none is dropped while
+    // being booked), which keeps busyCars proportional to the booked cars, not the fleet.
+    private final Map<String, TreeMap<LocalDate, Rental>> calendars = new ConcurrentHashMap<>();
+
+    // Book the rental's dates; false if they overlap an existing booking
+    boolean book(Rental rental) {
+        boolean[] booked = new boolean[1];
+        calendars.compute(rental.getCar().getId(), (id, current) -> {
+            TreeMap<LocalDate, Rental> calendar = current != null ? current : new TreeMap<>();
+            synchronized (calendar) {
+                if (!overlaps(calendar, rental.getStartDate(), rental.getEndDate())) {
+                    calendar.put(rental.getStartDate(), rental);
+                    booked[0] = true;
+                }
+                return calendar.isEmpty() ? null : calendar;
+            }
+        });
+        return booked[0];
+    }
+
+    // Free the rental's dates (no-op if they are not booked by this rental)
+    void release(Rental rental) {
+        calendars.computeIfPresent(rental.getCar().getId(), (id, calendar) -> {
+            synchronized (calendar) {
+                calendar.remove(rental.getStartDate(), rental);
+                return calendar.isEmpty() ? null : calendar;
+            }
+        });
+    }
+
+    void removeCar(String carId) {
+        calendars.remove(carId);
+    }
+
+    // True if nothing is booked for the car in [from, to)
+    boolean isFree(String carId, LocalDate from, LocalDate to) {
+        TreeMap<LocalDate, Rental> calendar = calendars.get(carId);
+        if (calendar == null) return true;
+        synchronized (calendar) {
+            return !overlaps(calendar, from, to);
+        }
+    }
+
+    // IDs of the cars with a booking overlapping [from, to); only cars that were ever booked are checked
+    // Cars with a booking overlapping [from, to) (visits only the cars with bookings)
+    Set<String> busyCars(LocalDate from, LocalDate to) {
+        Set<String> busy = new HashSet<>();
+        calendars.forEach((carId, calendar) -> {
+            synchronized (calendar) {
+                if (overlaps(calendar, from, to)) busy.add(carId);
+            }
+        });
+        return busy;
+    }
+
+    // Cars with at least one booking
+    int bookedCarCount() {
+        return calendars.size();
+    }
+
+    // Bookings of one car, earliest first
+    List<Rental> bookings(String carId) {
+        TreeMap<LocalDate, Rental> calendar = calendars.get(carId);
+        if (calendar == null) return Collections.emptyList();
+        synchronized (calendar) {
+            return new ArrayList<>(calendar.values());
+        }
+    }
+
+    private static boolean overlaps(TreeMap<LocalDate, Rental> calendar, LocalDate from, LocalDate to) {
+        // Bookings don't overlap, so the one starting last before `to` also ends last
+        Map.Entry<LocalDate, Rental> before = calendar.lowerEntry(to);
+        return before != null && before.getValue().getEndDate().isAfter(from);
+    }
+}
@@ -0,0 +1,118 @@
+package service;
+
+import model.Car;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+
+// Inverted n-gram index for case-insensitive substring search over car brands.
+// Fleets reuse a handful of brand names, so grams point to distinct (lowercase)
+// brands, and each brand points to its cars. A query only touches the brands
+// sharing its rarest trigram, and then only the cars of the brands that match.
+class BrandIndex {
+
+    private static final int GRAM = 3;
+
+    // Key = lowercase brand, Value = cars with that brand
+    private final Map<String, Set<Car>> carsByBrand = new ConcurrentHashMap<>();
+    // Key = gram (1..3 chars), Value = lowercase brands containing it
+    private final Map<String, Set<String>> brandsByGram = new ConcurrentHashMap<>();
+
+    void add(Car car) {
+        carsByBrand.compute(key(car), (brand, set) -> {
+            if (set == null) {
+                set = ConcurrentHashMap.newKeySet();
+                for (String gram : grams(brand)) {
+                    brandsByGram.computeIfAbsent(gram, g -> ConcurrentHashMap.newKeySet()).add(brand);
+                }
+            }
+            set.add(car);
+            return set;
+        });
+    }
+
+    void remove(Car car) {
+        carsByBrand.computeIfPresent(key(car), (brand, set) -> {
+            set.remove(car);
+            if (!set.isEmpty()) return set;
+
+            // Last car of this brand: drop the brand from its grams
+            for (String gram : grams(brand)) {
+                brandsByGram.computeIfPresent(gram, (g, brands) -> {
+                    brands.remove(brand);
+                    return brands.isEmpty() ? null : brands;
+                });
+            }
+            return null;
+        });
+    }
+
+    // All cars whose brand contains query (case-insensitive)
+    List<Car> search(String query) {
+        String q = query.toLowerCase(Locale.ROOT);
+        List<Car> results = new ArrayList<>();
+
+        if (q.isEmpty()) {
+            for (Set<Car> set : carsByBrand.values()) {
+                results.addAll(set);
+            }
+            return results;
+        }
+
+        for (String brand : candidateBrands(q)) {
+            // Grams of length <= 3 are exact; longer queries must be verified
+            if (q.length() <= GRAM || brand.contains(q)) {
+                Set<Car> set = carsByBrand.get(brand);
+                if (set != null) {
+                    results.addAll(set);
+                }
+            }
+        }
+        return results;
+    }
+
+    // Upper bound on search(query).size(), without verifying long queries
+    int estimate(String query) {
+        String q = query.toLowerCase(Locale.ROOT);
+        if (q.isEmpty()) return Integer.MAX_VALUE;
+
+        int total = 0;
+        for (String brand : candidateBrands(q)) {
+            Set<Car> set = carsByBrand.get(brand);
+            if (set != null) total += set.size();
+        }
+        return total;
+    }
+
+    // Smallest posting list among the query's trigrams (every match is in all of them)
+    private Set<String> candidateBrands(String q) {
+        if (q.length() <= GRAM) {
+            return brandsByGram.getOrDefault(q, Collections.emptySet());
+        }
+
+        Set<String> smallest = null;
+        for (int i = 0; i + GRAM <= q.length(); i++) {
+            Set<String> posting = brandsByGram.get(q.substring(i, i + GRAM));
+            if (posting == null) return Collections.emptySet();
+            if (smallest == null || posting.size() < smallest.size()) {
+                smallest = posting;
+            }
+        }
+        return smallest;
+    }
+
+    private static String key(Car car) {
+        return car.getBrand().toLowerCase(Locale.ROOT);
+    }
+
+    // Every distinct substring of length 1..3
+    private static Set<String> grams(String brand) {
+        Set<String> grams = new HashSet<>();
+        for (int len = 1; len <= GRAM; len++) {
+            for (int i = 0; i + len <= brand.length(); i++) {
+                grams.add(brand.substring(i, i + len));
+            }
+        }
+        return grams;
+    }
+}
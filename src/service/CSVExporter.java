@@ -5,7 +5,9 @@ import model.*;
 import java.io.*;
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.time.LocalDate;
 import java.util.*;
+import java.util.concurrent.ForkJoinPool;
 
 public class CSVExporter {
 
@@ -14,18 +16,56 @@ public class CSVExporter {
             "CarID,Brand,Type,PricePerDay,Available,BatteryCapacity,FuelType";
 
     private static final String RENTALS_HEADER =
+            "RentalID,CarID,CustomerID,CustomerName,CustomerPhone,Days,Returned,TotalFee,StartDate,EndDate";
+
+    // Returned column of a reservation cancelled before it started (otherwise Yes/No)
+    private static final String CANCELLED = "Cancelled";
+
+    // Rentals files written before start/end dates existed (loaded as starting today)
+    private static final String LEGACY_RENTALS_HEADER =
             "RentalID,CarID,CustomerID,CustomerName,CustomerPhone,Days,Returned,TotalFee";
 
+    // Files from this size on are loaded by ParallelCsvReader. Smaller files are read as a
+    // stream: they load fast enough, and on Windows a file cannot be replaced (by the next
+    // save) while a mapping of it is still waiting to be garbage collected.
+    private static final long PARALLEL_LOAD_BYTES = 16L << 20;
+
+    // Codes of the Type column values (case-insensitive)
+    private static final int ELECTRIC = StringDictionary.CAR_TYPES.code("Electric");
+    private static final int GAS = StringDictionary.CAR_TYPES.code("Gas");
+
     // ===================== PUBLIC API =====================
 
+    // Save (Cars and Rentals) from one snapshot, so both files describe the same moment
+    // even while other threads keep renting and returning
+    public static void save(CarInventory inventory, String carsFileName, String rentalsFileName) throws IOException {
+        save(inventory.snapshot(), carsFileName, rentalsFileName);
+    }
+
+    // Same from a snapshot taken by the caller (e.g. also saved as a BinarySnapshot)
+    public static void save(InventorySnapshot snapshot, String carsFileName, String rentalsFileName) throws IOException {
+        exportCarsToCSV(snapshot.getCars(), carsFileName);
+        saveRentals(snapshot, rentalsFileName);
+    }
+
     // Save (Cars)
     public static void saveCars(CarInventory inventory, String fileName) throws IOException {
-        exportCarsToCSV(inventory.getAllCars(), fileName);
+        exportCarsToCSV(inventory.snapshot().getCars(), fileName);
     }
 
     // Save (Rentals)
     public static void saveRentals(CarInventory inventory, String fileName) throws IOException {
-        exportRentalsToCSV(inventory.getAllRentals(), fileName);
+        saveRentals(inventory.snapshot(), fileName);
+    }
+
+    // Also writes the rental ID high-water mark next to the CSV (<fileName>.seq),
+    // so IDs of rentals that were skipped or dropped are never reissued.
+    private static void saveRentals(InventorySnapshot snapshot, String fileName) throws IOException {
+        exportRentalsToCSV(snapshot.getRentals(), fileName);
+        try (CsvWriter out = new CsvWriter(Path.of(sequenceFileName(fileName)))) {
+            out.field(snapshot.getRentalIdHighWaterMark());
+            out.commit();
+        }
     }
 
     // Load (Cars)
@@ -33,44 +73,21 @@ public class CSVExporter {
         Path path = Path.of(fileName);
         if (!Files.exists(path)) return 0;
 
-        int loaded = 0;
+        long size = Files.size(path);
+        if (size >= PARALLEL_LOAD_BYTES) {
+            ForkJoinPool pool = ForkJoinPool.commonPool();
+            return loadCarsInParallel(inventory, path, ParallelCsvReader.chunkBytesFor(size, pool), pool);
+        }
 
-        try (BufferedReader br = Files.newBufferedReader(path)) {
-            String header = br.readLine();
-            if (header == null) return 0;
+        int loaded = 0;
 
-            // Accept only the new format header (strict & professional)
-            if (!header.trim().equalsIgnoreCase(CARS_HEADER)) {
-                throw new IOException("cars.csv header format is invalid or outdated. Expected: " + CARS_HEADER);
-            }
+        try (CsvReader csv = new CsvReader(Files.newBufferedReader(path))) {
+            if (!csv.next()) return 0;
+            checkCarsHeader(csv);
 
-            String line;
-            while ((line = br.readLine()) != null) {
-                if (line.trim().isEmpty()) continue;
-
-                List<String> cols = parseCSVLine(line);
-                if (cols.size() < 7) continue;
-
-                String carId = cols.get(0);
-                String brand = cols.get(1);
-                String type = cols.get(2);
-                double pricePerDay = parseDoubleSafe(cols.get(3), 0.0);
-                boolean available = parseBooleanYesNo(cols.get(4), true);
-                double batteryCapacity = parseDoubleSafe(cols.get(5), 0.0);
-                String fuelType = cols.get(6);
-
-                Car car;
-                if ("Electric".equalsIgnoreCase(type)) {
-                    car = new ElectricCar(carId, brand, pricePerDay, batteryCapacity);
-                } else if ("Gas".equalsIgnoreCase(type)) {
-                    car = new GasCar(carId, brand, pricePerDay, fuelType);
-                } else {
-                    // Unknown type: skip
-                    continue;
-                }
-
-                // Override availability based on stored value
-                car.setAvailable(available);
+            while (csv.next()) {
+                Car car = parseCar(csv);
+                if (car == null) continue;
 
                 inventory.addCarFromStorage(car);
                 loaded++;
@@ -80,174 +97,260 @@ public class CSVExporter {
         return loaded;
     }
 
+    // Same for a large file: parsed on all cores, then added in file order
+    static int loadCarsInParallel(CarInventory inventory, Path path, long chunkBytes, ForkJoinPool pool) throws IOException {
+        try (ParallelCsvReader csv = new ParallelCsvReader(path, chunkBytes, pool)) {
+            CsvReader header = csv.header();
+            if (header == null) return 0;
+            checkCarsHeader(header);
+
+            List<Car> cars = csv.parse(CSVExporter::parseCar);
+            cars.forEach(inventory::addCarFromStorage);
+            return cars.size();
+        }
+    }
+
     // Load (Rentals)
     public static int loadRentalsIntoInventory(CarInventory inventory, String fileName) throws IOException {
+        loadRentalIdHighWaterMark(inventory, fileName);
+
         Path path = Path.of(fileName);
         if (!Files.exists(path)) return 0;
 
+        long size = Files.size(path);
+        if (size >= PARALLEL_LOAD_BYTES) {
+            ForkJoinPool pool = ForkJoinPool.commonPool();
+            return loadRentalsInParallel(inventory, path, ParallelCsvReader.chunkBytesFor(size, pool), pool);
+        }
+
         int loaded = 0;
 
-        try (BufferedReader br = Files.newBufferedReader(path)) {
-            String header = br.readLine();
-            if (header == null) return 0;
+        try (CsvReader csv = new CsvReader(Files.newBufferedReader(path))) {
+            if (!csv.next()) return 0;
+            boolean legacy = checkRentalsHeader(csv);
+
+            LocalDate today = LocalDate.now();
+            while (csv.next()) {
+                RentalRow row = parseRental(csv, inventory, legacy, today);
+                if (row != null && addRental(inventory, row)) {
+                    loaded++;
+                }
+            }
+        }
+
+        return loaded;
+    }
 
-            if (!header.trim().equalsIgnoreCase(RENTALS_HEADER)) {
-                throw new IOException("rentals.csv header format is invalid or outdated. Expected: " + RENTALS_HEADER);
+    // Same for a large file: parsed on all cores, then added in file order
+    // (the .seq file is read by loadRentalsIntoInventory)
+    static int loadRentalsInParallel(CarInventory inventory, Path path, long chunkBytes, ForkJoinPool pool) throws IOException {
+        try (ParallelCsvReader csv = new ParallelCsvReader(path, chunkBytes, pool)) {
+            CsvReader header = csv.header();
+            if (header == null) return 0;
+            boolean legacy = checkRentalsHeader(header);
+
+            LocalDate today = LocalDate.now();
+            List<RentalRow> rows = csv.parse(row -> parseRental(row, inventory, legacy, today));
+            int loaded = 0;
+            for (RentalRow row : rows) {
+                if (addRental(inventory, row)) {
+                    loaded++;
+                }
             }
+            return loaded;
+        }
+    }
 
-            String line;
-            while ((line = br.readLine()) != null) {
-                if (line.trim().isEmpty()) continue;
+    // ===================== ROW PARSING (SHARED BY BOTH LOADERS) =====================
 
-                List<String> cols = parseCSVLine(line);
-                if (cols.size() < 8) continue;
+    // Accept only the new format header (strict & professional)
+    private static void checkCarsHeader(CsvReader header) throws IOException {
+        if (!header.matchesHeader(CARS_HEADER)) {
+            throw new IOException("cars.csv header format is invalid or outdated. Expected: " + CARS_HEADER);
+        }
+    }
 
-                String rentalId = cols.get(0);
-                String carId = cols.get(1);
-                String customerId = cols.get(2);
-                String customerName = cols.get(3);
-                String customerPhone = cols.get(4);
-                int days = parseIntSafe(cols.get(5), 1);
-                boolean returned = parseBooleanYesNo(cols.get(6), false);
+    // Returns whether the file uses the legacy header (no dates)
+    private static boolean checkRentalsHeader(CsvReader header) throws IOException {
+        boolean legacy = header.matchesHeader(LEGACY_RENTALS_HEADER);
+        if (!legacy && !header.matchesHeader(RENTALS_HEADER)) {
+            throw new IOException("rentals.csv header format is invalid or outdated. Expected: " + RENTALS_HEADER);
+        }
+        return legacy;
+    }
 
-                // TotalFee is stored for report/readability, but we recompute from Car anyway
-                // double storedTotalFee = parseDoubleSafe(cols.get(7), 0.0);
+    // Car of one cars.csv row, or null to skip the row
+    private static Car parseCar(CsvReader csv) {
+        if (csv.size() < 7) return null;
+
+        String carId = csv.getString(0);
+        String brand = csv.getString(1);
+        String type = csv.getString(2);
+        double pricePerDay = csv.getDouble(3, 0.0);
+        boolean available = csv.getYesNo(4, true);
+        double batteryCapacity = csv.getDouble(5, 0.0);
+        String fuelType = csv.getString(6);
+
+        Car car;
+        int typeCode = StringDictionary.CAR_TYPES.find(type);
+        if (typeCode == ELECTRIC) {
+            car = new ElectricCar(carId, brand, pricePerDay, batteryCapacity);
+        } else if (typeCode == GAS) {
+            car = new GasCar(carId, brand, pricePerDay, fuelType);
+        } else {
+            // Unknown type: skip
+            return null;
+        }
 
-                Car car = inventory.findCarById(carId);
-                if (car == null) {
-                    // If car not found, skip this rental (data integrity rule)
-                    continue;
-                }
+        // Override availability based on stored value
+        car.setAvailable(available);
+        return car;
+    }
 
-                Customer customer = new Customer(customerId, customerName, customerPhone);
-                Rental rental = new Rental(rentalId, car, customer, days);
-                rental.setReturned(returned);
+    // One rentals.csv row, before it is added to the inventory
+    private static final class RentalRow {
+        String rentalId;
+        Car car;               // null = car not in the inventory
+        String customerId;
+        String customerName;
+        String customerPhone;
+        int days;
+        boolean returned;
+        boolean cancelled;     // Returned column says "Cancelled" (also returned)
+        double totalFee;       // NaN = missing or malformed, recomputed from the car
+        LocalDate startDate;
+    }
 
-                // Ensure car state matches rental state
-                if (!returned) {
-                    car.setAvailable(false);
-                }
+    // Reads the inventory's cars and customers only, so rows can be parsed in parallel
+    private static RentalRow parseRental(CsvReader csv, CarInventory inventory, boolean legacy, LocalDate today) {
+        if (csv.size() < (legacy ? 8 : 10)) return null;
+
+        RentalRow row = new RentalRow();
+        row.rentalId = csv.getString(0);
+        row.car = inventory.findCarById(csv.getString(1));
+        row.customerId = csv.getString(2);
+        row.days = csv.getInt(5, 1);
+        row.cancelled = csv.fieldEquals(6, CANCELLED);
+        row.returned = row.cancelled || csv.getYesNo(6, false);
+
+        // Known customer with unchanged details: reuse its strings
+        Customer known = inventory.getCustomerRegistry().findCustomerById(row.customerId);
+        boolean unchanged = known != null && csv.fieldEquals(3, known.getName()) && csv.fieldEquals(4, known.getPhone());
+        row.customerName = unchanged ? known.getName() : csv.getString(3);
+        row.customerPhone = unchanged ? known.getPhone() : csv.getString(4);
+
+        // The fee was fixed when the car was rented: the car's price may have changed since
+        row.totalFee = csv.getDouble(7, Double.NaN);
+
+        // EndDate is derived from StartDate + Days, so only StartDate is read back
+        row.startDate = legacy ? today : csv.getDate(8, today);
+        return row;
+    }
 
-                inventory.addRentalFromStorage(rental);
-                loaded++;
-            }
+    // Returns whether the rental was added
+    private static boolean addRental(CarInventory inventory, RentalRow row) {
+        if (row.car == null) {
+            // If car not found, skip this rental (data integrity rule)
+            // but still reserve its ID so it is never reused
+            inventory.getRentalIdAllocator().observe(row.rentalId);
+            return false;
         }
 
-        return loaded;
+        // Repeat customers share one Customer object
+        Customer customer = inventory.getCustomerRegistry().canonical(row.customerId, row.customerName, row.customerPhone);
+        Rental rental = Double.isNaN(row.totalFee)
+                ? new Rental(row.rentalId, row.car, customer, row.startDate, row.days)
+                : new Rental(row.rentalId, row.car, customer, row.startDate, row.days, row.totalFee);
+        rental.setReturned(row.returned);
+        rental.setCancelled(row.cancelled);
+
+        // Car state (unavailable / booked dates) is synced by addRentalFromStorage
+        inventory.addRentalFromStorage(rental);
+        return true;
     }
 
     // ===================== REPORT EXPORT (SAME CLASS) =====================
 
+    // Both exports replace the file in one step once it is fully written (see CsvWriter)
     public static void exportCarsToCSV(Collection<Car> cars, String fileName) throws IOException {
-        try (FileWriter writer = new FileWriter(fileName)) {
+        try (CsvWriter out = new CsvWriter(Path.of(fileName))) {
 
-            writer.append(CARS_HEADER).append("\n");
+            out.line(CARS_HEADER);
 
             for (Car car : cars) {
-                String carId = escapeCSV(car.getId());
-                String brand = escapeCSV(car.getBrand());
-                String type;
-                String batteryCapacity = "";
-                String fuelType = "";
+                out.field(car.getId());
+                out.field(car.getBrand());
 
                 if (car instanceof ElectricCar) {
-                    type = "Electric";
-                    batteryCapacity = String.valueOf(((ElectricCar) car).getBatteryCapacity());
+                    out.field("Electric");
                 } else if (car instanceof GasCar) {
-                    type = "Gas";
-                    fuelType = ((GasCar) car).getFuelType();
+                    out.field("Gas");
                 } else {
-                    type = "Unknown";
+                    out.field("Unknown");
                 }
 
-                writer.append(carId).append(",");
-                writer.append(brand).append(",");
-                writer.append(escapeCSV(type)).append(",");
-                writer.append(String.valueOf(car.getPricePerDay())).append(",");
-                writer.append(car.isAvailable() ? "Yes" : "No").append(",");
-                writer.append(escapeCSV(batteryCapacity)).append(",");
-                writer.append(escapeCSV(fuelType)).append("\n");
+                out.field(car.getPricePerDay());
+                out.yesNo(car.isAvailable());
+
+                if (car instanceof ElectricCar) {
+                    out.field(((ElectricCar) car).getBatteryCapacity());
+                } else {
+                    out.field("");
+                }
+                out.field(car instanceof GasCar ? ((GasCar) car).getFuelType() : "");
+                out.endRow();
             }
+
+            out.commit();
         }
     }
 
     public static void exportRentalsToCSV(List<Rental> rentals, String fileName) throws IOException {
-        try (FileWriter writer = new FileWriter(fileName)) {
+        try (CsvWriter out = new CsvWriter(Path.of(fileName))) {
 
-            writer.append(RENTALS_HEADER).append("\n");
+            out.line(RENTALS_HEADER);
 
             for (Rental rental : rentals) {
-                writer.append(escapeCSV(rental.getRentalId())).append(",");
-                writer.append(escapeCSV(rental.getCar().getId())).append(",");
-                writer.append(escapeCSV(rental.getCustomer().getCustomerId())).append(",");
-                writer.append(escapeCSV(rental.getCustomer().getName())).append(",");
-                writer.append(escapeCSV(rental.getCustomer().getPhone())).append(",");
-                writer.append(String.valueOf(rental.getDays())).append(",");
-                writer.append(rental.isReturned() ? "Yes" : "No").append(",");
-                writer.append(String.valueOf(rental.getTotalFee())).append("\n");
+                out.field(rental.getRentalId());
+                out.field(rental.getCar().getId());
+                out.field(rental.getCustomer().getCustomerId());
+                out.field(rental.getCustomer().getName());
+                out.field(rental.getCustomer().getPhone());
+                out.field(rental.getDays());
+                if (rental.isCancelled()) {
+                    out.field(CANCELLED);
+                } else {
+                    out.yesNo(rental.isReturned());
+                }
+                out.field(rental.getTotalFee());
+                out.field(rental.getStartDate());
+                out.field(rental.getEndDate());
+                out.endRow();
             }
+
+            out.commit();
         }
     }
 
     // ===================== HELPERS =====================
 
-    private static String escapeCSV(String value) {
-        if (value == null) return "";
-        String v = value;
-        boolean mustQuote = v.contains(",") || v.contains("\"") || v.contains("\n") || v.contains("\r");
-        v = v.replace("\"", "\"\"");
-        return mustQuote ? "\"" + v + "\"" : v;
+    private static String sequenceFileName(String rentalsFileName) {
+        return rentalsFileName + ".seq";
     }
 
-    // Minimal CSV parser for one line (supports quoted values)
-    private static List<String> parseCSVLine(String line) {
-        List<String> result = new ArrayList<>();
-        StringBuilder sb = new StringBuilder();
-        boolean inQuotes = false;
+    private static void loadRentalIdHighWaterMark(CarInventory inventory, String rentalsFileName) throws IOException {
+        Path path = Path.of(sequenceFileName(rentalsFileName));
+        if (!Files.exists(path)) return;
 
-        for (int i = 0; i < line.length(); i++) {
-            char c = line.charAt(i);
-
-            if (c == '\"') {
-                // if double quote inside quoted field -> escaped quote
-                if (inQuotes && i + 1 < line.length() && line.charAt(i + 1) == '\"') {
-                    sb.append('\"');
-                    i++;
-                } else {
-                    inQuotes = !inQuotes;
-                }
-            } else if (c == ',' && !inQuotes) {
-                result.add(sb.toString());
-                sb.setLength(0);
-            } else {
-                sb.append(c);
-            }
+        long mark = parseLongSafe(Files.readString(path), 0L);
+        if (mark > 0) {
+            inventory.getRentalIdAllocator().advanceTo(mark);
         }
-        result.add(sb.toString());
-        return result;
     }
 
-    private static boolean parseBooleanYesNo(String s, boolean defaultValue) {
+    // (same rules as CsvReader, no exception on bad input)
+    private static long parseLongSafe(String s, long defaultValue) {
         if (s == null) return defaultValue;
-        String v = s.trim().toLowerCase();
-        if (v.equals("yes") || v.equals("true")) return true;
-        if (v.equals("no") || v.equals("false")) return false;
-        return defaultValue;
-    }
-
-    private static double parseDoubleSafe(String s, double defaultValue) {
-        try {
-            return Double.parseDouble(s.trim());
-        } catch (Exception e) {
-            return defaultValue;
-        }
-    }
-
-    private static int parseIntSafe(String s, int defaultValue) {
-        try {
-            return Integer.parseInt(s.trim());
-        } catch (Exception e) {
-            return defaultValue;
-        }
+        return CsvReader.parseLong(s.toCharArray(), 0, s.length(), defaultValue);
     }
 }
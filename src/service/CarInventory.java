@@ -1,41 +1,176 @@
 package service;
 
 import model.*;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.time.LocalDate;
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.stream.Stream;
 
+// Thread-safe: cars and rentals can be rented/returned from many threads at once.
+// Availability changes are per-car atomic (Car.tryRent, Rental.markReturned),
+// so there is no global lock on the rent/return path.
 public class CarInventory {
 
     // Data structures to manage cars and rentals
     private Map<String, Car> cars;           // Key = carId, Value = Car object
-    private List<Rental> rentals;            // List of all rentals
+    private volatile RentalLog rentals;      // Hot rental history (replaced when rentals are archived)
+    private Map<String, Rental> rentalsById; // Key = rentalId, Value = first Rental with that ID
+    private RentalIdAllocator rentalIds;     // Generates new rental IDs
+    private BrandIndex brandIndex;           // Substring index for searchByBrand
+    private FleetIndex fleetIndex;           // Availability / type / fuel type buckets
+    private PriceIndex priceIndex;           // Cars sorted by price per day
+    private FleetColumns columns;            // Columnar copy of the fleet for full scans
+    private BookingCalendar calendar;        // Booked date ranges per car
+    private CustomerRegistry customers;      // One shared Customer per ID, and their rentals
+    private CarListener indexUpdater;        // Registered on every car to keep indexes in sync
+    private InventoryEventSink events;       // Where add/remove/rent/return events are reported
+    private volatile RentalArchive archive;  // Cold tier for returned rentals (null = keep all in memory)
 
-    // Constructor
+    // Stored rentals whose dates overlapped a booking that was still open when they were loaded
+    // (the journal can hold a rental before the early return that made room for it): carId -> rentals
+    private final Map<String, List<Rental>> waitingForCar = new ConcurrentHashMap<>();
+
+    // Running rental statistics (updated on rent, return and storage load)
+    private final LongAdder activeRentals = new LongAdder();
+    private final LongAdder completedRentals = new LongAdder();
+    private final LongAdder pendingCents = new LongAdder();   // fees of active rentals in cents (+ on rent, - on return or cancel)
+    private final LongAdder completedCents = new LongAdder(); // fees of returned rentals in cents
+
+    // Write bracket for snapshots: every mutating operation bumps writesStarted before
+    // it touches anything and writesFinished when it is done (both striped, no contention)
+    private final LongAdder writesStarted = new LongAdder();
+    private final LongAdder writesFinished = new LongAdder();
+    private final ReentrantLock exclusiveGate = new ReentrantLock(); // held while writers are kept out
+    private volatile boolean draining;                                // true while the gate is held
+
+    // Constructor (reports events as console messages)
     public CarInventory() {
-        this.cars = new HashMap<>();
-        this.rentals = new ArrayList<>();
+        this(new ConsoleEventSink());
+    }
+
+    // Constructor with a custom event sink (e.g. InventoryEventSink.NONE or an AsyncEventSink)
+    public CarInventory(InventoryEventSink events) {
+        this(events, new RentalIdAllocator());
+    }
+
+    // Constructor sharing an ID allocator (used by PartitionedInventory's shards)
+    CarInventory(InventoryEventSink events, RentalIdAllocator rentalIds) {
+        this.events = events;
+        this.cars = new ConcurrentHashMap<>();
+        this.rentals = new RentalLog();
+        this.rentalsById = new ConcurrentHashMap<>();
+        this.rentalIds = rentalIds;
+        this.brandIndex = new BrandIndex();
+        this.fleetIndex = new FleetIndex();
+        this.priceIndex = new PriceIndex();
+        this.columns = new FleetColumns();
+        this.calendar = new BookingCalendar();
+        this.customers = new CustomerRegistry();
+        this.indexUpdater = new IndexUpdater();
+    }
+
+    // Keeps the indexes in sync when a car's state changes outside the inventory
+    private class IndexUpdater implements CarListener {
+        @Override
+        public void availabilityChanged(Car car) {
+            fleetIndex.refresh(car);
+            priceIndex.refresh(car);
+            columns.refresh(car);
+        }
+
+        // Inside the write bracket, so a snapshot either waits for the event or comes before it.
+        // (The car's field changes first: a snapshot may already hold the new price while its
+        // record lands after the snapshot point; replaying it sets the same price again.)
+        @Override
+        public void priceChanged(Car car) {
+            beginWrite();
+            try {
+                priceIndex.refresh(car);
+                columns.refresh(car);
+                events.priceChanged(car);
+            } finally {
+                endWrite();
+            }
+        }
     }
 
     // ============== CAR MANAGEMENT METHODS ==============
 
     // Add a car to inventory (User-facing)
     public void addCar(Car car) {
-        cars.put(car.getId(), car);
-        System.out.println("Car added: " + car.getBrand() + " (ID: " + car.getId() + ")");
+        putCar(car);
+        events.carAdded(car);
     }
 
     // Add a car silently (Used by CSV loading)
     public void addCarFromStorage(Car car) {
-        cars.put(car.getId(), car);
+        putCar(car);
+    }
+
+    // Store a car and keep the search indexes in sync (replaces a car with the same ID)
+    private void putCar(Car car) {
+        beginWrite();
+        try {
+            Car previous = cars.put(car.getId(), car);
+            if (previous != null) {
+                unindexCar(previous);
+            }
+            // Listen first: changes racing with add() are picked up by the indexes' refresh
+            car.setListener(indexUpdater);
+            brandIndex.add(car);
+            fleetIndex.add(car);
+            priceIndex.add(car);
+            columns.add(car);
+        } finally {
+            endWrite();
+        }
+    }
+
+    private void unindexCar(Car car) {
+        car.setListener(null);
+        brandIndex.remove(car);
+        fleetIndex.remove(car);
+        priceIndex.remove(car);
+        columns.remove(car);
     }
 
     // Remove a car from inventory
     public void removeCar(String carId) {
+        beginWrite();
+        try {
+            Car removedCar = dropCar(carId);
+            if (removedCar != null) {
+                events.carRemoved(removedCar);
+            } else {
+                events.carNotFound(carId);
+            }
+        } finally {
+            endWrite();
+        }
+    }
+
+    // Remove a car silently (Used by journal replay); unknown IDs are ignored
+    public void removeCarFromStorage(String carId) {
+        beginWrite();
+        try {
+            dropCar(carId);
+        } finally {
+            endWrite();
+        }
+    }
+
+    private Car dropCar(String carId) {
         Car removedCar = cars.remove(carId);
         if (removedCar != null) {
-            System.out.println("Car removed: " + removedCar.getBrand() + " (ID: " + carId + ")");
-        } else {
-            System.out.println("Car not found with ID: " + carId);
+            unindexCar(removedCar);
+            calendar.removeCar(carId);
+            waitingForCar.remove(carId);
         }
+        return removedCar;
     }
 
     // Find a car by ID
@@ -48,7 +183,7 @@ public class CarInventory {
         System.out.println("\n========== AVAILABLE CARS ==========");
         boolean hasAvailable = false;
 
-        for (Car car : cars.values()) {
+        for (Car car : fleetIndex.availableCars()) {
             if (car.isAvailable()) {
                 hasAvailable = true;
                 String carType = (car instanceof ElectricCar) ? "Electric" : "Gas";
@@ -80,90 +215,480 @@ public class CarInventory {
 
     // Rent a car
     public Rental rentCar(String carId, Customer customer, int days) {
+        beginWrite();
+        try {
+            Car car = findCarById(carId);
 
-        Car car = findCarById(carId);
+            if (car == null) {
+                events.rentRejected(carId, BatchResult.Status.CAR_NOT_FOUND);
+                return null;
+            }
 
-        if (car == null) {
-            System.out.println("ERROR: Car not found with ID: " + carId);
-            return null;
-        }
+            if (!car.isAvailable()) {
+                events.rentRejected(carId, BatchResult.Status.CAR_NOT_AVAILABLE);
+                return null;
+            }
 
-        if (!car.isAvailable()) {
-            System.out.println("ERROR: Car is not available (already rented).");
-            return null;
-        }
+            if (days <= 0) {
+                events.rentRejected(carId, BatchResult.Status.INVALID_DAYS);
+                return null;
+            }
 
-        if (days <= 0) {
-            System.out.println("ERROR: Rental days must be positive.");
-            return null;
+            // Check-then-act must be atomic: only one caller wins the car
+            if (!car.tryRent()) {
+                events.rentRejected(carId, BatchResult.Status.CAR_NOT_AVAILABLE);
+                return null;
+            }
+
+            // The dates must also be free of future reservations
+            Rental rental = new Rental(rentalIds.nextId(), car, customers.canonical(customer), days);
+            if (!calendar.book(rental)) {
+                car.setAvailable(true);
+                events.rentRejected(carId, BatchResult.Status.DATES_UNAVAILABLE);
+                return null;
+            }
+            rental.setHoldsCar(true);
+
+            rentals.add(rental);
+            rentalsById.putIfAbsent(rental.getRentalId(), rental);
+            customers.addRental(rental);
+            recordRented(rental);
+
+            events.carRented(rental);
+
+            return rental;
+        } finally {
+            endWrite();
         }
+    }
 
-        String rentalId = "R" + (rentals.size() + 1);
-        Rental rental = new Rental(rentalId, car, customer, days);
+    // Book a car for future dates. The car stays available until then,
+    // but nobody else can book or rent it over those dates.
+    public Rental reserveCar(String carId, Customer customer, LocalDate startDate, int days) {
+        beginWrite();
+        try {
+            Car car = findCarById(carId);
+
+            if (car == null) {
+                events.rentRejected(carId, BatchResult.Status.CAR_NOT_FOUND);
+                return null;
+            }
+
+            if (days <= 0) {
+                events.rentRejected(carId, BatchResult.Status.INVALID_DAYS);
+                return null;
+            }
+
+            if (!startDate.isAfter(LocalDate.now())) {
+                events.rentRejected(carId, BatchResult.Status.INVALID_DATES);
+                return null;
+            }
+
+            Rental rental = new Rental(rentalIds.nextId(), car, customers.canonical(customer), startDate, days);
+            if (!calendar.book(rental)) {
+                events.rentRejected(carId, BatchResult.Status.DATES_UNAVAILABLE);
+                return null;
+            }
 
-        car.setAvailable(false);
-        rentals.add(rental);
+            rentals.add(rental);
+            rentalsById.putIfAbsent(rental.getRentalId(), rental);
+            customers.addRental(rental);
+            recordRented(rental);
 
-        System.out.println("\n===== RENTAL SUCCESSFUL =====");
-        System.out.println("Rental ID: " + rental.getRentalId());
-        System.out.println("Customer: " + customer.getName());
-        System.out.println("Car: " + car.getBrand() + " (" + car.getId() + ")");
-        System.out.println("Days: " + days);
-        System.out.println("Total Fee: $" + rental.getTotalFee());
-        System.out.println("==============================\n");
+            events.carReserved(rental);
 
-        return rental;
+            return rental;
+        } finally {
+            endWrite();
+        }
     }
 
     // Return a car
     public void returnCar(String rentalId) {
+        beginWrite();
+        try {
+            Rental rental = findRentalById(rentalId);
+
+            if (rental == null) {
+                events.returnRejected(rentalId, BatchResult.Status.RENTAL_NOT_FOUND);
+                return;
+            }
+
+            if (!rental.markReturned()) {
+                events.returnRejected(rentalId, BatchResult.Status.ALREADY_RETURNED);
+                return;
+            }
+
+            release(rental);
+            finish(rental, rental.isReservation());
+
+            events.carReturned(rental);
+        } finally {
+            endWrite();
+        }
+    }
+
+    // Return a rental silently (Used by journal replay); false if it is unknown or already returned.
+    // cancelled comes from the record: by now the start date may have passed.
+    public boolean returnRentalFromStorage(String rentalId, boolean cancelled) {
+        beginWrite();
+        try {
+            Rental rental = rentalsById.get(rentalId);
+            if (rental == null || !rental.markReturned()) {
+                return false;
+            }
+            release(rental);
+            finish(rental, cancelled);
+            return true;
+        } finally {
+            endWrite();
+        }
+    }
+
+    // Add rental silently (Used by CSV loading)
+    public void addRentalFromStorage(Rental rental) {
+        beginWrite();
+        try {
+            RentalArchive cold = archive;
+            if (rental.isReturned() && cold != null && cold.contains(rental.getRentalId())) {
+                // Archived already (and counted by setArchive): keep it on disk only
+                rentalIds.observe(rental.getRentalId());
+                return;
+            }
+
+            rentals.add(rental);
+            rentalsById.putIfAbsent(rental.getRentalId(), rental);
+            customers.canonical(rental.getCustomer());
+            customers.addRental(rental);
+            rentalIds.observe(rental.getRentalId()); // never hand out this ID again
+
+            recordRented(rental);
+            if (rental.isReturned()) {
+                if (rental.isCancelled()) {
+                    recordCancelled(rental);
+                } else {
+                    recordReturned(rental);
+                }
+            }
+
+            // Keep inventory state consistent with stored rentals:
+            // If a rental is active (not returned), its dates are booked,
+            // and unless it is a future reservation, it holds the car (if no other rental does).
+            if (!rental.isReturned()) {
+                if (!calendar.book(rental)) {
+                    // Overlaps a stored booking: it waits until that one is returned
+                    List<Rental> waiting = waitingForCar.computeIfAbsent(rental.getCar().getId(), id -> new ArrayList<>());
+                    synchronized (waiting) {
+                        waiting.add(rental);
+                    }
+                } else if (!rental.isReservation() && holderOf(rental.getCar()) == null) {
+                    rental.getCar().setAvailable(false);
+                    rental.setHoldsCar(true);
+                }
+            }
+        } finally {
+            endWrite();
+        }
+    }
+
+    // Free a returned rental's dates, and its car if this rental is the one holding it
+    // (unless a stored rental waiting for those dates takes the car over)
+    private void release(Rental rental) {
+        calendar.release(rental);
+        List<Rental> waiting = waitingForCar.get(rental.getCar().getId());
+        if (waiting != null) {
+            synchronized (waiting) {
+                if (rental.holdsCar()) {
+                    rental.getCar().setAvailable(true);
+                }
+                bookWaiting(waiting);
+                if (waiting.isEmpty()) {
+                    waitingForCar.remove(rental.getCar().getId(), waiting);
+                }
+            }
+        } else if (rental.holdsCar()) {
+            rental.getCar().setAvailable(true);
+        }
+    }
+
+    // Book the waiting rentals that fit now; a started one takes the car if it is free
+    private void bookWaiting(List<Rental> waiting) {
+        for (Iterator<Rental> it = waiting.iterator(); it.hasNext(); ) {
+            Rental next = it.next();
+            if (next.isReturned()) {
+                it.remove();
+            } else if (calendar.book(next)) {
+                it.remove();
+                if (!next.isReservation() && holderOf(next.getCar()) == null) {
+                    next.getCar().setAvailable(false);
+                    next.setHoldsCar(true);
+                }
+            }
+        }
+    }
+
+    // The active rental holding the car, if any (a car's bookings are few)
+    private Rental holderOf(Car car) {
+        for (Rental booked : calendar.bookings(car.getId())) {
+            if (booked.holdsCar() && !booked.isReturned()) {
+                return booked;
+            }
+        }
+        return null;
+    }
+
+    // ============== BATCH RENTAL METHODS ==============
+
+    // Rent many cars at once (e.g. corporate bookings). All-or-nothing:
+    // every request is validated first, then the cars are claimed one by one;
+    // if any claim fails, the cars already claimed are released again.
+    public BatchResult rentCars(List<RentalRequest> requests) {
+        beginWrite();
+        try {
+            int n = requests.size();
+            BatchResult.Status[] statuses = new BatchResult.Status[n];
+            Car[] claimed = new Car[n];
+            Rental[] created = new Rental[n];
+            boolean valid = true;
+
+            // 1) Validate everything before touching any car
+            Set<String> seen = new HashSet<>();
+            for (int i = 0; i < n; i++) {
+                RentalRequest request = requests.get(i);
+                Car car = findCarById(request.getCarId());
+                if (car == null) {
+                    statuses[i] = BatchResult.Status.CAR_NOT_FOUND;
+                } else if (!seen.add(request.getCarId())) {
+                    statuses[i] = BatchResult.Status.DUPLICATE;
+                } else if (request.getDays() <= 0) {
+                    statuses[i] = BatchResult.Status.INVALID_DAYS;
+                } else if (!car.isAvailable()) {
+                    statuses[i] = BatchResult.Status.CAR_NOT_AVAILABLE;
+                } else {
+                    claimed[i] = car;
+                    continue;
+                }
+                valid = false;
+            }
+
+            // 2) Claim the cars and book their dates; on a lost race release what we took
+            if (valid) {
+                for (int i = 0; i < n; i++) {
+                    if (!claimed[i].tryRent()) {
+                        statuses[i] = BatchResult.Status.CAR_NOT_AVAILABLE;
+                    } else {
+                        RentalRequest request = requests.get(i);
+                        created[i] = new Rental(rentalIds.nextId(), claimed[i],
+                                customers.canonical(request.getCustomer()), request.getDays());
+                        if (calendar.book(created[i])) {
+                            created[i].setHoldsCar(true);
+                            continue;
+                        }
+                        claimed[i].setAvailable(true);
+                        statuses[i] = BatchResult.Status.DATES_UNAVAILABLE;
+                    }
+                    for (int j = 0; j < i; j++) {
+                        calendar.release(created[j]);
+                        claimed[j].setAvailable(true);
+                    }
+                    valid = false;
+                    break;
+                }
+            }
+
+            List<BatchResult.Item> items = new ArrayList<>(n);
+            if (!valid) {
+                for (int i = 0; i < n; i++) {
+                    BatchResult.Status status = statuses[i] != null ? statuses[i] : BatchResult.Status.ROLLED_BACK;
+                    items.add(new BatchResult.Item(requests.get(i).getCarId(), status, null));
+                }
+                BatchResult result = new BatchResult(false, items);
+                events.batchRented(result);
+                return result;
+            }
 
-        Rental rental = null;
-        for (Rental r : rentals) {
-            if (r.getRentalId().equals(rentalId)) {
-                rental = r;
-                break;
+            // 3) Publish all rentals in one append
+            for (int i = 0; i < n; i++) {
+                items.add(new BatchResult.Item(requests.get(i).getCarId(), BatchResult.Status.RENTED, created[i]));
             }
+            rentals.addAll(Arrays.asList(created));
+            for (Rental rental : created) {
+                rentalsById.putIfAbsent(rental.getRentalId(), rental);
+                customers.addRental(rental);
+                recordRented(rental);
+            }
+
+            BatchResult result = new BatchResult(true, items);
+            events.batchRented(result);
+            return result;
+        } finally {
+            endWrite();
         }
+    }
+
+    // Return many rentals at once. All-or-nothing, like rentCars.
+    public BatchResult returnCars(List<String> rentalIdList) {
+        beginWrite();
+        try {
+            int n = rentalIdList.size();
+            BatchResult.Status[] statuses = new BatchResult.Status[n];
+            Rental[] found = new Rental[n];
+            boolean valid = true;
+
+            // 1) Validate
+            Set<String> seen = new HashSet<>();
+            for (int i = 0; i < n; i++) {
+                String rentalId = rentalIdList.get(i);
+                Rental rental = findRentalById(rentalId);
+                if (rental == null) {
+                    statuses[i] = BatchResult.Status.RENTAL_NOT_FOUND;
+                } else if (!seen.add(rentalId)) {
+                    statuses[i] = BatchResult.Status.DUPLICATE;
+                } else if (rental.isReturned()) {
+                    statuses[i] = BatchResult.Status.ALREADY_RETURNED;
+                } else {
+                    found[i] = rental;
+                    continue;
+                }
+                valid = false;
+            }
+
+            // 2) Mark returned; cars are only released once every rental is ours
+            if (valid) {
+                for (int i = 0; i < n; i++) {
+                    if (!found[i].markReturned()) {
+                        statuses[i] = BatchResult.Status.ALREADY_RETURNED;
+                        for (int j = 0; j < i; j++) {
+                            found[j].setReturned(false);
+                        }
+                        valid = false;
+                        break;
+                    }
+                }
+            }
+
+            List<BatchResult.Item> items = new ArrayList<>(n);
+            if (!valid) {
+                for (int i = 0; i < n; i++) {
+                    BatchResult.Status status = statuses[i] != null ? statuses[i] : BatchResult.Status.ROLLED_BACK;
+                    items.add(new BatchResult.Item(rentalIdList.get(i), status, null));
+                }
+                BatchResult result = new BatchResult(false, items);
+                events.batchReturned(result);
+                return result;
+            }
+
+            // 3) Release the cars and their dates
+            for (int i = 0; i < n; i++) {
+                release(found[i]);
+                finish(found[i], found[i].isReservation());
+                items.add(new BatchResult.Item(rentalIdList.get(i), BatchResult.Status.RETURNED, found[i]));
+            }
 
-        if (rental == null) {
-            System.out.println("ERROR: Rental not found with ID: " + rentalId);
-            return;
+            BatchResult result = new BatchResult(true, items);
+            events.batchReturned(result);
+            return result;
+        } finally {
+            endWrite();
         }
+    }
 
-        if (rental.isReturned()) {
-            System.out.println("ERROR: This rental has already been returned.");
-            return;
+    // Find a rental by ID (constant time, backed by rentalsById).
+    // Archived rentals are read back from disk as detached, returned copies.
+    public Rental findRentalById(String rentalId) {
+        Rental rental = rentalsById.get(rentalId);
+        RentalArchive cold = archive;
+        if (rental != null || cold == null) {
+            return rental;
         }
+        try {
+            return cold.find(rentalId);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
 
-        rental.setReturned(true);
-        rental.getCar().setAvailable(true);
+    // ============== CUSTOMERS ==============
 
-        System.out.println("\n===== CAR RETURNED =====");
-        System.out.println("Rental ID: " + rental.getRentalId());
-        System.out.println("Car: " + rental.getCar().getBrand() + " (" + rental.getCar().getId() + ")");
-        System.out.println("Customer: " + rental.getCustomer().getName());
-        System.out.println("Total Fee: $" + rental.getTotalFee());
-        System.out.println("========================\n");
+    // Rentals of one customer still held in memory (archived ones excluded), oldest first
+    public List<Rental> findRentalsByCustomer(String customerId) {
+        return customers.rentalsOf(customerId);
     }
 
-    // Add rental silently (Used by CSV loading)
-    public void addRentalFromStorage(Rental rental) {
-        rentals.add(rental);
+    // Used by loading and the UI to reuse one Customer object per customer ID
+    public CustomerRegistry getCustomerRegistry() {
+        return customers;
+    }
+
+    // ============== CALENDAR QUERIES ==============
+
+    // True if the car has no booking overlapping [from, to) (to is exclusive)
+    public boolean isCarFree(String carId, LocalDate from, LocalDate to) {
+        return findCarById(carId) != null && calendar.isFree(carId, from, to);
+    }
 
-        // Keep inventory state consistent with stored rentals:
-        // If a rental is active (not returned), car must be unavailable.
-        if (!rental.isReturned()) {
-            rental.getCar().setAvailable(false);
+    // Cars with no booking overlapping [from, to): the fleet index minus the busy cars.
+    // Only booked cars are checked against the calendar (O(log bookings) each); the fleet
+    // itself is only copied into the result.
+    public List<Car> findCarsFreeBetween(LocalDate from, LocalDate to) {
+        Set<String> busy = calendar.busyCars(from, to);
+        if (busy.isEmpty()) {
+            return new ArrayList<>(fleetIndex.allCars());
         }
+        Set<Car> free = new HashSet<>(fleetIndex.allCars());
+        for (String carId : busy) {
+            free.remove(cars.get(carId));
+        }
+        return new ArrayList<>(free);
+    }
+
+    // Current and future bookings of one car, earliest first
+    public List<Rental> getBookings(String carId) {
+        return calendar.bookings(carId);
+    }
+
+    // ============== STATISTICS ==============
+
+    // Rental counts and revenue in O(1), without walking the rental history
+    public RentalSummary getRentalSummary() {
+        return new RentalSummary(activeRentals.sum(), completedRentals.sum(), completedCents.sum(), pendingCents.sum());
+    }
+
+    private void recordRented(Rental rental) {
+        activeRentals.increment();
+        pendingCents.add(RentalSummary.toCents(rental.getTotalFee()));
+    }
+
+    // Count a rental just marked returned: a reservation that had not started yet is cancelled
+    private void finish(Rental rental, boolean cancelled) {
+        if (cancelled) {
+            rental.setCancelled(true);
+            recordCancelled(rental);
+        } else {
+            recordReturned(rental);
+        }
+    }
+
+    // A cancelled booking was never earned: it only stops being pending
+    private void recordCancelled(Rental rental) {
+        activeRentals.decrement();
+        pendingCents.add(-RentalSummary.toCents(rental.getTotalFee()));
+    }
+
+    private void recordReturned(Rental rental) {
+        activeRentals.decrement();
+        completedRentals.increment();
+        long fee = RentalSummary.toCents(rental.getTotalFee());
+        pendingCents.add(-fee);
+        completedCents.add(fee);
     }
 
     // ============== SEARCH & FILTER METHODS ==============
 
     public List<Car> searchByBrand(String brand) {
         List<Car> results = new ArrayList<>();
-        for (Car car : cars.values()) {
-            if (car.getBrand().toLowerCase().contains(brand.toLowerCase()) && car.isAvailable()) {
+        for (Car car : brandIndex.search(brand)) {
+            if (car.isAvailable()) {
                 results.add(car);
             }
         }
@@ -172,24 +697,343 @@ public class CarInventory {
 
     public List<Car> searchByFuelType(String fuelType) {
         List<Car> results = new ArrayList<>();
-        for (Car car : cars.values()) {
-            if (car instanceof GasCar && car.isAvailable()) {
-                GasCar gasCar = (GasCar) car;
-                if (gasCar.getFuelType().equalsIgnoreCase(fuelType)) {
-                    results.add(car);
-                }
+        for (Car car : fleetIndex.carsWithFuel(fuelType, true)) {
+            if (car.isAvailable()) {
+                results.add(car);
+            }
+        }
+        return results;
+    }
+
+    // Available cars of one type, e.g. searchByType(ElectricCar.class)
+    public List<Car> searchByType(Class<? extends Car> type) {
+        List<Car> results = new ArrayList<>();
+        for (Car car : fleetIndex.carsOfType(type, true)) {
+            if (car.isAvailable()) {
+                results.add(car);
+            }
+        }
+        return results;
+    }
+
+    // Available cars priced within [minPrice, maxPrice], cheapest first
+    public List<Car> searchByPriceRange(double minPrice, double maxPrice) {
+        List<Car> results = new ArrayList<>();
+        for (Car car : priceIndex.range(minPrice, maxPrice, true)) {
+            if (car.isAvailable()) {
+                results.add(car);
             }
         }
         return results;
     }
 
+    // Up to n cheapest available cars, cheapest first
+    public List<Car> findCheapestAvailable(int n) {
+        return priceIndex.cheapest(n, true);
+    }
+
+    public int getAvailableCarCount() {
+        return fleetIndex.availableCars().size();
+    }
+
+    public int getRentedCarCount() {
+        return fleetIndex.rentedCars().size();
+    }
+
+    // ============== COMPOSITE QUERIES ==============
+
+    // All cars matching every criterion of the query
+    public List<Car> search(CarQuery query) {
+        List<Car> results = new ArrayList<>();
+        stream(query).forEach(results::add);
+        return results;
+    }
+
+    // Lazy version of search(): predicates run as the stream is consumed
+    public Stream<Car> stream(CarQuery query) {
+        return candidates(query).stream().filter(query::matches);
+    }
+
+    // Price statistics of the cars matching the query, from one pass over the price column
+    public PriceStats getPriceStats(CarQuery query) {
+        return columns.priceStats(query);
+    }
+
+    // Fee statistics for renting each matching car for the given number of days
+    public PriceStats getFeeStats(CarQuery query, int days) {
+        if (days <= 0) {
+            throw new IllegalArgumentException("Days must be greater than 0.");
+        }
+        return columns.feeStats(query, days);
+    }
+
+    // Index the planner chooses for a query
+    enum QueryPlan { SCAN, AVAILABLE, TYPE, FUEL, BRAND, PRICE }
+
+    // Planner: pick the smallest candidate set among the indexes that apply
+    QueryPlan plan(CarQuery query) {
+        QueryPlan best = QueryPlan.SCAN;
+        int bestSize = cars.size();
+
+        if (query.isAvailableOnly() && fleetIndex.availableCars().size() < bestSize) {
+            best = QueryPlan.AVAILABLE;
+            bestSize = fleetIndex.availableCars().size();
+        }
+
+        Class<? extends Car> type = query.getEffectiveType();
+        if (type != null) {
+            int size = fleetIndex.carsOfType(type, query.isAvailableOnly()).size();
+            if (size < bestSize) {
+                best = QueryPlan.TYPE;
+                bestSize = size;
+            }
+        }
+
+        if (query.getFuelType() != null) {
+            int size = fleetIndex.carsWithFuel(query.getFuelType(), query.isAvailableOnly()).size();
+            if (size < bestSize) {
+                best = QueryPlan.FUEL;
+                bestSize = size;
+            }
+        }
+
+        if (query.getBrand() != null) {
+            int size = brandIndex.estimate(query.getBrand());
+            if (size < bestSize) {
+                best = QueryPlan.BRAND;
+                bestSize = size;
+            }
+        }
+
+        // Counting a price range is linear in its size, so stop at the current best
+        if (query.hasPriceRange()) {
+            int size = priceIndex.countRange(query.getMinPrice(), query.getMaxPrice(),
+                    query.isAvailableOnly(), bestSize);
+            if (size < bestSize) {
+                best = QueryPlan.PRICE;
+            }
+        }
+        return best;
+    }
+
+    private Collection<Car> candidates(CarQuery query) {
+        switch (plan(query)) {
+            case AVAILABLE:
+                return fleetIndex.availableCars();
+            case TYPE:
+                return fleetIndex.carsOfType(query.getEffectiveType(), query.isAvailableOnly());
+            case FUEL:
+                return fleetIndex.carsWithFuel(query.getFuelType(), query.isAvailableOnly());
+            case BRAND:
+                return brandIndex.search(query.getBrand());
+            case PRICE:
+                return priceIndex.range(query.getMinPrice(), query.getMaxPrice(), query.isAvailableOnly());
+            default:
+                return columns.select(query); // full scan over the columns
+        }
+    }
+
+    // ============== SNAPSHOTS ==============
+
+    private static final int OPTIMISTIC_SNAPSHOT_ATTEMPTS = 64;
+
+    // Number of completed write operations; a snapshot is taken at one such version
+    public long getVersion() {
+        return writesFinished.sum();
+    }
+
+    // Writers announce themselves first and then check the gate, while the gate holder
+    // raises draining first and then checks for writers: one of them always sees the other.
+    private void beginWrite() {
+        while (true) {
+            writesStarted.increment();
+            if (!draining) {
+                return;
+            }
+            // Back off until the exclusive section is over, then try again
+            writesFinished.increment();
+            exclusiveGate.lock();
+            exclusiveGate.unlock();
+        }
+    }
+
+    private void endWrite() {
+        writesFinished.increment();
+    }
+
+    // Keep new writers out and wait until the ones in flight are done
+    private void enterExclusive() {
+        exclusiveGate.lock();
+        draining = true;
+        while (!quiescent()) {
+            Thread.yield();
+        }
+    }
+
+    private void exitExclusive() {
+        draining = false;
+        exclusiveGate.unlock();
+    }
+
+    // Finished is read before started, so equal sums mean nothing was in flight
+    private boolean quiescent() {
+        long finished = writesFinished.sum();
+        return writesStarted.sum() == finished;
+    }
+
+    // Frozen, self-consistent copy of all cars and rentals, for saving (O(cars + rentals)).
+    // For statistics use getRentalSummary(), which is O(1) and never blocks anyone.
+    // Optimistic: copy while no write is in progress and retry if one started meanwhile,
+    // so writers never wait. After OPTIMISTIC_SNAPSHOT_ATTEMPTS lost races it falls back
+    // to the exclusive gate: new writers then wait for one copy (no longer than that),
+    // so a steady stream of writers cannot starve a save.
+    public InventorySnapshot snapshot() {
+        return snapshot(() -> { });
+    }
+
+    // Same, running atSnapshot at the point the copy reflects: every write before it is in
+    // the copy, none after it. It sees the events of exactly those writes (they are reported
+    // inside the write), e.g. to note how far the journal went. May run more than once.
+    public InventorySnapshot snapshot(Runnable atSnapshot) {
+        for (int attempt = 0; attempt < OPTIMISTIC_SNAPSHOT_ATTEMPTS; attempt++) {
+            long finished = writesFinished.sum();
+            long started = writesStarted.sum();
+            if (started == finished) {
+                atSnapshot.run();
+                InventorySnapshot snapshot = copy(finished);
+                if (writesStarted.sum() == started) {
+                    return snapshot;
+                }
+            }
+            Thread.onSpinWait();
+        }
+        enterExclusive();
+        try {
+            atSnapshot.run();
+            return copy(writesFinished.sum());
+        } finally {
+            exitExclusive();
+        }
+    }
+
+    private InventorySnapshot copy(long version) {
+        return InventorySnapshot.copyOf(version, cars.values(), rentals.view(),
+                rentalIds.getHighWaterMark(), archive);
+    }
+
+    // ============== ARCHIVING (HOT / COLD RENTAL HISTORY) ==============
+
+    // Use a cold tier for returned rentals. Call before loading rentals:
+    // what the archive already holds is counted in the statistics here.
+    public void setArchive(RentalArchive archive) {
+        beginWrite();
+        try {
+            this.archive = archive;
+            completedRentals.add(archive.size());
+            completedCents.add(RentalSummary.toCents(archive.getTotalFees()));
+            rentalIds.advanceTo(archive.getHighestRentalNumber());
+        } finally {
+            endWrite();
+        }
+    }
+
+    public RentalArchive getArchive() {
+        return archive;
+    }
+
+    // Move returned rentals to the archive, except those among the newest keepRecent
+    // rentals. Cancelled bookings among them are dropped instead (the archive's fees count
+    // as earned). Writers wait while this runs; readers holding earlier views keep them.
+    // Returns how many rentals left memory.
+    public int archiveReturnedRentals(int keepRecent) throws IOException {
+        RentalArchive cold = archive;
+        if (cold == null) {
+            throw new IllegalStateException("No rental archive configured.");
+        }
+        enterExclusive();
+        try {
+            List<Rental> hot = rentals.view();
+            int recentFrom = Math.max(0, hot.size() - Math.max(0, keepRecent));
+            List<Rental> removed = new ArrayList<>();
+            List<Rental> moved = new ArrayList<>();
+            RentalLog log = rentals;
+            RentalLog kept = new RentalLog();
+            for (int i = 0; i < hot.size(); i++) {
+                Rental rental = hot.get(i);
+                if (i < recentFrom && rental.isReturned()) {
+                    removed.add(rental);
+                    if (!rental.isCancelled()) moved.add(rental);
+                } else {
+                    kept.copy(log, i); // Keeps its paging cursor
+                }
+            }
+            kept.continueAfter(log);
+            if (removed.isEmpty()) {
+                return 0;
+            }
+
+            cold.append(moved); // nothing changes in memory if this fails
+            rentals = kept;
+            for (Rental rental : removed) {
+                rentalsById.remove(rental.getRentalId(), rental);
+            }
+            customers.removeRentals(removed);
+            return removed.size();
+        } finally {
+            exitExclusive();
+        }
+    }
+
     // ============== GETTERS (FOR CSV EXPORT) ==============
 
+    // Modifiable copy of the whole history (prefer getRentals() for reading)
     public List<Rental> getAllRentals() {
-        return new ArrayList<>(rentals);
+        return new ArrayList<>(rentals.view());
+    }
+
+    // ============== READ VIEWS & PAGINATION ==============
+
+    // Read-only view of all rentals so far, without copying (archived rentals excluded).
+    // Rentals added later are not part of the view.
+    public List<Rental> getRentals() {
+        return rentals.view();
+    }
+
+    public int getRentalCount() {
+        return rentals.size();
+    }
+
+    // Up to limit rentals in memory, starting at cursor (0 = oldest; then pass
+    // getNextCursor()). Archiving does not move the cursor: the next page continues after
+    // the same rental, minus the rentals that went to the archive meanwhile.
+    public RentalPage getRentalPage(long cursor, int limit) {
+        if (cursor < 0 || limit <= 0) {
+            throw new IllegalArgumentException("Cursor must be >= 0 and limit > 0.");
+        }
+        RentalLog log = rentals;
+        int size = log.size();
+        int from = log.indexOf(cursor, size);
+        int to = (int) Math.min((long) from + limit, size);
+        long next = to < size ? log.sequence(to) : Math.max(cursor, to > 0 ? log.sequence(to - 1) + 1 : 0);
+        return new RentalPage(log.view(from, to), next, to < size);
+    }
+
+    // Rentals not yet returned, filtered lazily while iterating
+    public Iterable<Rental> getActiveRentals() {
+        return () -> getRentals().stream().filter(r -> !r.isReturned()).iterator();
+    }
+
+    // Returned rentals, filtered lazily while iterating
+    public Iterable<Rental> getCompletedRentals() {
+        return () -> getRentals().stream().filter(Rental::isReturned).iterator();
     }
 
     public Collection<Car> getAllCars() {
         return cars.values();
     }
+
+    // Used by CSVExporter to persist/restore the rental ID high-water mark
+    public RentalIdAllocator getRentalIdAllocator() {
+        return rentalIds;
+    }
 }
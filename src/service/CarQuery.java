@@ -0,0 +1,156 @@
+package service;
+
+import model.*;
+
+// Multi-criteria car search, built fluently and run with CarInventory.search:
+//
+//   inventory.search(new CarQuery().type(ElectricCar.class).priceBetween(80, 120).availableOnly());
+//
+// Unset criteria match every car. CarInventory picks the most selective index
+// for one criterion and checks the rest with matches() while streaming.
+public class CarQuery {
+
+    private String brand;                   // substring, case-insensitive
+    private Class<? extends Car> type;      // exact car class
+    private String fuelType;                // case-insensitive, gas cars only
+    private int fuelCode = StringDictionary.NO_CODE; // fuelType's dictionary code, once a car uses it
+    private double minPrice = Double.NEGATIVE_INFINITY;
+    private double maxPrice = Double.POSITIVE_INFINITY;
+    private double minBattery = Double.NEGATIVE_INFINITY;
+    private double maxBattery = Double.POSITIVE_INFINITY;
+    private boolean batteryRange;           // true = electric cars only
+    private boolean availableOnly;
+
+    // ============== BUILDER-STYLE SETTERS ==============
+
+    public CarQuery brand(String brand) {
+        this.brand = brand;
+        return this;
+    }
+
+    public CarQuery type(Class<? extends Car> type) {
+        this.type = type;
+        return this;
+    }
+
+    public CarQuery fuelType(String fuelType) {
+        this.fuelType = fuelType;
+        this.fuelCode = StringDictionary.NO_CODE;
+        return this;
+    }
+
+    // Inclusive price-per-day range
+    public CarQuery priceBetween(double min, double max) {
+        this.minPrice = min;
+        this.maxPrice = max;
+        return this;
+    }
+
+    // Inclusive battery-capacity range (kWh); implies electric cars
+    public CarQuery batteryBetween(double min, double max) {
+        this.minBattery = min;
+        this.maxBattery = max;
+        this.batteryRange = true;
+        return this;
+    }
+
+    public CarQuery availableOnly() {
+        this.availableOnly = true;
+        return this;
+    }
+
+    // ============== GETTERS (USED BY THE PLANNER) ==============
+
+    String getBrand() {
+        return brand;
+    }
+
+    // Explicit type, or the type implied by the other criteria (null = any)
+    Class<? extends Car> getEffectiveType() {
+        if (type != null) return type;
+        if (batteryRange) return ElectricCar.class;
+        if (fuelType != null) return GasCar.class;
+        return null;
+    }
+
+    Class<? extends Car> getType() {
+        return type;
+    }
+
+    String getFuelType() {
+        return fuelType;
+    }
+
+    // Dictionary code of the fuel type (NO_CODE until some car uses that fuel)
+    int getFuelCode() {
+        int code = fuelCode;
+        if (code == StringDictionary.NO_CODE) {
+            code = fuelCode = StringDictionary.FUEL_TYPES.find(fuelType);
+        }
+        return code;
+    }
+
+    boolean hasBatteryRange() {
+        return batteryRange;
+    }
+
+    double getMinBattery() {
+        return minBattery;
+    }
+
+    double getMaxBattery() {
+        return maxBattery;
+    }
+
+    boolean hasPriceRange() {
+        return minPrice != Double.NEGATIVE_INFINITY || maxPrice != Double.POSITIVE_INFINITY;
+    }
+
+    double getMinPrice() {
+        return minPrice;
+    }
+
+    double getMaxPrice() {
+        return maxPrice;
+    }
+
+    boolean isAvailableOnly() {
+        return availableOnly;
+    }
+
+    // ============== MATCHING ==============
+
+    // Cheap checks first, brand substring last
+    public boolean matches(Car car) {
+        if (availableOnly && !car.isAvailable()) return false;
+        if (type != null && car.getClass() != type) return false;
+
+        double price = car.getPricePerDay();
+        if (price < minPrice || price > maxPrice) return false;
+
+        if (fuelType != null) {
+            int code = getFuelCode();
+            if (code == StringDictionary.NO_CODE || !(car instanceof GasCar)) return false;
+            if (((GasCar) car).getFuelCode() != code) return false;
+        }
+
+        if (batteryRange) {
+            if (!(car instanceof ElectricCar)) return false;
+            double battery = ((ElectricCar) car).getBatteryCapacity();
+            if (battery < minBattery || battery > maxBattery) return false;
+        }
+
+        return brand == null || containsIgnoreCase(car.getBrand(), brand);
+    }
+
+    // Case-insensitive substring check without allocating lowercase copies
+    static boolean containsIgnoreCase(String text, String part) {
+        int last = text.length() - part.length();
+        for (int i = 0; i <= last; i++) {
+            if (text.regionMatches(true, i, part, 0, part.length())) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
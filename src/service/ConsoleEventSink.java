@@ -0,0 +1,126 @@
+package service;
+
+import model.Car;
+import model.Rental;
+
+// Prints inventory events to System.out (the messages shown in the console app)
+public class ConsoleEventSink implements InventoryEventSink {
+
+    @Override
+    public void carAdded(Car car) {
+        System.out.println("Car added: " + car.getBrand() + " (ID: " + car.getId() + ")");
+    }
+
+    @Override
+    public void carRemoved(Car car) {
+        System.out.println("Car removed: " + car.getBrand() + " (ID: " + car.getId() + ")");
+    }
+
+    @Override
+    public void priceChanged(Car car) {
+        // No console message (prices are not changed from the menu)
+    }
+
+    @Override
+    public void carNotFound(String carId) {
+        System.out.println("Car not found with ID: " + carId);
+    }
+
+    @Override
+    public void carRented(Rental rental) {
+        Car car = rental.getCar();
+        System.out.println("\n===== RENTAL SUCCESSFUL =====");
+        System.out.println("Rental ID: " + rental.getRentalId());
+        System.out.println("Customer: " + rental.getCustomer().getName());
+        System.out.println("Car: " + car.getBrand() + " (" + car.getId() + ")");
+        System.out.println("Days: " + rental.getDays());
+        System.out.println("Total Fee: $" + rental.getTotalFee());
+        System.out.println("==============================\n");
+    }
+
+    @Override
+    public void carReserved(Rental rental) {
+        Car car = rental.getCar();
+        System.out.println("\n===== RESERVATION CONFIRMED =====");
+        System.out.println("Rental ID: " + rental.getRentalId());
+        System.out.println("Customer: " + rental.getCustomer().getName());
+        System.out.println("Car: " + car.getBrand() + " (" + car.getId() + ")");
+        System.out.println("From: " + rental.getStartDate() + " to " + rental.getEndDate());
+        System.out.println("Total Fee: $" + rental.getTotalFee());
+        System.out.println("=================================\n");
+    }
+
+    @Override
+    public void rentRejected(String carId, BatchResult.Status reason) {
+        switch (reason) {
+            case CAR_NOT_FOUND:
+                System.out.println("ERROR: Car not found with ID: " + carId);
+                break;
+            case CAR_NOT_AVAILABLE:
+                System.out.println("ERROR: Car is not available (already rented).");
+                break;
+            case INVALID_DAYS:
+                System.out.println("ERROR: Rental days must be positive.");
+                break;
+            case INVALID_DATES:
+                System.out.println("ERROR: Reservations must start after today.");
+                break;
+            case DATES_UNAVAILABLE:
+                System.out.println("ERROR: Car is already booked for those dates.");
+                break;
+            default:
+                System.out.println("ERROR: Could not rent car " + carId + " (" + reason + ").");
+        }
+    }
+
+    @Override
+    public void carReturned(Rental rental) {
+        if (rental.isCancelled()) {
+            System.out.println("\n===== RESERVATION CANCELLED =====");
+            System.out.println("Rental ID: " + rental.getRentalId());
+            System.out.println("Car: " + rental.getCar().getBrand() + " (" + rental.getCar().getId() + ")");
+            System.out.println("Customer: " + rental.getCustomer().getName());
+            System.out.println("Nothing is charged.");
+            System.out.println("=================================\n");
+            return;
+        }
+        System.out.println("\n===== CAR RETURNED =====");
+        System.out.println("Rental ID: " + rental.getRentalId());
+        System.out.println("Car: " + rental.getCar().getBrand() + " (" + rental.getCar().getId() + ")");
+        System.out.println("Customer: " + rental.getCustomer().getName());
+        System.out.println("Total Fee: $" + rental.getTotalFee());
+        System.out.println("========================\n");
+    }
+
+    @Override
+    public void returnRejected(String rentalId, BatchResult.Status reason) {
+        switch (reason) {
+            case RENTAL_NOT_FOUND:
+                System.out.println("ERROR: Rental not found with ID: " + rentalId);
+                break;
+            case ALREADY_RETURNED:
+                System.out.println("ERROR: This rental has already been returned.");
+                break;
+            default:
+                System.out.println("ERROR: Could not return rental " + rentalId + " (" + reason + ").");
+        }
+    }
+
+    @Override
+    public void batchRented(BatchResult result) {
+        if (result.isSuccess()) {
+            System.out.println("Batch rental successful: " + result.getItems().size() + " car(s) rented.");
+        } else {
+            System.out.println("ERROR: Batch rental rolled back, no cars were rented.");
+        }
+    }
+
+    @Override
+    public void batchReturned(BatchResult result) {
+        if (result.isSuccess()) {
+            System.out.println("Batch return successful: " + result.getItems().size() + " car(s) returned.");
+        } else {
+            System.out.println("ERROR: Batch return rolled back, no cars were returned.");
+        }
+    }
+}
@@ -0,0 +1,346 @@
+package service;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.Reader;
+import java.time.LocalDate;
+import java.time.Month;
+import java.time.Year;
+import java.util.Arrays;
+
+// Streaming CSV tokenizer for the load path (see CSVExporter). Input goes through one
+// reusable char buffer; each record's fields are unescaped back to back into a second
+// reusable buffer and read by index. Numbers, dates and Yes/No flags are parsed straight
+// from that buffer, and a malformed value gives the caller's default instead of an
+// exception, so a large file loads without garbage besides the Strings the caller keeps.
+//
+// Quoted fields may contain commas, doubled quotes and line breaks (what CsvWriter writes).
+// This and CsvWriter are the only CSV codec: the exporter and both archives go through them.
+class CsvReader implements Closeable {
+
+    private static final int BUFFER_SIZE = 1 << 16;
+
+    // 10^0 .. 10^22, all exact doubles
+    private static final double[] POWERS_OF_TEN = new double[23];
+    static {
+        POWERS_OF_TEN[0] = 1;
+        for (int i = 1; i < POWERS_OF_TEN.length; i++) {
+            POWERS_OF_TEN[i] = POWERS_OF_TEN[i - 1] * 10;
+        }
+    }
+
+    private final Reader in;
+    private final char[] buffer = new char[BUFFER_SIZE];
+    private int position;
+    private int limit;
+
+    private char[] record = new char[256]; // Field contents of the current record
+    private int recordLength;
+    private int[] starts = new int[16];
+    private int[] ends = new int[16];
+    private int fieldCount;
+
+    CsvReader(Reader in) {
+        this.in = in;
+    }
+
+    // Move to the next record, skipping blank lines; false at the end of the input
+    boolean next() throws IOException {
+        while (readRecord()) {
+            if (!isBlank()) return true;
+        }
+        return false;
+    }
+
+    private boolean readRecord() throws IOException {
+        fieldCount = 0;
+        recordLength = 0;
+        if (position == limit && !fill()) return false;
+
+        int fieldStart = 0;
+        boolean inQuotes = false;
+        while (position < limit || fill()) {
+            char c = buffer[position++];
+            if (c == '\"') {
+                // if double quote inside quoted field -> escaped quote
+                if (inQuotes && peek() == '\"') {
+                    position++;
+                    append('\"');
+                } else {
+                    inQuotes = !inQuotes;
+                }
+            } else if (inQuotes) {
+                append(c);
+            } else if (c == ',') {
+                endField(fieldStart);
+                fieldStart = recordLength;
+            } else if (c == '\n') {
+                break;
+            } else if (c == '\r') {
+                if (peek() == '\n') position++;
+                break;
+            } else {
+                append(c);
+            }
+        }
+        endField(fieldStart);
+        return true;
+    }
+
+    private boolean fill() throws IOException {
+        int n;
+        do {
+            n = in.read(buffer, 0, buffer.length);
+        } while (n == 0);
+        if (n < 0) return false;
+        position = 0;
+        limit = n;
+        return true;
+    }
+
+    private int peek() throws IOException {
+        if (position == limit && !fill()) return -1;
+        return buffer[position];
+    }
+
+    private void append(char c) {
+        if (recordLength == record.length) {
+            record = Arrays.copyOf(record, recordLength * 2);
+        }
+        record[recordLength++] = c;
+    }
+
+    private void endField(int fieldStart) {
+        if (fieldCount == starts.length) {
+            starts = Arrays.copyOf(starts, fieldCount * 2);
+            ends = Arrays.copyOf(ends, fieldCount * 2);
+        }
+        starts[fieldCount] = fieldStart;
+        ends[fieldCount] = recordLength;
+        fieldCount++;
+    }
+
+    private boolean isBlank() {
+        return fieldCount == 1 && trimStart(record, 0, recordLength) == recordLength;
+    }
+
+    @Override
+    public void close() throws IOException {
+        in.close();
+    }
+
+    // ============== FIELDS OF THE CURRENT RECORD ==============
+
+    int size() {
+        return fieldCount;
+    }
+
+    String getString(int field) {
+        return new String(record, starts[field], ends[field] - starts[field]);
+    }
+
+    // Compare without creating a String (e.g. to reuse an existing one)
+    boolean fieldEquals(int field, String value) {
+        int from = starts[field];
+        int length = ends[field] - from;
+        if (value == null || value.length() != length) return false;
+        for (int i = 0; i < length; i++) {
+            if (record[from + i] != value.charAt(i)) return false;
+        }
+        return true;
+    }
+
+    int getInt(int field, int defaultValue) {
+        return parseInt(record, starts[field], ends[field], defaultValue);
+    }
+
+    double getDouble(int field, double defaultValue) {
+        return parseDouble(record, starts[field], ends[field], defaultValue);
+    }
+
+    // Yes/No (or true/false), any letter case
+    boolean getYesNo(int field, boolean defaultValue) {
+        return parseYesNo(record, starts[field], ends[field], defaultValue);
+    }
+
+    LocalDate getDate(int field, LocalDate defaultValue) {
+        return parseDate(record, starts[field], ends[field], defaultValue);
+    }
+
+    // Whether the record is this header line (letter case and outer spaces ignored)
+    boolean matchesHeader(String header) {
+        int from = 0;
+        for (int field = 0; field < fieldCount; field++) {
+            int to = header.indexOf(',', from);
+            if (to < 0) {
+                if (field != fieldCount - 1) return false;
+                to = header.length();
+            }
+            int start = field == 0 ? trimStart(record, starts[field], ends[field]) : starts[field];
+            int end = field == fieldCount - 1 ? trimEnd(record, start, ends[field]) : ends[field];
+            if (!equalsIgnoreCase(record, start, end, header.substring(from, to))) return false;
+            from = to + 1;
+        }
+        return from == header.length() + 1;
+    }
+
+    // ============== PARSERS (no exceptions, default on malformed input) ==============
+    // Surrounding whitespace is ignored, like String.trim()
+
+    static int parseInt(char[] s, int from, int to, int defaultValue) {
+        long value = parseLong(s, from, to, Long.MIN_VALUE);
+        if (value < Integer.MIN_VALUE || value > Integer.MAX_VALUE) return defaultValue;
+        return (int) value;
+    }
+
+    // Long.MIN_VALUE itself is not accepted (it doubles as the "invalid" marker above)
+    static long parseLong(char[] s, int from, int to, long defaultValue) {
+        from = trimStart(s, from, to);
+        to = trimEnd(s, from, to);
+        boolean negative = false;
+        if (from < to && (s[from] == '-' || s[from] == '+')) {
+            negative = s[from] == '-';
+            from++;
+        }
+        if (from == to) return defaultValue;
+
+        long value = 0; // Accumulated as a negative number
+        for (int i = from; i < to; i++) {
+            int digit = s[i] - '0';
+            if (digit < 0 || digit > 9) return defaultValue;
+            if (value < (Long.MIN_VALUE + digit) / 10) return defaultValue; // overflow
+            value = value * 10 - digit;
+        }
+        if (value == Long.MIN_VALUE) return defaultValue;
+        return negative ? value : -value;
+    }
+
+    // Decimal notation with optional exponent, NaN and Infinity (what Double.toString writes).
+    // Up to 18 significant digits and small exponents are converted exactly here; longer
+    // values are checked first and then handed to Double.parseDouble.
+    static double parseDouble(char[] s, int from, int to, double defaultValue) {
+        from = trimStart(s, from, to);
+        to = trimEnd(s, from, to);
+        int start = from;
+        boolean negative = false;
+        if (from < to && (s[from] == '-' || s[from] == '+')) {
+            negative = s[from] == '-';
+            from++;
+        }
+        if (equalsIgnoreCase(s, from, to, "NaN")) return Double.NaN;
+        if (equalsIgnoreCase(s, from, to, "Infinity")) {
+            return negative ? Double.NEGATIVE_INFINITY : Double.POSITIVE_INFINITY;
+        }
+
+        long mantissa = 0;
+        int significant = 0;
+        int exponent = 0;
+        int digits = 0;
+        boolean exact = true;
+        boolean dot = false;
+        int i = from;
+        for (; i < to; i++) {
+            char c = s[i];
+            if (c == '.' && !dot) {
+                dot = true;
+            } else if (c >= '0' && c <= '9') {
+                digits++;
+                if (mantissa == 0 && c == '0') {
+                    if (dot) exponent--;
+                } else if (significant < 18) {
+                    mantissa = mantissa * 10 + (c - '0');
+                    significant++;
+                    if (dot) exponent--;
+                } else {
+                    exact = false; // digit dropped
+                    if (!dot) exponent++;
+                }
+            } else {
+                break;
+            }
+        }
+        if (digits == 0) return defaultValue;
+
+        if (i < to && (s[i] == 'e' || s[i] == 'E')) {
+            i++;
+            boolean negativeExponent = false;
+            if (i < to && (s[i] == '-' || s[i] == '+')) {
+                negativeExponent = s[i] == '-';
+                i++;
+            }
+            if (i == to) return defaultValue;
+            int e = 0;
+            for (; i < to; i++) {
+                int digit = s[i] - '0';
+                if (digit < 0 || digit > 9) return defaultValue;
+                e = Math.min(e * 10 + digit, 100_000); // far beyond any finite double
+            }
+            exponent += negativeExponent ? -e : e;
+        }
+        if (i != to) return defaultValue;
+
+        double value;
+        if (mantissa == 0) {
+            value = 0;
+        } else if (exact && mantissa < (1L << 53) && exponent >= -22 && exponent <= 22) {
+            // Both operands are exact, so one multiply/divide is correctly rounded
+            value = exponent >= 0 ? mantissa * POWERS_OF_TEN[exponent] : mantissa / POWERS_OF_TEN[-exponent];
+        } else {
+            // Already validated, cannot throw
+            return Double.parseDouble(new String(s, start, to - start));
+        }
+        return negative ? -value : value;
+    }
+
+    static boolean parseYesNo(char[] s, int from, int to, boolean defaultValue) {
+        from = trimStart(s, from, to);
+        to = trimEnd(s, from, to);
+        if (equalsIgnoreCase(s, from, to, "yes") || equalsIgnoreCase(s, from, to, "true")) return true;
+        if (equalsIgnoreCase(s, from, to, "no") || equalsIgnoreCase(s, from, to, "false")) return false;
+        return defaultValue;
+    }
+
+    // yyyy-MM-dd (what LocalDate.toString writes for years 0 to 9999)
+    static LocalDate parseDate(char[] s, int from, int to, LocalDate defaultValue) {
+        from = trimStart(s, from, to);
+        to = trimEnd(s, from, to);
+        if (to - from != 10 || s[from + 4] != '-' || s[from + 7] != '-') return defaultValue;
+        int year = digits(s, from, from + 4);
+        int month = digits(s, from + 5, from + 7);
+        int day = digits(s, from + 8, from + 10);
+        if (year < 0 || month < 1 || month > 12 || day < 1) return defaultValue;
+        if (day > Month.of(month).length(Year.isLeap(year))) return defaultValue;
+        return LocalDate.of(year, month, day);
+    }
+
+    // Value of a run of digits only, or -1
+    private static int digits(char[] s, int from, int to) {
+        int value = 0;
+        for (int i = from; i < to; i++) {
+            int digit = s[i] - '0';
+            if (digit < 0 || digit > 9) return -1;
+            value = value * 10 + digit;
+        }
+        return value;
+    }
+
+    private static int trimStart(char[] s, int from, int to) {
+        while (from < to && s[from] <= ' ') from++;
+        return from;
+    }
+
+    private static int trimEnd(char[] s, int from, int to) {
+        while (to > from && s[to - 1] <= ' ') to--;
+        return to;
+    }
+
+    private static boolean equalsIgnoreCase(char[] s, int from, int to, String word) {
+        if (to - from != word.length()) return false;
+        for (int i = 0; i < word.length(); i++) {
+            char a = s[from + i];
+            char b = word.charAt(i);
+            if (a != b && Character.toLowerCase(a) != Character.toLowerCase(b)) return false;
+        }
+        return true;
+    }
+}
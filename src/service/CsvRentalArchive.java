@@ -0,0 +1,247 @@
+package service;
+
+import model.*;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.*;
+import java.util.function.Consumer;
+
+// Rental archive kept as a CSV file. Records are appended and never change.
+// The heap only keeps an index of rental number -> file offset (LongLongMap,
+// 16 bytes per rental); lookups by ID read one line and reports stream the file.
+//
+// Each record carries its car's details, so archived rentals can still be read
+// after the car has left the fleet. Quoted fields (e.g. a customer name) may contain
+// line breaks, so a '\n' only ends a record outside quotes; records are parsed by CsvReader.
+public class CsvRentalArchive implements RentalArchive {
+
+    private static final String HEADER =
+            "RentalID,CarID,Type,Brand,PricePerDay,BatteryCapacity,FuelType,"
+                    + "CustomerID,CustomerName,CustomerPhone,Days,TotalFee,StartDate";
+
+    private final Path file;
+    private long length;       // File size in bytes = offset of the next record
+    private int count;         // Records in the file
+    private double totalFees;  // Sum of the archived rentals' fees
+    private long highestNumber; // Highest rental number archived (see RentalIdAllocator)
+
+    private final LongLongMap offsets = new LongLongMap(); // Key = rental number
+    // Rental IDs that are not "R<number>" (rare, only from old data)
+    private final Map<String, Long> otherOffsets = new HashMap<>();
+
+    // Open an archive file, creating it if needed; existing records are indexed
+    public CsvRentalArchive(Path file) throws IOException {
+        this.file = file;
+        if (!Files.exists(file) || Files.size(file) == 0) {
+            try (CsvWriter out = CsvWriter.appendAt(file, 0)) {
+                out.line(HEADER).commit();
+            }
+        }
+        rebuildIndex();
+    }
+
+    private void rebuildIndex() throws IOException {
+        try (InputStream in = new BufferedInputStream(Files.newInputStream(file))) {
+            ByteArrayOutputStream line = new ByteArrayOutputStream();
+            long offset = 0;
+            long lineStart = 0;
+            boolean header = true;
+            boolean quoted = false; // Odd number of quotes so far in this record
+            int b;
+            while ((b = in.read()) != -1) {
+                offset++;
+                if (b == '\"') quoted = !quoted;
+                if (b != '\n' || quoted) {
+                    line.write(b);
+                    continue;
+                }
+                String text = line.toString(StandardCharsets.UTF_8);
+                line.reset();
+                if (header) {
+                    if (!text.trim().equalsIgnoreCase(HEADER)) {
+                        throw new IOException("Rental archive header is invalid. Expected: " + HEADER);
+                    }
+                    header = false;
+                } else {
+                    CsvReader csv = record(text);
+                    if (csv != null && csv.size() >= 13) {
+                        recordIndexed(csv.getString(0), lineStart, csv.getDouble(11, 0.0));
+                    }
+                }
+                lineStart = offset;
+            }
+            length = lineStart; // A torn last record (no newline) is ignored and overwritten
+        }
+    }
+
+    // ============== WRITING ==============
+
+    @Override
+    public synchronized void append(Collection<Rental> rentals) throws IOException {
+        if (rentals.isEmpty()) return;
+
+        // Write at the known end, so a torn record left by a crash is overwritten
+        long[] starts = new long[rentals.size()];
+        long end;
+        try (CsvWriter out = CsvWriter.appendAt(file, length)) {
+            int i = 0;
+            for (Rental rental : rentals) {
+                starts[i++] = out.position();
+                write(out, rental);
+            }
+            end = out.position();
+            out.commit();
+        }
+
+        int i = 0;
+        for (Rental rental : rentals) {
+            recordIndexed(rental.getRentalId(), starts[i++], rental.getTotalFee());
+        }
+        length = end;
+    }
+
+    private static void write(CsvWriter out, Rental rental) throws IOException {
+        Car car = rental.getCar();
+        Customer customer = rental.getCustomer();
+        out.field(rental.getRentalId()).field(car.getId());
+        if (car instanceof ElectricCar) {
+            out.field("Electric").field(car.getBrand()).field(car.getPricePerDay())
+                    .field(((ElectricCar) car).getBatteryCapacity()).field((String) null);
+        } else if (car instanceof GasCar) {
+            out.field("Gas").field(car.getBrand()).field(car.getPricePerDay())
+                    .field((String) null).field(((GasCar) car).getFuelType());
+        } else {
+            out.field("Unknown").field(car.getBrand()).field(car.getPricePerDay())
+                    .field((String) null).field((String) null);
+        }
+        out.field(customer.getCustomerId())
+                .field(customer.getName())
+                .field(customer.getPhone())
+                .field(rental.getDays())
+                .field(rental.getTotalFee())
+                .field(rental.getStartDate())
+                .endRow();
+    }
+
+    // ============== READING ==============
+
+    @Override
+    public synchronized boolean contains(String rentalId) {
+        return offsetOf(rentalId) >= 0;
+    }
+
+    @Override
+    public Rental find(String rentalId) throws IOException {
+        long offset;
+        synchronized (this) {
+            offset = offsetOf(rentalId);
+        }
+        if (offset < 0) return null;
+
+        try (RandomAccessFile raf = new RandomAccessFile(file.toFile(), "r")) {
+            raf.seek(offset);
+            ByteArrayOutputStream line = new ByteArrayOutputStream();
+            byte[] buffer = new byte[256];
+            boolean quoted = false;
+            int n;
+            while ((n = raf.read(buffer)) > 0) {
+                int end = 0;
+                while (end < n && (buffer[end] != '\n' || quoted)) {
+                    if (buffer[end] == '\"') quoted = !quoted;
+                    end++;
+                }
+                line.write(buffer, 0, end);
+                if (end < n) break;
+            }
+            CsvReader csv = record(line.toString(StandardCharsets.UTF_8));
+            return csv == null ? null : parse(csv);
+        }
+    }
+
+    @Override
+    public void scan(int limit, Consumer<Rental> action) throws IOException {
+        try (CsvReader csv = new CsvReader(Files.newBufferedReader(file, StandardCharsets.UTF_8))) {
+            if (!csv.next()) return; // header
+            int seen = 0;
+            while (seen < limit && csv.next()) {
+                Rental rental = parse(csv);
+                if (rental != null) {
+                    action.accept(rental);
+                    seen++;
+                }
+            }
+        }
+    }
+
+    // The one record in text, or null if it is blank
+    private static CsvReader record(String text) throws IOException {
+        CsvReader csv = new CsvReader(new StringReader(text));
+        return csv.next() ? csv : null;
+    }
+
+    private static Rental parse(CsvReader csv) {
+        if (csv.size() < 13) return null;
+
+        String carId = csv.getString(1);
+        String brand = csv.getString(3);
+        double pricePerDay = csv.getDouble(4, 0.0);
+        Car car;
+        if (csv.fieldEquals(2, "Electric")) {
+            car = new ElectricCar(carId, brand, pricePerDay, csv.getDouble(5, 0.0));
+        } else {
+            car = new GasCar(carId, brand, pricePerDay, csv.getString(6));
+        }
+
+        Customer customer = new Customer(csv.getString(7), csv.getString(8), csv.getString(9));
+        Rental rental = new Rental(csv.getString(0), car, customer,
+                csv.getDate(12, LocalDate.now()),
+                csv.getInt(10, 1),
+                csv.getDouble(11, 0.0));
+        rental.setReturned(true);
+        return rental;
+    }
+
+    // ============== STATISTICS ==============
+
+    @Override
+    public synchronized int size() {
+        return count;
+    }
+
+    @Override
+    public synchronized double getTotalFees() {
+        return totalFees;
+    }
+
+    @Override
+    public synchronized long getHighestRentalNumber() {
+        return highestNumber;
+    }
+
+    // ============== INDEX ==============
+
+    private void recordIndexed(String rentalId, long offset, double fee) {
+        count++;
+        totalFees += fee;
+        highestNumber = Math.max(highestNumber, RentalIdAllocator.parseNumber(rentalId)); // "R042" still uses 42
+        long number = RentalIdAllocator.keyOf(rentalId);
+        if (number <= 0) {
+            otherOffsets.putIfAbsent(rentalId, offset);
+            return;
+        }
+        offsets.putIfAbsent(number, offset); // Same ID archived twice: the first record wins
+    }
+
+    private long offsetOf(String rentalId) {
+        long number = RentalIdAllocator.keyOf(rentalId);
+        if (number <= 0) {
+            Long offset = otherOffsets.get(rentalId);
+            return offset == null ? -1 : offset;
+        }
+        return offsets.get(number);
+    }
+}
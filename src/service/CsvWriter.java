@@ -0,0 +1,281 @@
+package service;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDate;
+
+// CSV writer for the save path (see CSVExporter), the counterpart of CsvReader.
+// Fields are encoded as UTF-8 straight into one reusable byte buffer: clean fields are
+// copied as they are, numbers and dates are written digit by digit, and only fields
+// with commas, quotes or line breaks get quoted.
+//
+// Everything goes to "<file>.tmp" next to the target, which commit() flushes to disk
+// and renames over the target in one step. A crash or error before that leaves the old
+// file untouched; close() without commit() deletes the temp file. One writer per file
+// at a time. Append-only files (the rental archives) use appendAt() instead.
+class CsvWriter implements Closeable {
+
+    private static final int BUFFER_SIZE = 1 << 16;
+
+    // 10^0 .. 10^8, all exact doubles
+    private static final double[] POWERS_OF_TEN = {1, 1e1, 1e2, 1e3, 1e4, 1e5, 1e6, 1e7, 1e8};
+
+    private final Path file;
+    private final Path temp;           // null = writing into file itself (appendAt)
+    private final FileChannel channel;
+    private final ByteBuffer buffer = ByteBuffer.allocate(BUFFER_SIZE);
+    private final byte[] digits = new byte[20];
+    private boolean rowStarted;
+    private boolean committed;
+
+    CsvWriter(Path file) throws IOException {
+        this.file = file.toAbsolutePath();
+        this.temp = this.file.resolveSibling(this.file.getFileName() + ".tmp");
+        this.channel = FileChannel.open(temp, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING);
+    }
+
+    private CsvWriter(Path file, long offset) throws IOException {
+        this.file = file;
+        this.temp = null;
+        this.channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.WRITE);
+        try {
+            channel.truncate(offset);
+            channel.position(offset);
+        } catch (IOException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    // Write into file itself from offset on (anything after it is cut off, e.g. a torn record
+    // left by a crash); commit() flushes the rows to disk. Rows written before a failure may
+    // be left behind, so readers of such files must skip a torn last record.
+    static CsvWriter appendAt(Path file, long offset) throws IOException {
+        return new CsvWriter(file, offset);
+    }
+
+    // Offset in the file the next byte goes to
+    long position() throws IOException {
+        return channel.position() + buffer.position();
+    }
+
+    // ============== FIELDS ==============
+
+    // Text written as is, e.g. a header line (ends the row)
+    CsvWriter line(String text) throws IOException {
+        writeChars(text, false);
+        return endRow();
+    }
+
+    CsvWriter field(String value) throws IOException {
+        separate();
+        if (value != null) {
+            writeChars(value, needsQuotes(value));
+        }
+        return this;
+    }
+
+    CsvWriter field(long value) throws IOException {
+        separate();
+        writeLong(value);
+        return this;
+    }
+
+    // Reads back as exactly the same double (see writeDouble)
+    CsvWriter field(double value) throws IOException {
+        separate();
+        writeDouble(value);
+        return this;
+    }
+
+    CsvWriter field(LocalDate date) throws IOException {
+        separate();
+        int year = date.getYear();
+        if (year < 1000 || year > 9999) {
+            writeChars(date.toString(), false); // Rare: let LocalDate pick the format
+            return this;
+        }
+        writeLong(year);
+        writeByte('-');
+        writeTwoDigits(date.getMonthValue());
+        writeByte('-');
+        writeTwoDigits(date.getDayOfMonth());
+        return this;
+    }
+
+    CsvWriter yesNo(boolean value) throws IOException {
+        separate();
+        writeChars(value ? "Yes" : "No", false);
+        return this;
+    }
+
+    CsvWriter endRow() throws IOException {
+        writeByte('\n');
+        rowStarted = false;
+        return this;
+    }
+
+    // ============== COMMIT ==============
+
+    // Flush to disk and replace the target file with what was written
+    // (appendAt: flush to disk only)
+    void commit() throws IOException {
+        flush();
+        channel.force(true);
+        channel.close();
+        if (temp != null) {
+            moveIntoPlace(temp, file);
+        }
+        committed = true;
+    }
+
+    // Replace file with temp in one step where the file system allows it
+    static void moveIntoPlace(Path temp, Path file) throws IOException {
+        try {
+            Files.move(temp, file, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        } catch (AtomicMoveNotSupportedException e) {
+            Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (committed) return;
+        try {
+            channel.close();
+        } finally {
+            if (temp != null) {
+                Files.deleteIfExists(temp);
+            }
+        }
+    }
+
+    // ============== ENCODING ==============
+
+    static boolean needsQuotes(String value) {
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c == ',' || c == '\"' || c == '\n' || c == '\r') return true;
+        }
+        return false;
+    }
+
+    private void separate() throws IOException {
+        if (rowStarted) {
+            writeByte(',');
+        }
+        rowStarted = true;
+    }
+
+    private void writeChars(String value, boolean quote) throws IOException {
+        if (quote) writeByte('\"');
+        int length = value.length();
+        for (int i = 0; i < length; i++) {
+            char c = value.charAt(i);
+            if (c < 0x80) {
+                if (quote && c == '\"') writeByte('\"'); // escaped quote
+                writeByte(c);
+            } else if (c < 0x800) {
+                writeByte(0xC0 | (c >> 6));
+                writeByte(0x80 | (c & 0x3F));
+            } else if (Character.isHighSurrogate(c) && i + 1 < length && Character.isLowSurrogate(value.charAt(i + 1))) {
+                int codePoint = Character.toCodePoint(c, value.charAt(++i));
+                writeByte(0xF0 | (codePoint >> 18));
+                writeByte(0x80 | ((codePoint >> 12) & 0x3F));
+                writeByte(0x80 | ((codePoint >> 6) & 0x3F));
+                writeByte(0x80 | (codePoint & 0x3F));
+            } else if (Character.isSurrogate(c)) {
+                writeByte('?'); // Unpaired surrogate, as String.getBytes does
+            } else {
+                writeByte(0xE0 | (c >> 12));
+                writeByte(0x80 | ((c >> 6) & 0x3F));
+                writeByte(0x80 | (c & 0x3F));
+            }
+        }
+        if (quote) writeByte('\"');
+    }
+
+    private void writeLong(long value) throws IOException {
+        if (value == Long.MIN_VALUE) {
+            writeChars(String.valueOf(value), false);
+            return;
+        }
+        if (value < 0) {
+            writeByte('-');
+            value = -value;
+        }
+        int start = digits.length;
+        do {
+            digits[--start] = (byte) ('0' + value % 10);
+            value /= 10;
+        } while (value != 0);
+        for (int i = start; i < digits.length; i++) {
+            writeByte(digits[i]);
+        }
+    }
+
+    private void writeTwoDigits(int value) throws IOException {
+        writeByte('0' + value / 10);
+        writeByte('0' + value % 10);
+    }
+
+    // Values from 0.001 to 10^7 with up to 8 decimals are written with the fewest decimals
+    // that read back as the same double (the shortest form, as Double.toString aims for).
+    // Anything else (tiny, huge, NaN, long fractions) goes through Double.toString.
+    private void writeDouble(double value) throws IOException {
+        double magnitude = Math.abs(value);
+        if (value == 0 || (magnitude >= 1e-3 && magnitude < 1e7)) {
+            for (int decimals = 0; decimals < POWERS_OF_TEN.length; decimals++) {
+                double scaled = Math.rint(magnitude * POWERS_OF_TEN[decimals]);
+                if (scaled / POWERS_OF_TEN[decimals] == magnitude) {
+                    if (value < 0 || (value == 0 && 1 / value < 0)) writeByte('-');
+                    writeFixed((long) scaled, Math.max(decimals, 1), decimals);
+                    return;
+                }
+            }
+        }
+        writeChars(Double.toString(value), false);
+    }
+
+    // unscaled / 10^scale, with at least minDecimals digits after the point
+    private void writeFixed(long unscaled, int minDecimals, int scale) throws IOException {
+        long power = (long) POWERS_OF_TEN[scale];
+        writeLong(unscaled / power);
+        writeByte('.');
+        long fraction = unscaled % power;
+        int start = digits.length;
+        for (int i = 0; i < scale; i++) {
+            digits[--start] = (byte) ('0' + fraction % 10);
+            fraction /= 10;
+        }
+        for (int i = start; i < digits.length; i++) {
+            writeByte(digits[i]);
+        }
+        for (int i = scale; i < minDecimals; i++) {
+            writeByte('0');
+        }
+    }
+
+    private void writeByte(int b) throws IOException {
+        if (!buffer.hasRemaining()) {
+            flush();
+        }
+        buffer.put((byte) b);
+    }
+
+    private void flush() throws IOException {
+        buffer.flip();
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+        buffer.clear();
+    }
+}
@@ -0,0 +1,85 @@
+package service;
+
+import model.Customer;
+import model.Rental;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+// One shared Customer object per customer ID (flyweight), plus each customer's rentals.
+// Repeat customers reuse the same instance and strings instead of a new copy per rental.
+// If a customer's name or phone changes, the new details become the shared instance;
+// older rentals keep the instance they were made with.
+public class CustomerRegistry {
+
+    private final Map<String, Customer> customers = new ConcurrentHashMap<>();          // Key = customerId
+    private final Map<String, Queue<Rental>> rentalsByCustomer = new ConcurrentHashMap<>(); // Oldest first
+
+    // The shared instance for these details (created on first use)
+    public Customer canonical(String customerId, String name, String phone) {
+        Customer existing = customers.get(customerId);
+        if (existing != null && sameDetails(existing, name, phone)) {
+            return existing;
+        }
+        return customers.compute(customerId, (id, current) ->
+                current != null && sameDetails(current, name, phone) ? current : new Customer(id, name, phone));
+    }
+
+    // Same as above, reusing the given object when it becomes the shared one
+    public Customer canonical(Customer customer) {
+        Customer existing = customers.get(customer.getCustomerId());
+        if (existing == customer || (existing != null && sameDetails(existing, customer.getName(), customer.getPhone()))) {
+            return existing;
+        }
+        return customers.compute(customer.getCustomerId(), (id, current) ->
+                current != null && sameDetails(current, customer.getName(), customer.getPhone()) ? current : customer);
+    }
+
+    private static boolean sameDetails(Customer customer, String name, String phone) {
+        return Objects.equals(customer.getName(), name) && Objects.equals(customer.getPhone(), phone);
+    }
+
+    public Customer findCustomerById(String customerId) {
+        return customers.get(customerId);
+    }
+
+    public int size() {
+        return customers.size();
+    }
+
+    // ============== RENTALS PER CUSTOMER ==============
+
+    // Added inside compute, so it cannot land in a queue removeRentals is dropping
+    void addRental(Rental rental) {
+        rentalsByCustomer.compute(rental.getCustomer().getCustomerId(), (id, queue) -> {
+            Queue<Rental> rentals = queue != null ? queue : new ConcurrentLinkedQueue<>();
+            rentals.add(rental);
+            return rentals;
+        });
+    }
+
+    // Used when rentals move to the archive; customers left without rentals are dropped here
+    void removeRentals(Collection<Rental> rentals) {
+        Map<String, Set<Rental>> byCustomer = new HashMap<>();
+        for (Rental rental : rentals) {
+            byCustomer.computeIfAbsent(rental.getCustomer().getCustomerId(), id -> new HashSet<>()).add(rental);
+        }
+        byCustomer.forEach((customerId, removed) ->
+                rentalsByCustomer.computeIfPresent(customerId, (id, queue) -> {
+                    queue.removeIf(removed::contains);
+                    return queue.isEmpty() ? null : queue;
+                }));
+    }
+
+    // Customers with rentals held in memory
+    int customersWithRentals() {
+        return rentalsByCustomer.size();
+    }
+
+    // The customer's rentals held in memory, oldest first
+    public List<Rental> rentalsOf(String customerId) {
+        Queue<Rental> queue = rentalsByCustomer.get(customerId);
+        return queue == null ? new ArrayList<>() : new ArrayList<>(queue);
+    }
+}
@@ -0,0 +1,300 @@
+package service;
+
+import model.*;
+
+import java.util.*;
+import java.util.concurrent.locks.StampedLock;
+
+// Columnar (struct-of-arrays) copy of the fleet for fleet-wide scans and aggregations.
+// Each car gets a slot; its price, type, brand/fuel codes and battery live in primitive
+// arrays and its availability in a BitSet, so a scan walks a few dense arrays instead
+// of chasing one heap object per car.
+//
+// Kept in sync by CarInventory's car listener, like the other indexes. Updates take
+// the write lock for a few array stores and always re-read the car's current state.
+//
+// Scans work in batches of 64 slots, one long of match bits per batch: each
+// criterion is a loop over one primitive column with no branches on the data.
+// Cars of other Car subclasses fall back to their objects for the type check.
+//
+// The type column classifies by exact class, like CarQuery.type; battery, fuel and
+// fee factor come from instanceof, like CarQuery.matches.
+class FleetColumns {
+
+    static final byte ELECTRIC = 0;
+    static final byte GAS = 1;
+    static final byte OTHER = 2;
+
+    private static final int INITIAL_CAPACITY = 64;
+
+    private final StampedLock lock = new StampedLock();
+    private final Map<Car, Integer> slots = new HashMap<>();
+    private final BitSet used = new BitSet();       // Slots holding a car
+    private final BitSet available = new BitSet();  // Slots holding an available car
+
+    private Car[] cars = new Car[INITIAL_CAPACITY];
+    private double[] prices = new double[INITIAL_CAPACITY];
+    private double[] batteries = new double[INITIAL_CAPACITY]; // NaN unless electric, so no range keeps it
+    private double[] feeFactors = new double[INITIAL_CAPACITY]; // fee = days * price * factor; NaN = ask the car
+    private byte[] types = new byte[INITIAL_CAPACITY];
+    private int[] brandCodes = new int[INITIAL_CAPACITY];      // StringDictionary.BRANDS codes
+    private int[] fuelCodes = new int[INITIAL_CAPACITY];       // StringDictionary.FUEL_TYPES codes
+    private int maxBrandCode = -1;
+
+    void add(Car car) {
+        long stamp = lock.writeLock();
+        try {
+            Integer slot = slots.get(car);
+            if (slot == null) {
+                slot = used.nextClearBit(0); // reuse slots of removed cars
+                ensureCapacity(slot + 1);
+                slots.put(car, slot);
+                used.set(slot);
+                cars[slot] = car;
+            }
+            write(slot, car);
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+    }
+
+    void remove(Car car) {
+        long stamp = lock.writeLock();
+        try {
+            Integer slot = slots.remove(car);
+            if (slot != null) {
+                used.clear(slot);
+                available.clear(slot);
+                cars[slot] = null;
+            }
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+    }
+
+    // Called after the car's availability or price changed
+    void refresh(Car car) {
+        long stamp = lock.writeLock();
+        try {
+            Integer slot = slots.get(car);
+            if (slot != null) {
+                write(slot, car);
+            }
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+    }
+
+    private void write(int slot, Car car) {
+        prices[slot] = car.getPricePerDay();
+        available.set(slot, car.isAvailable());
+        int brandCode = StringDictionary.BRANDS.code(car.getBrand());
+        brandCodes[slot] = brandCode;
+        maxBrandCode = Math.max(maxBrandCode, brandCode);
+        types[slot] = typeCode(car.getClass());
+        if (car instanceof ElectricCar) {
+            batteries[slot] = ((ElectricCar) car).getBatteryCapacity();
+            fuelCodes[slot] = StringDictionary.NO_CODE;
+            feeFactors[slot] = ((ElectricCar) car).getFeeFactor();
+        } else if (car instanceof GasCar) {
+            batteries[slot] = Double.NaN;
+            fuelCodes[slot] = ((GasCar) car).getFuelCode();
+            feeFactors[slot] = ((GasCar) car).getFeeFactor();
+        } else {
+            batteries[slot] = Double.NaN;
+            fuelCodes[slot] = StringDictionary.NO_CODE;
+            feeFactors[slot] = Double.NaN;
+        }
+    }
+
+    private void ensureCapacity(int needed) {
+        if (needed <= cars.length) return;
+        int capacity = Math.max(needed, cars.length * 2);
+        cars = Arrays.copyOf(cars, capacity);
+        prices = Arrays.copyOf(prices, capacity);
+        batteries = Arrays.copyOf(batteries, capacity);
+        feeFactors = Arrays.copyOf(feeFactors, capacity);
+        types = Arrays.copyOf(types, capacity);
+        brandCodes = Arrays.copyOf(brandCodes, capacity);
+        fuelCodes = Arrays.copyOf(fuelCodes, capacity);
+    }
+
+    // ============== SCANS ==============
+
+    // Cars matching every criterion of the query
+    List<Car> select(CarQuery query) {
+        List<Car> results = new ArrayList<>();
+        long stamp = lock.readLock();
+        try {
+            long[] matches = filter(query);
+            for (int w = 0; w < matches.length; w++) {
+                for (long bits = matches[w]; bits != 0; bits &= bits - 1) {
+                    results.add(cars[(w << 6) + Long.numberOfTrailingZeros(bits)]);
+                }
+            }
+        } finally {
+            lock.unlockRead(stamp);
+        }
+        return results;
+    }
+
+    // Count, min, max and sum of the prices of matching cars in one pass
+    PriceStats priceStats(CarQuery query) {
+        long stamp = lock.readLock();
+        try {
+            long[] matches = filter(query);
+            int count = 0;
+            double sum = 0;
+            double min = Double.POSITIVE_INFINITY;
+            double max = Double.NEGATIVE_INFINITY;
+            double[] p = prices;
+            for (int w = 0; w < matches.length; w++) {
+                for (long bits = matches[w]; bits != 0; bits &= bits - 1) {
+                    double price = p[(w << 6) + Long.numberOfTrailingZeros(bits)];
+                    count++;
+                    sum += price;
+                    min = Math.min(min, price);
+                    max = Math.max(max, price);
+                }
+            }
+            return new PriceStats(count, sum, min, max);
+        } finally {
+            lock.unlockRead(stamp);
+        }
+    }
+
+    // Same as priceStats, for the fee of renting each matching car for the given days.
+    // Same formula as calculateRentalFee, so each fee is exactly what a rental would charge.
+    PriceStats feeStats(CarQuery query, int days) {
+        long stamp = lock.readLock();
+        try {
+            long[] matches = filter(query);
+            int count = 0;
+            double sum = 0;
+            double min = Double.POSITIVE_INFINITY;
+            double max = Double.NEGATIVE_INFINITY;
+            double[] p = prices;
+            double[] f = feeFactors;
+            for (int w = 0; w < matches.length; w++) {
+                for (long bits = matches[w]; bits != 0; bits &= bits - 1) {
+                    int i = (w << 6) + Long.numberOfTrailingZeros(bits);
+                    double fee = Double.isNaN(f[i]) ? cars[i].calculateRentalFee(days) : days * p[i] * f[i];
+                    count++;
+                    sum += fee;
+                    min = Math.min(min, fee);
+                    max = Math.max(max, fee);
+                }
+            }
+            return new PriceStats(count, sum, min, max);
+        } finally {
+            lock.unlockRead(stamp);
+        }
+    }
+
+    // Caller holds the lock. Match bits per batch of 64 slots (bit j of word w = slot
+    // 64 * w + j), starting from the used (or available) slots; each criterion then
+    // clears the slots failing it, one column at a time.
+    private long[] filter(CarQuery query) {
+        long[] matches = (query.isAvailableOnly() ? available : used).toLongArray();
+
+        // Only an explicit type: the one implied by fuel or battery is the NaN/NO_CODE
+        // columns below, which also let subclasses through, like CarQuery.matches
+        byte type = typeCode(query.getType());
+        if (type == OTHER && query.getType() != null) {
+            // Some other Car subclass: its class is only known from the object
+            for (int w = 0; w < matches.length; w++) {
+                for (long bits = matches[w]; bits != 0; bits &= bits - 1) {
+                    int bit = Long.numberOfTrailingZeros(bits);
+                    if (cars[(w << 6) + bit].getClass() != query.getType()) {
+                        matches[w] &= ~(1L << bit);
+                    }
+                }
+            }
+        } else if (query.getType() != null) {
+            keepEqual(matches, types, type);
+        }
+
+        if (query.hasPriceRange()) {
+            keepInRange(matches, prices, query.getMinPrice(), query.getMaxPrice());
+        }
+        if (query.getFuelType() != null) {
+            int fuelCode = query.getFuelCode();
+            if (fuelCode == StringDictionary.NO_CODE) {
+                return new long[0]; // No car uses that fuel (non-gas slots hold NO_CODE too)
+            }
+            keepEqual(matches, fuelCodes, fuelCode);
+        }
+        if (query.hasBatteryRange()) {
+            keepInRange(matches, batteries, query.getMinBattery(), query.getMaxBattery());
+        }
+
+        if (query.getBrand() != null) {
+            // Decide once per distinct brand, then check codes
+            byte[] brandMatch = new byte[maxBrandCode + 1]; // 0 = unknown, 1 = match, 2 = no match
+            String part = query.getBrand();
+            for (int w = 0; w < matches.length; w++) {
+                for (long bits = matches[w]; bits != 0; bits &= bits - 1) {
+                    int bit = Long.numberOfTrailingZeros(bits);
+                    int i = (w << 6) + bit;
+                    int code = brandCodes[i];
+                    if (brandMatch[code] == 0) {
+                        brandMatch[code] = CarQuery.containsIgnoreCase(cars[i].getBrand(), part) ? (byte) 1 : (byte) 2;
+                    }
+                    if (brandMatch[code] == 2) matches[w] &= ~(1L << bit);
+                }
+            }
+        }
+        return matches;
+    }
+
+    // ============== BATCH KERNELS ==============
+    // One word of match bits per 64 slots. The inner loops have no branches on the
+    // data, so they cost the same whatever the values are. Empty batches are skipped.
+    // A NaN value is never in range.
+
+    private static void keepInRange(long[] matches, double[] column, double min, double max) {
+        for (int w = 0; w < matches.length; w++) {
+            if (matches[w] == 0) continue;
+            int base = w << 6;
+            int lanes = Math.min(64, column.length - base);
+            long keep = 0;
+            for (int j = 0; j < lanes; j++) {
+                double value = column[base + j];
+                keep |= (value >= min & value <= max ? 1L : 0L) << j;
+            }
+            matches[w] &= keep;
+        }
+    }
+
+    private static void keepEqual(long[] matches, byte[] column, byte value) {
+        for (int w = 0; w < matches.length; w++) {
+            if (matches[w] == 0) continue;
+            int base = w << 6;
+            int lanes = Math.min(64, column.length - base);
+            long keep = 0;
+            for (int j = 0; j < lanes; j++) {
+                keep |= (column[base + j] == value ? 1L : 0L) << j;
+            }
+            matches[w] &= keep;
+        }
+    }
+
+    private static void keepEqual(long[] matches, int[] column, int value) {
+        for (int w = 0; w < matches.length; w++) {
+            if (matches[w] == 0) continue;
+            int base = w << 6;
+            int lanes = Math.min(64, column.length - base);
+            long keep = 0;
+            for (int j = 0; j < lanes; j++) {
+                keep |= (column[base + j] == value ? 1L : 0L) << j;
+            }
+            matches[w] &= keep;
+        }
+    }
+
+    private static byte typeCode(Class<? extends Car> type) {
+        if (type == ElectricCar.class) return ELECTRIC;
+        if (type == GasCar.class) return GAS;
+        return OTHER;
+    }
+}
@@ -0,0 +1,116 @@
+package service;
+
+import model.*;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+
+// Bucketed secondary indexes over the fleet: available/rented, car type and fuel type.
+// Kept in sync by CarInventory's car listener, so availability-filtered queries
+// only touch the matching bucket instead of the whole fleet.
+//
+// Updates for one car are serialized on that car and always re-read its current
+// state, so late or reordered notifications still leave the car in the right bucket.
+class FleetIndex {
+
+    private final Set<Car> all = ConcurrentHashMap.newKeySet();
+    private final Set<Car> available = ConcurrentHashMap.newKeySet();
+    private final Set<Car> rented = ConcurrentHashMap.newKeySet();
+
+    // Key = car class, Value = cars of that class (all / available only)
+    private final Map<Class<? extends Car>, Set<Car>> byType = new ConcurrentHashMap<>();
+    private final Map<Class<? extends Car>, Set<Car>> availableByType = new ConcurrentHashMap<>();
+
+    // Key = fuel type code (gas cars only, see StringDictionary), Value = cars using it (all / available only)
+    private final Map<Integer, Set<Car>> byFuel = new ConcurrentHashMap<>();
+    private final Map<Integer, Set<Car>> availableByFuel = new ConcurrentHashMap<>();
+
+    void add(Car car) {
+        synchronized (car) {
+            all.add(car);
+            bucket(byType, car.getClass()).add(car);
+            Integer fuel = fuelKey(car);
+            if (fuel != null) {
+                bucket(byFuel, fuel).add(car);
+            }
+            place(car);
+        }
+    }
+
+    void remove(Car car) {
+        synchronized (car) {
+            all.remove(car);
+            available.remove(car);
+            rented.remove(car);
+            bucket(byType, car.getClass()).remove(car);
+            bucket(availableByType, car.getClass()).remove(car);
+            Integer fuel = fuelKey(car);
+            if (fuel != null) {
+                bucket(byFuel, fuel).remove(car);
+                bucket(availableByFuel, fuel).remove(car);
+            }
+        }
+    }
+
+    // Called after the car's availability changed
+    void refresh(Car car) {
+        synchronized (car) {
+            if (all.contains(car)) {
+                place(car);
+            }
+        }
+    }
+
+    // Move the car into the buckets matching its current availability
+    private void place(Car car) {
+        Integer fuel = fuelKey(car);
+        if (car.isAvailable()) {
+            rented.remove(car);
+            available.add(car);
+            bucket(availableByType, car.getClass()).add(car);
+            if (fuel != null) bucket(availableByFuel, fuel).add(car);
+        } else {
+            available.remove(car);
+            rented.add(car);
+            bucket(availableByType, car.getClass()).remove(car);
+            if (fuel != null) bucket(availableByFuel, fuel).remove(car);
+        }
+    }
+
+    // ============== QUERIES (live, read-only views) ==============
+
+    Set<Car> allCars() {
+        return Collections.unmodifiableSet(all);
+    }
+
+    Set<Car> availableCars() {
+        return Collections.unmodifiableSet(available);
+    }
+
+    Set<Car> rentedCars() {
+        return Collections.unmodifiableSet(rented);
+    }
+
+    Set<Car> carsOfType(Class<? extends Car> type, boolean availableOnly) {
+        Set<Car> set = (availableOnly ? availableByType : byType).get(type);
+        return set == null ? Collections.emptySet() : Collections.unmodifiableSet(set);
+    }
+
+    Set<Car> carsWithFuel(String fuelType, boolean availableOnly) {
+        Set<Car> set = (availableOnly ? availableByFuel : byFuel).get(StringDictionary.FUEL_TYPES.find(fuelType));
+        return set == null ? Collections.emptySet() : Collections.unmodifiableSet(set);
+    }
+
+    // ============== HELPERS ==============
+
+    private static <K> Set<Car> bucket(Map<K, Set<Car>> map, K key) {
+        return map.computeIfAbsent(key, k -> ConcurrentHashMap.newKeySet());
+    }
+
+    private static Integer fuelKey(Car car) {
+        if (car instanceof GasCar) {
+            return ((GasCar) car).getFuelCode();
+        }
+        return null;
+    }
+}
@@ -0,0 +1,56 @@
+package service;
+
+import model.Car;
+import model.Rental;
+
+// Receives what happens inside CarInventory. The inventory only passes the
+// objects involved; turning them into text (or not) is up to the sink, so the
+// core operations do no I/O and build no strings.
+//
+// Implementations: ConsoleEventSink (the classic console messages),
+// AsyncEventSink (hands events to a background thread), RentalJournal (appends
+// the state changes to a file) and NONE.
+public interface InventoryEventSink {
+
+    // Sink that ignores every event
+    InventoryEventSink NONE = new InventoryEventSink() {
+        @Override public void carAdded(Car car) { }
+        @Override public void carRemoved(Car car) { }
+        @Override public void priceChanged(Car car) { }
+        @Override public void carNotFound(String carId) { }
+        @Override public void carRented(Rental rental) { }
+        @Override public void carReserved(Rental rental) { }
+        @Override public void rentRejected(String carId, BatchResult.Status reason) { }
+        @Override public void carReturned(Rental rental) { }
+        @Override public void returnRejected(String rentalId, BatchResult.Status reason) { }
+        @Override public void batchRented(BatchResult result) { }
+        @Override public void batchReturned(BatchResult result) { }
+    };
+
+    void carAdded(Car car);
+
+    void carRemoved(Car car);
+
+    // A car in the inventory got a new price per day (reported by the car's listener)
+    void priceChanged(Car car);
+
+    // removeCar was called with an unknown ID
+    void carNotFound(String carId);
+
+    void carRented(Rental rental);
+
+    // A car was booked for future dates
+    void carReserved(Rental rental);
+
+    // reason: CAR_NOT_FOUND, CAR_NOT_AVAILABLE, INVALID_DAYS, INVALID_DATES or DATES_UNAVAILABLE
+    void rentRejected(String carId, BatchResult.Status reason);
+
+    void carReturned(Rental rental);
+
+    // reason: RENTAL_NOT_FOUND or ALREADY_RETURNED
+    void returnRejected(String rentalId, BatchResult.Status reason);
+
+    void batchRented(BatchResult result);
+
+    void batchReturned(BatchResult result);
+}
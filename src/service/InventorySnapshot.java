@@ -0,0 +1,121 @@
+package service;
+
+import model.*;
+import java.io.IOException;
+import java.util.*;
+import java.util.function.Consumer;
+
+// A frozen copy of an inventory at one version (see CarInventory.snapshot).
+// Cars and rentals are copies: later rentals, returns or price changes on the
+// live inventory do not show up here, and the copies have no listeners.
+// Archived rentals are not copied; the snapshot remembers how many there were.
+public class InventorySnapshot {
+
+    private final long version;
+    private final Map<String, Car> cars;  // Key = carId, in the inventory's iteration order
+    private final List<Rental> rentals;   // Oldest first, pointing at the copied cars
+    private final long rentalIdHighWaterMark;
+    private final RentalArchive archive;  // null = no cold tier
+    private final int archivedCount;      // Archived rentals at this version
+    private final double archivedFees;
+
+    private InventorySnapshot(long version, Map<String, Car> cars, List<Rental> rentals,
+                              long rentalIdHighWaterMark, RentalArchive archive) {
+        this.version = version;
+        this.cars = Collections.unmodifiableMap(cars);
+        this.rentals = Collections.unmodifiableList(rentals);
+        this.rentalIdHighWaterMark = rentalIdHighWaterMark;
+        this.archive = archive;
+        this.archivedCount = archive == null ? 0 : archive.size();
+        this.archivedFees = archive == null ? 0 : archive.getTotalFees();
+    }
+
+    // Copy the given live state (the caller makes sure nothing changes meanwhile)
+    static InventorySnapshot copyOf(long version, Collection<Car> liveCars, List<Rental> liveRentals,
+                                    long rentalIdHighWaterMark, RentalArchive archive) {
+        Map<String, Car> cars = new LinkedHashMap<>();
+        for (Car car : liveCars) {
+            cars.put(car.getId(), freeze(car));
+        }
+        List<Rental> rentals = new ArrayList<>(liveRentals.size());
+        for (Rental rental : liveRentals) {
+            Car car = rental.getCar();
+            Car frozen = cars.get(car.getId());
+            // A rental of a car removed since keeps its own frozen copy
+            rentals.add(new Rental(rental, frozen != null ? frozen : freeze(car)));
+        }
+        return new InventorySnapshot(version, cars, rentals, rentalIdHighWaterMark, archive);
+    }
+
+    private static Car freeze(Car car) {
+        Car copy;
+        if (car instanceof ElectricCar) {
+            ElectricCar eCar = (ElectricCar) car;
+            copy = new ElectricCar(eCar.getId(), eCar.getBrand(), eCar.getPricePerDay(), eCar.getBatteryCapacity());
+        } else if (car instanceof GasCar) {
+            GasCar gCar = (GasCar) car;
+            copy = new GasCar(gCar.getId(), gCar.getBrand(), gCar.getPricePerDay(), gCar.getFuelType());
+        } else {
+            return car; // Unknown car type: cannot be copied, shared as is
+        }
+        copy.setAvailable(car.isAvailable());
+        return copy;
+    }
+
+    // ============== GETTERS ==============
+
+    public long getVersion() {
+        return version;
+    }
+
+    public Collection<Car> getCars() {
+        return cars.values();
+    }
+
+    public Car findCarById(String carId) {
+        return cars.get(carId);
+    }
+
+    // Rentals held in memory (archived ones excluded)
+    public List<Rental> getRentals() {
+        return rentals;
+    }
+
+    public int getArchivedRentalCount() {
+        return archivedCount;
+    }
+
+    // Every rental as of this version: archived ones streamed from disk, then the rest
+    public void forEachRental(Consumer<Rental> action) throws IOException {
+        if (archive != null) {
+            archive.scan(archivedCount, action);
+        }
+        rentals.forEach(action);
+    }
+
+    public long getRentalIdHighWaterMark() {
+        return rentalIdHighWaterMark;
+    }
+
+    // Rental statistics as of this version (linear in the number of rentals in memory;
+    // CarInventory.getRentalSummary() gives the live figures in O(1))
+    public RentalSummary getRentalSummary() {
+        long active = 0;
+        long completed = archivedCount;
+        long completedCents = RentalSummary.toCents(archivedFees);
+        long pendingCents = 0;
+        for (Rental rental : rentals) {
+            if (rental.isCancelled()) {
+                continue; // Neither pending nor earned
+            }
+            if (rental.isReturned()) {
+                completed++;
+                completedCents += RentalSummary.toCents(rental.getTotalFee());
+            } else {
+                active++;
+                pendingCents += RentalSummary.toCents(rental.getTotalFee());
+            }
+        }
+        return new RentalSummary(active, completed, completedCents, pendingCents);
+    }
+}
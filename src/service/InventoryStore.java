@@ -0,0 +1,61 @@
+package service;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.concurrent.atomic.AtomicLong;
+
+// Saving for the console app. A save only makes the journal durable (cost: the changes
+// since the last save); the full checkpoint (archive old rentals, rewrite the CSV files
+// and the binary snapshot, drop the journal records they hold) runs once the journal has grown to
+// checkpointRecords records, or when export() asks for it.
+public class InventoryStore {
+
+    public static final int DEFAULT_CHECKPOINT_RECORDS = 1000;
+
+    private final Path carsFile;
+    private final Path rentalsFile;
+    private final Path snapshotFile;
+    private final RentalJournal journal;
+    private final int checkpointRecords;
+    private final int keepRecentRentals; // Returned rentals beyond these go to the archive (if any)
+
+    // Constructor
+    public InventoryStore(Path carsFile, Path rentalsFile, Path snapshotFile, RentalJournal journal,
+                          int checkpointRecords, int keepRecentRentals) {
+        if (checkpointRecords <= 0) {
+            throw new IllegalArgumentException("Checkpoint interval must be positive.");
+        }
+        this.carsFile = carsFile;
+        this.rentalsFile = rentalsFile;
+        this.snapshotFile = snapshotFile;
+        this.journal = journal;
+        this.checkpointRecords = checkpointRecords;
+        this.keepRecentRentals = keepRecentRentals;
+    }
+
+    // Make every change so far survive a restart; true if that took a full checkpoint.
+    // Without an open journal (it could not be read) there is nothing cheaper to do.
+    public boolean save(CarInventory inventory) throws IOException {
+        if (journal.isOpen() && journal.getRecordCount() < checkpointRecords) {
+            journal.sync();
+            return false;
+        }
+        export(inventory);
+        return true;
+    }
+
+    // Full checkpoint, all from one snapshot. Only the journal records up to the snapshot
+    // point are dropped, last: changes made while the files were written stay in the journal
+    // (a crash before that only replays changes already saved, which replay skips)
+    public void export(CarInventory inventory) throws IOException {
+        if (inventory.getArchive() != null) {
+            inventory.archiveReturnedRentals(keepRecentRentals);
+        }
+        AtomicLong journalPosition = new AtomicLong(-1); // (set later with group commit)
+        InventorySnapshot snapshot = inventory.snapshot(() -> journal.atPosition(journalPosition::set));
+        CSVExporter.save(snapshot, carsFile.toString(), rentalsFile.toString());
+        BinarySnapshot.save(snapshot, snapshotFile);
+        journal.sync(); // With group commit this also waits for the position
+        journal.dropBefore(journalPosition.get());
+    }
+}
@@ -0,0 +1,58 @@
+package service;
+
+// Open-addressing hash map from positive long keys to long values, in two
+// primitive arrays (16 bytes per entry, no boxing). Not thread-safe.
+// Used by the rental archives to map rental numbers to record positions.
+class LongLongMap {
+
+    private long[] keys = new long[64]; // 0 = empty slot
+    private long[] values = new long[64];
+    private int size;
+
+    // Adds key -> value unless key is already present (the first value wins)
+    void putIfAbsent(long key, long value) {
+        if ((size + 1) * 2 > keys.length) {
+            grow();
+        }
+        int slot = slotOf(keys, key);
+        if (keys[slot] == 0) {
+            keys[slot] = key;
+            values[slot] = value;
+            size++;
+        }
+    }
+
+    // Value for key, or -1 if absent
+    long get(long key) {
+        int slot = slotOf(keys, key);
+        return keys[slot] == key ? values[slot] : -1;
+    }
+
+    int size() {
+        return size;
+    }
+
+    // Slot holding key, or the empty slot where it would go
+    private static int slotOf(long[] table, long key) {
+        int mask = table.length - 1;
+        int slot = Long.hashCode(key * 0x9E3779B97F4A7C15L) & mask;
+        while (table[slot] != 0 && table[slot] != key) {
+            slot = (slot + 1) & mask;
+        }
+        return slot;
+    }
+
+    private void grow() {
+        long[] oldKeys = keys;
+        long[] oldValues = values;
+        keys = new long[oldKeys.length * 2];
+        values = new long[oldKeys.length * 2];
+        for (int i = 0; i < oldKeys.length; i++) {
+            if (oldKeys[i] != 0) {
+                int slot = slotOf(keys, oldKeys[i]);
+                keys[slot] = oldKeys[i];
+                values[slot] = oldValues[i];
+            }
+        }
+    }
+}
@@ -0,0 +1,387 @@
+package service;
+
+import model.*;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDate;
+import java.util.*;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+
+// Rental archive stored outside the Java heap as fixed-width binary records, so
+// millions of archived rentals add no objects for the garbage collector to trace.
+// Records live in direct memory chunks, or in chunks of a memory-mapped file
+// (open(Path)) that a restarted process maps again instead of parsing anything.
+//
+// Record layout (40 bytes, little-endian):
+//   0  long   rental number (R<number>), or -1 if the ID has another form
+//   8  int    ID ref: index into the ID table when the number is -1
+//   12 int    car ref: index into the car table
+//   16 int    customer ref: index into the customer table
+//   20 int    days
+//   24 long   start date (epoch day)
+//   32 double total fee
+//
+// Cars, customers and odd IDs are far fewer than rentals: each distinct one is kept
+// once in a small on-heap table, saved next to the file as <file>.refs when mapped.
+public class OffHeapRentalArchive implements RentalArchive, AutoCloseable {
+
+    static final int RECORD_SIZE = 40;
+    private static final int CHUNK_RECORDS = 1 << 16; // 2.5 MB per chunk
+    private static final int CHUNK_BYTES = CHUNK_RECORDS * RECORD_SIZE;
+
+    // File header: magic, layout version, number of committed records
+    private static final int HEADER_SIZE = 16;
+    private static final int MAGIC = 0x52454E54; // "RENT"
+    private static final int VERSION = 1;
+
+    private final FileChannel channel; // null = direct memory only
+    private final Path refsFile;       // null = direct memory only
+    private final ByteBuffer header;
+    private final List<ByteBuffer> chunks = new ArrayList<>();
+
+    private int count;
+    private double totalFees;
+    private long highestNumber;
+    private final LongLongMap positions = new LongLongMap();      // rental number -> record index
+    private final Map<String, Integer> otherPositions = new HashMap<>(); // other IDs -> record index
+
+    // Side tables: row of the refs file -> ref, and ref -> value
+    private final Map<List<Object>, Integer> carRefs = new HashMap<>();
+    private final List<Car> cars = new ArrayList<>();
+    private final Map<List<Object>, Integer> customerRefs = new HashMap<>();
+    private final List<Customer> customers = new ArrayList<>();
+    private final Map<List<Object>, Integer> idRefs = new HashMap<>();
+    private final List<String> ids = new ArrayList<>();
+    private long refsLength; // End of the saved rows in the refs file
+
+    // Archive in direct (off-heap) memory; gone when the process ends
+    public OffHeapRentalArchive() {
+        this.channel = null;
+        this.refsFile = null;
+        this.header = ByteBuffer.allocateDirect(HEADER_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+    }
+
+    private OffHeapRentalArchive(Path file) throws IOException {
+        this.refsFile = Path.of(file + ".refs");
+        this.channel = FileChannel.open(file, StandardOpenOption.CREATE,
+                StandardOpenOption.READ, StandardOpenOption.WRITE);
+        try {
+            boolean fresh = channel.size() == 0;
+            this.header = channel.map(FileChannel.MapMode.READ_WRITE, 0, HEADER_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+            if (fresh) {
+                header.putInt(0, MAGIC).putInt(4, VERSION).putLong(8, 0);
+                ((MappedByteBuffer) header).force();
+            } else if (header.getInt(0) != MAGIC || header.getInt(4) != VERSION) {
+                throw new IOException("Not a rental archive file (or an unsupported version): " + file);
+            }
+            loadRefs();
+            reopen(header.getLong(8));
+        } catch (IOException | RuntimeException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    // Archive mapped to a file (created if missing); existing records are usable at once
+    public static OffHeapRentalArchive open(Path file) throws IOException {
+        return new OffHeapRentalArchive(file);
+    }
+
+    // Rebuild the counters and ID index from the committed records
+    private void reopen(long committed) throws IOException {
+        for (int i = 0; i < committed; i++) {
+            ByteBuffer chunk = chunkFor(i);
+            int at = (i % CHUNK_RECORDS) * RECORD_SIZE;
+            indexRecord(i, chunk.getLong(at), chunk.getInt(at + 8), chunk.getDouble(at + 32));
+        }
+    }
+
+    private void indexRecord(int position, long number, int idRef, double fee) {
+        count++;
+        totalFees += fee;
+        if (number > 0) {
+            highestNumber = Math.max(highestNumber, number);
+            positions.putIfAbsent(number, position); // Same ID archived twice: the first record wins
+        } else {
+            String rentalId = ids.get(idRef);
+            highestNumber = Math.max(highestNumber, RentalIdAllocator.parseNumber(rentalId)); // "R042" still uses 42
+            otherPositions.putIfAbsent(rentalId, position);
+        }
+    }
+
+    // Chunk holding record i, mapped or allocated on first use
+    private ByteBuffer chunkFor(int i) throws IOException {
+        int index = i / CHUNK_RECORDS;
+        while (chunks.size() <= index) {
+            ByteBuffer chunk;
+            if (channel != null) {
+                long start = HEADER_SIZE + (long) chunks.size() * CHUNK_BYTES;
+                chunk = channel.map(FileChannel.MapMode.READ_WRITE, start, CHUNK_BYTES);
+            } else {
+                chunk = ByteBuffer.allocateDirect(CHUNK_BYTES);
+            }
+            chunks.add(chunk.order(ByteOrder.LITTLE_ENDIAN));
+        }
+        return chunks.get(index);
+    }
+
+    // ============== WRITING ==============
+
+    @Override
+    public synchronized void append(Collection<Rental> rentals) throws IOException {
+        if (rentals.isEmpty()) return;
+
+        // 1) New side-table entries go to disk first, so records never point past them
+        List<List<Object>> newRefs = new ArrayList<>();
+        int carsBefore = cars.size();
+        int customersBefore = customers.size();
+        int idsBefore = ids.size();
+        int[][] refs = new int[rentals.size()][];
+        int r = 0;
+        for (Rental rental : rentals) {
+            long number = RentalIdAllocator.keyOf(rental.getRentalId());
+            int idRef = number > 0 ? -1 : idRef(rental.getRentalId(), newRefs);
+            refs[r++] = new int[] { idRef, carRef(rental.getCar(), newRefs), customerRef(rental.getCustomer(), newRefs) };
+        }
+        if (refsFile != null && !newRefs.isEmpty()) {
+            try {
+                saveRefs(newRefs);
+            } catch (IOException e) {
+                // Not saved, so not usable: drop the new entries again
+                newRefs.forEach(row -> {
+                    carRefs.remove(row);
+                    customerRefs.remove(row);
+                    idRefs.remove(row);
+                });
+                cars.subList(carsBefore, cars.size()).clear();
+                customers.subList(customersBefore, customers.size()).clear();
+                ids.subList(idsBefore, ids.size()).clear();
+                throw e;
+            }
+        }
+
+        // 2) Records after the committed ones
+        int position = count;
+        r = 0;
+        for (Rental rental : rentals) {
+            ByteBuffer chunk = chunkFor(position);
+            int at = (position % CHUNK_RECORDS) * RECORD_SIZE;
+            long number = RentalIdAllocator.keyOf(rental.getRentalId());
+            chunk.putLong(at, number > 0 ? number : -1)
+                    .putInt(at + 8, refs[r][0])
+                    .putInt(at + 12, refs[r][1])
+                    .putInt(at + 16, refs[r][2])
+                    .putInt(at + 20, rental.getDays())
+                    .putLong(at + 24, rental.getStartDate().toEpochDay())
+                    .putDouble(at + 32, rental.getTotalFee());
+            position++;
+            r++;
+        }
+
+        // 3) Commit: records are flushed before the count that makes them visible
+        if (channel != null) {
+            for (int chunk = count / CHUNK_RECORDS; chunk <= (position - 1) / CHUNK_RECORDS; chunk++) {
+                ((MappedByteBuffer) chunks.get(chunk)).force();
+            }
+        }
+        header.putLong(8, position);
+        if (channel != null) {
+            ((MappedByteBuffer) header).force();
+        }
+
+        r = 0;
+        for (Rental rental : rentals) {
+            long number = RentalIdAllocator.keyOf(rental.getRentalId());
+            indexRecord(count, number > 0 ? number : -1, refs[r++][0], rental.getTotalFee());
+        }
+    }
+
+    private int carRef(Car car, List<List<Object>> newRefs) {
+        List<Object> row = carRow(car);
+        return ref(row, carRefs, cars, () -> carOf(row), newRefs);
+    }
+
+    private int customerRef(Customer customer, List<List<Object>> newRefs) {
+        List<Object> row = Arrays.asList("customer", customer.getCustomerId(),
+                Objects.toString(customer.getName(), ""), Objects.toString(customer.getPhone(), ""));
+        return ref(row, customerRefs, customers, () -> customer, newRefs);
+    }
+
+    private int idRef(String rentalId, List<List<Object>> newRefs) {
+        return ref(List.of("id", rentalId), idRefs, ids, () -> rentalId, newRefs);
+    }
+
+    // Existing ref of a side-table row, or a new one (the row is queued for the refs file)
+    private static <T> int ref(List<Object> row, Map<List<Object>, Integer> refs, List<T> values,
+                               Supplier<T> value, List<List<Object>> newRefs) {
+        Integer ref = refs.get(row);
+        if (ref == null) {
+            ref = values.size();
+            values.add(value.get());
+            refs.put(row, ref);
+            newRefs.add(row);
+        }
+        return ref;
+    }
+
+    // car, id, type, brand, price, battery, fuel (values as they read back from the refs file)
+    private static List<Object> carRow(Car car) {
+        if (car instanceof ElectricCar) {
+            return Arrays.asList("car", car.getId(), "Electric", car.getBrand(), car.getPricePerDay(),
+                    ((ElectricCar) car).getBatteryCapacity(), "");
+        }
+        String type = car instanceof GasCar ? "Gas" : "Unknown";
+        String fuel = car instanceof GasCar ? Objects.toString(((GasCar) car).getFuelType(), "") : "";
+        return Arrays.asList("car", car.getId(), type, car.getBrand(), car.getPricePerDay(), "", fuel);
+    }
+
+    // The archive's own copy of a car (other car types come back as gas cars without fuel type)
+    private static Car carOf(List<Object> row) {
+        String id = (String) row.get(1);
+        String brand = (String) row.get(3);
+        double price = (Double) row.get(4);
+        if ("Electric".equals(row.get(2))) {
+            return new ElectricCar(id, brand, price, (Double) row.get(5));
+        }
+        return new GasCar(id, brand, price, (String) row.get(6));
+    }
+
+    // Append the rows at the end of the saved ones (cutting off a row a failed write left)
+    private void saveRefs(List<List<Object>> rows) throws IOException {
+        try (CsvWriter out = CsvWriter.appendAt(refsFile, refsLength)) {
+            for (List<Object> row : rows) {
+                for (Object value : row) {
+                    if (value instanceof Double) {
+                        out.field((double) (Double) value);
+                    } else {
+                        out.field((String) value);
+                    }
+                }
+                out.endRow();
+            }
+            long end = out.position();
+            out.commit();
+            refsLength = end;
+        }
+    }
+
+    // Read through CsvReader: a quoted name or phone may contain line breaks
+    private void loadRefs() throws IOException {
+        if (!Files.exists(refsFile)) return;
+        try (CsvReader csv = new CsvReader(Files.newBufferedReader(refsFile, StandardCharsets.UTF_8))) {
+            while (csv.next()) {
+                loadRef(csv);
+            }
+        }
+        refsLength = Files.size(refsFile);
+    }
+
+    // The same row carRef/customerRef/idRef build for the entry, so it is found again
+    private void loadRef(CsvReader csv) throws IOException {
+        if (csv.fieldEquals(0, "car") && csv.size() >= 7) {
+            boolean electric = csv.fieldEquals(2, "Electric");
+            List<Object> row = Arrays.asList("car", csv.getString(1), csv.getString(2), csv.getString(3),
+                    csv.getDouble(4, 0.0), electric ? (Object) csv.getDouble(5, 0.0) : "", csv.getString(6));
+            carRefs.putIfAbsent(row, cars.size());
+            cars.add(carOf(row));
+        } else if (csv.fieldEquals(0, "customer") && csv.size() >= 4) {
+            List<Object> row = Arrays.asList("customer", csv.getString(1), csv.getString(2), csv.getString(3));
+            customerRefs.putIfAbsent(row, customers.size());
+            customers.add(new Customer(csv.getString(1), csv.getString(2), csv.getString(3)));
+        } else if (csv.fieldEquals(0, "id") && csv.size() >= 2) {
+            String rentalId = csv.getString(1);
+            idRefs.putIfAbsent(List.of("id", rentalId), ids.size());
+            ids.add(rentalId);
+        } else {
+            throw new IOException("Invalid line in " + refsFile + ": " + csv.getString(0));
+        }
+    }
+
+    // ============== READING ==============
+
+    @Override
+    public synchronized boolean contains(String rentalId) {
+        return positionOf(rentalId) >= 0;
+    }
+
+    @Override
+    public synchronized Rental find(String rentalId) throws IOException {
+        long position = positionOf(rentalId);
+        return position < 0 ? null : read((int) position);
+    }
+
+    private long positionOf(String rentalId) {
+        long number = RentalIdAllocator.keyOf(rentalId);
+        if (number > 0) {
+            return positions.get(number);
+        }
+        Integer position = otherPositions.get(rentalId);
+        return position == null ? -1 : position;
+    }
+
+    // Scans read in batches, so appends are not held up for a whole report
+    @Override
+    public void scan(int limit, Consumer<Rental> action) throws IOException {
+        int end = Math.min(limit, size());
+        List<Rental> batch = new ArrayList<>(256);
+        for (int from = 0; from < end; from += 256) {
+            batch.clear();
+            synchronized (this) {
+                for (int i = from; i < Math.min(from + 256, end); i++) {
+                    batch.add(read(i));
+                }
+            }
+            batch.forEach(action);
+        }
+    }
+
+    // Caller holds the lock. Cars and customers are shared by all rentals read back.
+    private Rental read(int position) throws IOException {
+        ByteBuffer chunk = chunkFor(position);
+        int at = (position % CHUNK_RECORDS) * RECORD_SIZE;
+        long number = chunk.getLong(at);
+        String rentalId = number > 0 ? RentalIdAllocator.PREFIX + number : ids.get(chunk.getInt(at + 8));
+        Rental rental = new Rental(rentalId,
+                cars.get(chunk.getInt(at + 12)),
+                customers.get(chunk.getInt(at + 16)),
+                LocalDate.ofEpochDay(chunk.getLong(at + 24)),
+                chunk.getInt(at + 20),
+                chunk.getDouble(at + 32));
+        rental.setReturned(true);
+        return rental;
+    }
+
+    // ============== STATISTICS ==============
+
+    @Override
+    public synchronized int size() {
+        return count;
+    }
+
+    @Override
+    public synchronized double getTotalFees() {
+        return totalFees;
+    }
+
+    @Override
+    public synchronized long getHighestRentalNumber() {
+        return highestNumber;
+    }
+
+    // The mapping stays readable after close; only the file handle is released
+    @Override
+    public synchronized void close() throws IOException {
+        if (channel != null) {
+            channel.close();
+        }
+    }
+}
@@ -0,0 +1,239 @@
+package service;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.Reader;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.CharsetDecoder;
+import java.nio.charset.CoderResult;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.*;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.function.Function;
+
+// Reads a large CSV file on all cores (see CSVExporter). The file is memory-mapped and
+// cut into chunks of about the same size at record boundaries; each chunk is parsed by
+// its own CsvReader on the fork-join pool and the rows come back in file order.
+//
+// Quoted fields may contain line breaks, so a '\n' only ends a record if an even number
+// of quote characters comes before it. Finding the boundaries takes a first parallel pass:
+// each chunk counts its quotes and notes its first '\n' after an even and after an odd
+// count of its own; a running parity over the chunks then says which one is real.
+// This works on the raw bytes because UTF-8 never uses '"' or '\n' inside another character.
+class ParallelCsvReader implements Closeable {
+
+    private static final long MIN_CHUNK_BYTES = 1 << 20;
+
+    private final FileChannel channel;
+    private final ForkJoinPool pool;
+    private final long[] boundaries; // Header = [0, boundaries[0]), then one chunk per pair
+
+    ParallelCsvReader(Path file, long chunkBytes, ForkJoinPool pool) throws IOException {
+        this.channel = FileChannel.open(file, StandardOpenOption.READ);
+        this.pool = pool;
+        try {
+            this.boundaries = split(chunkBytes);
+        } catch (IOException | RuntimeException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    // Chunk size for a file of this size: a few chunks per core, at least 1 MB each
+    static long chunkBytesFor(long fileSize, ForkJoinPool pool) {
+        return Math.max(MIN_CHUNK_BYTES, fileSize / (4L * pool.getParallelism()) + 1);
+    }
+
+    // ============== SPLITTING ==============
+
+    // What the first pass learns about one fixed-size piece of the file
+    private static final class PieceScan {
+        boolean oddQuotes;              // Odd number of quote characters in the piece
+        long afterNewlineEven = -1;     // Just after the first '\n' preceded by an even count (in this piece)
+        long afterNewlineOdd = -1;      // Same after an odd count
+    }
+
+    private long[] split(long chunkBytes) throws IOException {
+        long size = channel.size();
+        int pieces = (int) Math.max(1, (size + chunkBytes - 1) / chunkBytes);
+        List<PieceScan> scans = runAll(pieces, i -> {
+            long start = i * chunkBytes;
+            return scan(map(start, Math.min(size, start + chunkBytes)), start);
+        });
+
+        // End of the header, then the first record end at or after each piece start
+        List<Long> result = new ArrayList<>();
+        boolean[] oddBefore = new boolean[pieces + 1];
+        for (int i = 0; i < pieces; i++) {
+            oddBefore[i + 1] = oddBefore[i] ^ scans.get(i).oddQuotes;
+        }
+        result.add(headerEnd(size));
+        for (int i = 1; i < pieces; i++) {
+            long boundary = recordEnd(scans, oddBefore, i, size);
+            if (boundary > result.get(result.size() - 1)) {
+                result.add(boundary);
+            }
+        }
+        if (result.get(result.size() - 1) < size) {
+            result.add(size);
+        }
+        long[] boundaries = new long[result.size()];
+        for (int i = 0; i < boundaries.length; i++) {
+            boundaries[i] = result.get(i);
+        }
+        return boundaries;
+    }
+
+    // Just after the header line; blank lines before it are skipped, as by CsvReader.next
+    private long headerEnd(long size) throws IOException {
+        ByteBuffer bytes = map(0, Math.min(size, Integer.MAX_VALUE));
+        boolean odd = false;
+        boolean blank = true;
+        for (int i = 0; i < bytes.limit(); i++) {
+            byte b = bytes.get(i);
+            if (b == '\"') {
+                odd = !odd;
+            } else if (b == '\n' && !odd && !blank) {
+                return i + 1;
+            }
+            if ((b & 0xFF) > ' ') blank = false;
+        }
+        return bytes.limit();
+    }
+
+    // Just after the first '\n' outside quotes from piece i on (the file size if none)
+    private static long recordEnd(List<PieceScan> scans, boolean[] oddBefore, int i, long size) {
+        for (int j = i; j < scans.size(); j++) {
+            PieceScan scan = scans.get(j);
+            long end = oddBefore[j] ? scan.afterNewlineOdd : scan.afterNewlineEven;
+            if (end >= 0) return end;
+        }
+        return size;
+    }
+
+    private static PieceScan scan(ByteBuffer bytes, long offset) {
+        PieceScan scan = new PieceScan();
+        boolean odd = false;
+        int limit = bytes.limit();
+        for (int i = 0; i < limit; i++) {
+            byte b = bytes.get(i);
+            if (b == '\"') {
+                odd = !odd;
+            } else if (b == '\n') {
+                if (odd && scan.afterNewlineOdd < 0) {
+                    scan.afterNewlineOdd = offset + i + 1;
+                } else if (!odd && scan.afterNewlineEven < 0) {
+                    scan.afterNewlineEven = offset + i + 1;
+                }
+                if (scan.afterNewlineOdd >= 0 && scan.afterNewlineEven >= 0) {
+                    // Both found: only the quote count is still needed
+                    for (int j = i + 1; j < limit; j++) {
+                        if (bytes.get(j) == '\"') odd = !odd;
+                    }
+                    break;
+                }
+            }
+        }
+        scan.oddQuotes = odd;
+        return scan;
+    }
+
+    // ============== PARSING ==============
+
+    // The header record, or null for an empty file
+    CsvReader header() throws IOException {
+        CsvReader csv = new CsvReader(decode(map(0, boundaries[0])));
+        return csv.next() ? csv : null;
+    }
+
+    // Rows after the header, in file order (rows the parser maps to null are left out).
+    // The parser runs on several threads at once, each with its own CsvReader.
+    <T> List<T> parse(Function<CsvReader, T> rowParser) throws IOException {
+        List<List<T>> chunks = runAll(boundaries.length - 1, i -> {
+            List<T> rows = new ArrayList<>();
+            CsvReader csv = new CsvReader(decode(map(boundaries[i], boundaries[i + 1])));
+            while (csv.next()) {
+                T row = rowParser.apply(csv);
+                if (row != null) rows.add(row);
+            }
+            return rows;
+        });
+        List<T> rows = new ArrayList<>();
+        chunks.forEach(rows::addAll);
+        return rows;
+    }
+
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+
+    // ============== HELPERS ==============
+
+    private interface PieceTask<T> {
+        T run(int index) throws IOException;
+    }
+
+    // Run task(0 .. count - 1) on the pool; results in index order
+    private <T> List<T> runAll(int count, PieceTask<T> task) throws IOException {
+        List<ForkJoinTask<T>> tasks = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            int index = i;
+            tasks.add(pool.submit(() -> {
+                try {
+                    return task.run(index);
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            }));
+        }
+        List<T> results = new ArrayList<>(count);
+        try {
+            for (ForkJoinTask<T> submitted : tasks) {
+                results.add(submitted.join());
+            }
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+        return results;
+    }
+
+    private ByteBuffer map(long start, long end) throws IOException {
+        if (end - start > Integer.MAX_VALUE) {
+            throw new IOException("CSV record too large to load (over 2 GB)");
+        }
+        return channel.map(FileChannel.MapMode.READ_ONLY, start, end - start);
+    }
+
+    // UTF-8 text of one mapped range (malformed bytes are an error, as with Files.newBufferedReader)
+    private static Reader decode(ByteBuffer bytes) {
+        CharsetDecoder decoder = StandardCharsets.UTF_8.newDecoder();
+        return new Reader() {
+            private boolean done;
+
+            @Override
+            public int read(char[] buffer, int offset, int length) throws IOException {
+                if (done) return -1;
+                CharBuffer out = CharBuffer.wrap(buffer, offset, length);
+                CoderResult result = decoder.decode(bytes, out, true);
+                if (result.isError()) result.throwException();
+                if (result.isUnderflow()) {
+                    decoder.flush(out);
+                    done = true;
+                }
+                int read = out.position() - offset;
+                return read == 0 && done ? -1 : read;
+            }
+
+            @Override
+            public void close() {
+            }
+        };
+    }
+}
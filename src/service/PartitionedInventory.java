@@ -0,0 +1,226 @@
+package service;
+
+import model.*;
+import java.time.LocalDate;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.function.Function;
+
+// A fleet split across several CarInventory shards by car ID hash.
+// Point operations (find/rent/return one car) go straight to the owning shard;
+// fleet-wide searches run on every shard in parallel and the results are merged.
+// Shards share one RentalIdAllocator, so rental IDs stay unique across the fleet.
+public class PartitionedInventory {
+
+    // Same order as PriceIndex: price first, car ID as tie-breaker
+    private static final Comparator<Car> BY_PRICE =
+            Comparator.comparingDouble(Car::getPricePerDay).thenComparing(Car::getId);
+
+    private final CarInventory[] shards;
+    private final Map<String, CarInventory> rentalOwners; // Key = rentalId, Value = shard holding it
+    private final RentalIdAllocator rentalIds;
+    private final InventoryEventSink events;
+    private final ForkJoinPool pool;
+
+    // Constructor (searches run on the common fork-join pool)
+    public PartitionedInventory(int partitions, InventoryEventSink events) {
+        this(partitions, events, ForkJoinPool.commonPool());
+    }
+
+    public PartitionedInventory(int partitions, InventoryEventSink events, ForkJoinPool pool) {
+        if (partitions <= 0) {
+            throw new IllegalArgumentException("Partition count must be positive.");
+        }
+        this.events = events;
+        this.pool = pool;
+        this.rentalIds = new RentalIdAllocator();
+        this.rentalOwners = new ConcurrentHashMap<>();
+        this.shards = new CarInventory[partitions];
+        for (int i = 0; i < partitions; i++) {
+            shards[i] = new CarInventory(events, rentalIds);
+        }
+    }
+
+    // ============== ROUTING ==============
+
+    public int getPartitionCount() {
+        return shards.length;
+    }
+
+    // Shard index for a car ID
+    int partitionOf(String carId) {
+        return Math.floorMod(carId.hashCode(), shards.length);
+    }
+
+    private CarInventory shardFor(String carId) {
+        return shards[partitionOf(carId)];
+    }
+
+    // Run a query on every shard in parallel and concatenate the results in shard order
+    private <T> List<T> gather(Function<CarInventory, ? extends Collection<T>> query) {
+        List<ForkJoinTask<? extends Collection<T>>> tasks = new ArrayList<>(shards.length);
+        for (CarInventory shard : shards) {
+            tasks.add(pool.submit(() -> query.apply(shard)));
+        }
+        List<T> results = new ArrayList<>();
+        for (ForkJoinTask<? extends Collection<T>> task : tasks) {
+            results.addAll(task.join());
+        }
+        return results;
+    }
+
+    // ============== CAR MANAGEMENT METHODS ==============
+
+    public void addCar(Car car) {
+        shardFor(car.getId()).addCar(car);
+    }
+
+    public void addCarFromStorage(Car car) {
+        shardFor(car.getId()).addCarFromStorage(car);
+    }
+
+    public void removeCar(String carId) {
+        shardFor(carId).removeCar(carId);
+    }
+
+    public Car findCarById(String carId) {
+        return shardFor(carId).findCarById(carId);
+    }
+
+    // ============== RENTAL MANAGEMENT METHODS ==============
+
+    public Rental rentCar(String carId, Customer customer, int days) {
+        return track(shardFor(carId).rentCar(carId, customer, days));
+    }
+
+    public Rental reserveCar(String carId, Customer customer, LocalDate startDate, int days) {
+        return track(shardFor(carId).reserveCar(carId, customer, startDate, days));
+    }
+
+    public void returnCar(String rentalId) {
+        CarInventory owner = rentalOwners.get(rentalId);
+        if (owner == null) {
+            events.returnRejected(rentalId, BatchResult.Status.RENTAL_NOT_FOUND);
+            return;
+        }
+        owner.returnCar(rentalId);
+    }
+
+    // Add rental silently (Used by loading); it lives with its car
+    public void addRentalFromStorage(Rental rental) {
+        CarInventory owner = shardFor(rental.getCar().getId());
+        owner.addRentalFromStorage(rental);
+        rentalOwners.putIfAbsent(rental.getRentalId(), owner);
+    }
+
+    private Rental track(Rental rental) {
+        if (rental != null) {
+            rentalOwners.putIfAbsent(rental.getRentalId(), shardFor(rental.getCar().getId()));
+        }
+        return rental;
+    }
+
+    public Rental findRentalById(String rentalId) {
+        CarInventory owner = rentalOwners.get(rentalId);
+        return owner == null ? null : owner.findRentalById(rentalId);
+    }
+
+    // ============== SEARCH & FILTER METHODS ==============
+
+    public List<Car> searchByBrand(String brand) {
+        return gather(shard -> shard.searchByBrand(brand));
+    }
+
+    public List<Car> searchByFuelType(String fuelType) {
+        return gather(shard -> shard.searchByFuelType(fuelType));
+    }
+
+    public List<Car> searchByType(Class<? extends Car> type) {
+        return gather(shard -> shard.searchByType(type));
+    }
+
+    // Available cars priced within [minPrice, maxPrice], cheapest first
+    public List<Car> searchByPriceRange(double minPrice, double maxPrice) {
+        List<Car> results = gather(shard -> shard.searchByPriceRange(minPrice, maxPrice));
+        results.sort(BY_PRICE);
+        return results;
+    }
+
+    // Each shard returns its own n cheapest; the overall n cheapest are among them
+    public List<Car> findCheapestAvailable(int n) {
+        List<Car> results = gather(shard -> shard.findCheapestAvailable(n));
+        results.sort(BY_PRICE);
+        return results.size() > n ? new ArrayList<>(results.subList(0, n)) : results;
+    }
+
+    public List<Car> search(CarQuery query) {
+        return gather(shard -> shard.search(query));
+    }
+
+    public List<Car> findCarsFreeBetween(LocalDate from, LocalDate to) {
+        return gather(shard -> shard.findCarsFreeBetween(from, to));
+    }
+
+    public boolean isCarFree(String carId, LocalDate from, LocalDate to) {
+        return shardFor(carId).isCarFree(carId, from, to);
+    }
+
+    // ============== STATISTICS ==============
+
+    public int getAvailableCarCount() {
+        int count = 0;
+        for (CarInventory shard : shards) {
+            count += shard.getAvailableCarCount();
+        }
+        return count;
+    }
+
+    public int getRentedCarCount() {
+        int count = 0;
+        for (CarInventory shard : shards) {
+            count += shard.getRentedCarCount();
+        }
+        return count;
+    }
+
+    public RentalSummary getRentalSummary() {
+        long active = 0;
+        long completed = 0;
+        long completedCents = 0;
+        long pendingCents = 0;
+        for (CarInventory shard : shards) {
+            RentalSummary summary = shard.getRentalSummary();
+            active += summary.getActiveRentals();
+            completed += summary.getCompletedRentals();
+            completedCents += summary.getCompletedRevenueCents();
+            pendingCents += summary.getPendingRevenueCents();
+        }
+        return new RentalSummary(active, completed, completedCents, pendingCents);
+    }
+
+    // ============== GETTERS ==============
+
+    public List<Car> getAllCars() {
+        List<Car> all = new ArrayList<>();
+        for (CarInventory shard : shards) {
+            all.addAll(shard.getAllCars());
+        }
+        return all;
+    }
+
+    // All rentals of every shard, oldest rental ID first
+    public List<Rental> getAllRentals() {
+        List<Rental> all = new ArrayList<>();
+        for (CarInventory shard : shards) {
+            all.addAll(shard.getRentals());
+        }
+        all.sort(Comparator.comparingLong(r -> RentalIdAllocator.parseNumber(r.getRentalId())));
+        return all;
+    }
+
+    public RentalIdAllocator getRentalIdAllocator() {
+        return rentalIds;
+    }
+}
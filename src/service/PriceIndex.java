@@ -0,0 +1,129 @@
+package service;
+
+import model.Car;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+
+// Cars sorted by price per day, for range and cheapest-N queries in O(log n + results).
+// Two skip lists are kept: all cars and available cars only. Each car has exactly
+// one key (price, carId), so cars sharing a price never share a mutable bucket.
+//
+// Like FleetIndex, updates for one car are serialized on that car and re-read its
+// current price and availability.
+class PriceIndex {
+
+    private final NavigableMap<PriceKey, Car> all = new ConcurrentSkipListMap<>();
+    private final NavigableMap<PriceKey, Car> available = new ConcurrentSkipListMap<>();
+    // Where each car is currently stored
+    private final Map<Car, Placement> placements = new ConcurrentHashMap<>();
+
+    // Sort key: price first, car ID as tie-breaker
+    private static final class PriceKey implements Comparable<PriceKey> {
+        final double price;
+        final String carId;
+
+        PriceKey(double price, String carId) {
+            this.price = price;
+            this.carId = carId;
+        }
+
+        @Override
+        public int compareTo(PriceKey other) {
+            int c = Double.compare(price, other.price);
+            return c != 0 ? c : carId.compareTo(other.carId);
+        }
+    }
+
+    private static final class Placement {
+        final PriceKey key;
+        final boolean available;
+
+        Placement(PriceKey key, boolean available) {
+            this.key = key;
+            this.available = available;
+        }
+    }
+
+    void add(Car car) {
+        synchronized (car) {
+            place(car);
+        }
+    }
+
+    void remove(Car car) {
+        synchronized (car) {
+            Placement old = placements.remove(car);
+            if (old != null) {
+                unplace(old);
+            }
+        }
+    }
+
+    // Called after the car's price or availability changed
+    void refresh(Car car) {
+        synchronized (car) {
+            Placement old = placements.get(car);
+            if (old == null) return; // not (or no longer) indexed
+
+            if (Double.compare(old.key.price, car.getPricePerDay()) == 0 && old.available == car.isAvailable()) {
+                return;
+            }
+            unplace(old);
+            place(car);
+        }
+    }
+
+    private void place(Car car) {
+        Placement placement = new Placement(new PriceKey(car.getPricePerDay(), car.getId()), car.isAvailable());
+        all.put(placement.key, car);
+        if (placement.available) {
+            available.put(placement.key, car);
+        }
+        placements.put(car, placement);
+    }
+
+    private void unplace(Placement placement) {
+        all.remove(placement.key);
+        available.remove(placement.key);
+    }
+
+    // ============== QUERIES ==============
+
+    // Cars priced within [min, max], cheapest first (live view)
+    Collection<Car> range(double min, double max, boolean availableOnly) {
+        if (Double.isNaN(min) || Double.isNaN(max) || min > max) {
+            return Collections.emptyList();
+        }
+        NavigableMap<PriceKey, Car> map = availableOnly ? available : all;
+        PriceKey from = new PriceKey(min, "");
+        if (max == Double.POSITIVE_INFINITY) {
+            return Collections.unmodifiableCollection(map.tailMap(from, true).values());
+        }
+        // "" sorts before every car ID, so this bound excludes exactly the prices above max
+        PriceKey to = new PriceKey(Math.nextUp(max), "");
+        return Collections.unmodifiableCollection(map.subMap(from, true, to, false).values());
+    }
+
+    // Up to n cheapest cars
+    List<Car> cheapest(int n, boolean availableOnly) {
+        List<Car> results = new ArrayList<>();
+        if (n <= 0) return results;
+
+        for (Car car : (availableOnly ? available : all).values()) {
+            results.add(car);
+            if (results.size() == n) break;
+        }
+        return results;
+    }
+
+    // Number of cars in the range, but stops counting at limit (cheap planner estimate)
+    int countRange(double min, double max, boolean availableOnly, int limit) {
+        int count = 0;
+        for (Iterator<Car> it = range(min, max, availableOnly).iterator(); it.hasNext() && count < limit; it.next()) {
+            count++;
+        }
+        return count;
+    }
+}
@@ -0,0 +1,40 @@
+package service;
+
+// Price statistics over a set of cars: price per day (CarInventory.getPriceStats)
+// or rental fee (CarInventory.getFeeStats)
+public class PriceStats {
+
+    private final int count;
+    private final double total;
+    private final double min;
+    private final double max;
+
+    // Constructor
+    public PriceStats(int count, double total, double min, double max) {
+        this.count = count;
+        this.total = total;
+        this.min = min;
+        this.max = max;
+    }
+
+    // Getters (min, max and average are 0 when no car matched)
+    public int getCount() {
+        return count;
+    }
+
+    public double getTotal() {
+        return total;
+    }
+
+    public double getMin() {
+        return count == 0 ? 0 : min;
+    }
+
+    public double getMax() {
+        return count == 0 ? 0 : max;
+    }
+
+    public double getAverage() {
+        return count == 0 ? 0 : total / count;
+    }
+}
@@ -0,0 +1,41 @@
+package service;
+
+import model.Rental;
+
+import java.io.IOException;
+import java.util.Collection;
+import java.util.function.Consumer;
+
+// Cold tier of the rental history: returned rentals moved out of the inventory's
+// memory (see CarInventory.archiveReturnedRentals). Archived rentals never change;
+// rentals read back are detached, returned copies.
+//
+// Implementations: CsvRentalArchive (readable CSV file) and
+// OffHeapRentalArchive (fixed-width records outside the Java heap, optionally
+// mapped to a file).
+public interface RentalArchive {
+
+    // Append returned rentals; they are stored when this returns
+    void append(Collection<Rental> rentals) throws IOException;
+
+    boolean contains(String rentalId);
+
+    // Archived rental with this ID, or null
+    Rental find(String rentalId) throws IOException;
+
+    // Stream the first limit archived rentals, oldest first (e.g. as of a snapshot)
+    void scan(int limit, Consumer<Rental> action) throws IOException;
+
+    // Stream every archived rental, oldest first, without loading them all
+    default void scan(Consumer<Rental> action) throws IOException {
+        scan(size(), action);
+    }
+
+    int size();
+
+    // Sum of the archived rentals' fees
+    double getTotalFees();
+
+    // Highest rental number archived (see RentalIdAllocator)
+    long getHighestRentalNumber();
+}
@@ -0,0 +1,102 @@
+package service;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAccumulator;
+
+// Hands out monotonic rental IDs ("R1", "R2", ...) without a shared counter
+// on the hot path: every thread reserves a block of numbers at once and then
+// issues from its own block. IDs are unique across threads; within one thread
+// they are strictly increasing.
+public class RentalIdAllocator {
+
+    public static final String PREFIX = "R";
+    private static final int DEFAULT_BLOCK_SIZE = 64;
+
+    private final int blockSize;
+    private final AtomicLong reserved;        // Highest number reserved by any block
+    private final AtomicLong floor;           // Numbers <= floor must never be issued (already used)
+    private final LongAccumulator issued;     // Highest number actually issued (striped, no contention)
+    private final ThreadLocal<Block> blocks;
+
+    // Per-thread range [next, end] of reserved numbers
+    private static final class Block {
+        long next = 1;
+        long end = 0;
+    }
+
+    // Constructor
+    public RentalIdAllocator() {
+        this(DEFAULT_BLOCK_SIZE);
+    }
+
+    public RentalIdAllocator(int blockSize) {
+        if (blockSize <= 0) {
+            throw new IllegalArgumentException("Block size must be positive.");
+        }
+        this.blockSize = blockSize;
+        this.reserved = new AtomicLong(0);
+        this.floor = new AtomicLong(0);
+        this.issued = new LongAccumulator(Long::max, 0);
+        this.blocks = ThreadLocal.withInitial(Block::new);
+    }
+
+    // Next rental ID, e.g. "R42"
+    public String nextId() {
+        return PREFIX + nextNumber();
+    }
+
+    public long nextNumber() {
+        Block block = blocks.get();
+        // Refill when the block is used up, or when a load moved the floor past it
+        if (block.next > block.end || block.next <= floor.get()) {
+            long end = reserved.addAndGet(blockSize);
+            block.next = end - blockSize + 1;
+            block.end = end;
+        }
+        long number = block.next++;
+        issued.accumulate(number);
+        return number;
+    }
+
+    // Mark every number up to (and including) mark as used.
+    // Called when rentals or a saved high-water mark are loaded from storage.
+    public void advanceTo(long mark) {
+        reserved.accumulateAndGet(mark, Math::max);
+        floor.accumulateAndGet(mark, Math::max);
+    }
+
+    // Mark the number of an existing rental ID as used (IDs not in "R<number>" form are ignored)
+    public void observe(String rentalId) {
+        long number = parseNumber(rentalId);
+        if (number > 0) {
+            advanceTo(number);
+        }
+    }
+
+    // Highest ID number that has been issued or observed; persist this to avoid reissuing IDs
+    public long getHighWaterMark() {
+        return Math.max(issued.get(), floor.get());
+    }
+
+    // "R42" -> 42, anything else -> -1
+    static long parseNumber(String rentalId) {
+        if (rentalId == null || !rentalId.startsWith(PREFIX)) return -1;
+        int len = rentalId.length();
+        if (len == PREFIX.length() || len - PREFIX.length() > 18) return -1;
+
+        long number = 0;
+        for (int i = PREFIX.length(); i < len; i++) {
+            char c = rentalId.charAt(i);
+            if (c < '0' || c > '9') return -1;
+            number = number * 10 + (c - '0');
+        }
+        return number;
+    }
+
+    // Key for stores that keep the number instead of the ID: 42 for "R42", -1 for IDs that
+    // PREFIX + number would not give back (e.g. "R042" or "X1"), which go in a side table
+    static long keyOf(String rentalId) {
+        long number = parseNumber(rentalId);
+        return number > 0 && rentalId.length() == PREFIX.length() + Long.toString(number).length() ? number : -1;
+    }
+}
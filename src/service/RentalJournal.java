@@ -0,0 +1,606 @@
+package service;
+
+import model.*;
+
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.DateTimeException;
+import java.time.LocalDate;
+import java.util.*;
+import java.util.function.LongConsumer;
+import java.util.zip.CRC32;
+
+// Append-only log of the inventory's state changes since the last full save, so that
+// saving one rental costs one small record instead of rewriting the CSV files.
+// Installed as the inventory's event sink in front of the real one (e.g. the console):
+// car added / removed, price changed, rented or reserved, returned or cancelled (batches per rental).
+// Rejected operations change nothing and are only passed on.
+//
+// Startup: load the snapshot (or CSV files), replay() the journal on top, then open().
+// A full save (see InventoryStore) notes position() at its snapshot point and afterwards
+// drops the records before it with dropBefore(); records appended meanwhile are kept.
+//
+// Layout (big-endian):
+//   header   magic "CRJL", format version
+//   records  body length, CRC-32 of the body, body (type tag + fields)
+// Each record is handed to the OS with one write call before the operation returns, so it
+// survives the program crashing, but NOT a power loss or OS crash: records only reach the
+// disk itself on sync(), reset() or close(). A record cut short fails its length or
+// checksum and ends the replay.
+//
+// With group commit the records are written by one background thread instead (through an
+// AsyncEventSink ring): the operation only publishes the event, and sync() waits for the
+// records so far to be written. Records still in the ring are lost if the program crashes
+// before that, so group commit trades the last moments before a crash for operations that
+// neither wait for the disk nor queue for the journal's lock.
+public class RentalJournal implements InventoryEventSink, Closeable {
+
+    private static final int MAGIC = 0x43524A4C; // "CRJL"
+    private static final int FORMAT_VERSION = 1;
+    private static final int HEADER_SIZE = 8;
+    private static final int RECORD_HEADER_SIZE = 8;
+
+    // Record types
+    private static final byte CAR_ADDED = 1;
+    private static final byte CAR_REMOVED = 2;
+    private static final byte PRICE_CHANGED = 3;
+    private static final byte RENTED = 4;
+    private static final byte RETURNED = 5;
+    private static final byte CANCELLED = 6; // A reservation returned before it started
+
+    // Car type tags (as in BinarySnapshot)
+    private static final byte ELECTRIC = 0;
+    private static final byte GAS = 1;
+
+    private final Path file;
+    private final InventoryEventSink delegate;
+    private final ByteArrayOutputStream bytes = new ByteArrayOutputStream(256);
+    private final DataOutputStream body = new DataOutputStream(bytes);
+    private final CRC32 crc = new CRC32();
+    private final ByteBuffer recordHeader = ByteBuffer.allocate(RECORD_HEADER_SIZE);
+    private FileChannel channel;     // null until open(): events are only passed on
+    private long intactLength = -1;  // End of the last whole record, once known
+    private int recordCount;         // Whole records in the file (since the last reset)
+    private IOException failure;     // First write that failed (since the last reset), for sync()
+    private final AsyncEventSink writer;     // Group commit: writes on its thread (null = caller's)
+    private final InventoryEventSink records; // Where events go to be recorded
+
+    // Constructor (events are recorded on the caller's thread, then passed on to delegate)
+    public RentalJournal(Path file, InventoryEventSink delegate) {
+        this(file, delegate, false);
+    }
+
+    // Constructor; with groupCommit the records are written in the background (see above),
+    // while delegate still gets the events on the caller's thread
+    public RentalJournal(Path file, InventoryEventSink delegate, boolean groupCommit) {
+        this.file = file;
+        this.delegate = delegate;
+        this.writer = groupCommit ? new AsyncEventSink(new Recorder()) : null;
+        this.records = groupCommit ? writer : new Recorder();
+    }
+
+    // ============== REPLAY ==============
+
+    // Apply the recorded changes to an inventory loaded from the last save; returns the
+    // number of records applied. Changes the save already contains (a crash between the
+    // save and reset()) are skipped. Call before open(), so nothing is recorded twice.
+    public int replay(CarInventory inventory) throws IOException {
+        return readRecords(inventory);
+    }
+
+    // Walk the whole records and apply them (inventory null = only find where they end)
+    private int readRecords(CarInventory inventory) throws IOException {
+        if (!Files.exists(file)) {
+            intactLength = 0;
+            recordCount = 0;
+            return 0;
+        }
+        byte[] content = Files.readAllBytes(file);
+        ByteBuffer in = ByteBuffer.wrap(content);
+        if (content.length < HEADER_SIZE) {
+            intactLength = 0; // Crashed while creating it
+            recordCount = 0;
+            return 0;
+        }
+        if (in.getInt() != MAGIC) {
+            throw new IOException(file + " is not an inventory journal");
+        }
+        int version = in.getInt();
+        if (version != FORMAT_VERSION) {
+            throw new IOException(file + " has unsupported journal version " + version);
+        }
+
+        Map<String, Boolean> earlyReturns = new HashMap<>(); // Returns recorded before their rental (see apply): ID -> cancelled
+        int applied = 0;
+        long end = HEADER_SIZE;
+        while (in.remaining() >= RECORD_HEADER_SIZE) {
+            int start = in.position();
+            int length = in.getInt();
+            int checksum = in.getInt();
+            if (length <= 0 || length > in.remaining()) break;
+            crc.reset();
+            crc.update(content, in.position(), length);
+            if ((int) crc.getValue() != checksum) break;
+
+            ByteBuffer record = ByteBuffer.wrap(content, in.position(), length).slice();
+            in.position(in.position() + length);
+            if (inventory != null) {
+                try {
+                    apply(inventory, record, earlyReturns);
+                } catch (BufferUnderflowException | DateTimeException e) {
+                    throw new IOException(file + " is damaged at offset " + start, e);
+                }
+            }
+            applied++;
+            end = in.position();
+        }
+        intactLength = end;
+        recordCount = applied;
+        return applied;
+    }
+
+    private void apply(CarInventory inventory, ByteBuffer in, Map<String, Boolean> earlyReturns) throws IOException {
+        byte type = in.get();
+        switch (type) {
+            case CAR_ADDED: {
+                Car car = readCar(in);
+                Car existing = inventory.findCarById(car.getId());
+                if (existing != null && sameModel(existing, car)) {
+                    existing.setPricePerDay(car.getPricePerDay()); // Keep the object its rentals point to
+                } else {
+                    inventory.addCarFromStorage(car);
+                }
+                break;
+            }
+            case CAR_REMOVED:
+                inventory.removeCarFromStorage(readString(in));
+                break;
+            case PRICE_CHANGED: {
+                Car car = inventory.findCarById(readString(in));
+                double price = in.getDouble();
+                if (car != null) car.setPricePerDay(price);
+                break;
+            }
+            case RENTED: {
+                String rentalId = readString(in);
+                Car car = inventory.findCarById(readString(in));
+                Customer customer = new Customer(readString(in), readString(in), readString(in));
+                LocalDate startDate = LocalDate.ofEpochDay(in.getLong());
+                int days = in.getInt();
+                double fee = in.getDouble();
+                if (inventory.findRentalById(rentalId) != null) break; // In the save already
+                if (car == null) {
+                    // Car no longer in the inventory: only the ID stays used (as in BinarySnapshot)
+                    inventory.getRentalIdAllocator().observe(rentalId);
+                    break;
+                }
+                Rental rental = new Rental(rentalId, car, customer, startDate, days, fee);
+                Boolean cancelled = earlyReturns.remove(rentalId);
+                rental.setReturned(cancelled != null);
+                rental.setCancelled(cancelled == Boolean.TRUE);
+                inventory.addRentalFromStorage(rental);
+                break;
+            }
+            case RETURNED:
+            case CANCELLED: {
+                String rentalId = readString(in);
+                boolean cancelled = type == CANCELLED;
+                // A rental can be returned by another thread before its own record is written
+                if (!inventory.returnRentalFromStorage(rentalId, cancelled) && inventory.findRentalById(rentalId) == null) {
+                    earlyReturns.put(rentalId, cancelled);
+                }
+                break;
+            }
+            default:
+                throw new IOException(file + " has unknown record type " + type);
+        }
+    }
+
+    // Same car apart from the price (which changes in place)
+    private static boolean sameModel(Car a, Car b) {
+        if (a instanceof ElectricCar && b instanceof ElectricCar) {
+            return a.getBrand().equals(b.getBrand())
+                    && ((ElectricCar) a).getBatteryCapacity() == ((ElectricCar) b).getBatteryCapacity();
+        }
+        if (a instanceof GasCar && b instanceof GasCar) {
+            return a.getBrand().equals(b.getBrand())
+                    && Objects.equals(((GasCar) a).getFuelType(), ((GasCar) b).getFuelType());
+        }
+        return false;
+    }
+
+    // ============== APPENDING ==============
+
+    // Start recording: cuts off a torn last record and creates the file if needed
+    public synchronized void open() throws IOException {
+        if (channel != null) return;
+        if (intactLength < 0) {
+            readRecords(null);
+        }
+        FileChannel opened = FileChannel.open(file, StandardOpenOption.CREATE,
+                StandardOpenOption.READ, StandardOpenOption.WRITE); // (read by dropBefore)
+        try {
+            if (intactLength < HEADER_SIZE) {
+                opened.truncate(0);
+                writeFully(opened, ByteBuffer.allocate(HEADER_SIZE).putInt(MAGIC).putInt(FORMAT_VERSION).flip());
+                opened.force(true);
+                intactLength = HEADER_SIZE;
+                recordCount = 0;
+            } else {
+                opened.truncate(intactLength);
+            }
+            opened.position(intactLength);
+        } catch (IOException | RuntimeException e) {
+            opened.close();
+            throw e;
+        }
+        channel = opened;
+    }
+
+    // Drop every record: call after a full save has written all of them to the other files
+    // (deletes the file when the journal is not open, e.g. because it could not be read)
+    public void reset() throws IOException {
+        drain();
+        resetNow();
+    }
+
+    private synchronized void resetNow() throws IOException {
+        failure = null;
+        if (channel == null) {
+            Files.deleteIfExists(file);
+            intactLength = -1;
+            recordCount = 0;
+            return;
+        }
+        channel.truncate(HEADER_SIZE);
+        channel.position(HEADER_SIZE);
+        channel.force(true);
+        intactLength = HEADER_SIZE;
+        recordCount = 0;
+    }
+
+    // End of the records written so far (-1 when not open), for dropBefore()
+    public synchronized long position() {
+        return channel == null ? -1 : intactLength;
+    }
+
+    // Pass position() to action once the events published so far are recorded
+    // (with group commit later, on the writer's thread: drain() waits for it)
+    public void atPosition(LongConsumer action) {
+        if (writer == null) {
+            action.accept(position());
+        } else {
+            writer.afterPublished(() -> action.accept(position()));
+        }
+    }
+
+    // Drop the records before position (taken with position()) and keep the ones after it:
+    // they are rewritten into a new file that then replaces this one in one step, so a crash
+    // leaves either file whole. Without an open journal this is reset().
+    public void dropBefore(long position) throws IOException {
+        drain();
+        dropBeforeNow(position);
+    }
+
+    private synchronized void dropBeforeNow(long position) throws IOException {
+        if (channel == null || position < 0) {
+            resetNow();
+            return;
+        }
+        if (position <= HEADER_SIZE) return;
+
+        ByteBuffer tail = ByteBuffer.allocate((int) (intactLength - position));
+        while (tail.hasRemaining() && channel.read(tail, position + tail.position()) > 0) {
+            // read the rest
+        }
+        tail.flip();
+        int tailRecords = countRecords(tail.duplicate());
+
+        Path fresh = file.resolveSibling(file.getFileName() + ".tmp");
+        try (FileChannel out = FileChannel.open(fresh, StandardOpenOption.CREATE,
+                StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            writeFully(out, ByteBuffer.allocate(HEADER_SIZE).putInt(MAGIC).putInt(FORMAT_VERSION).flip());
+            writeFully(out, tail);
+            out.force(true);
+        }
+        channel.close(); // (Windows cannot replace a file that is still open)
+        channel = null;
+        Files.move(fresh, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+
+        channel = FileChannel.open(file, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        intactLength = channel.size();
+        channel.position(intactLength);
+        recordCount = tailRecords;
+    }
+
+    // Whole records in bytes that hold nothing else
+    private static int countRecords(ByteBuffer records) {
+        int count = 0;
+        while (records.remaining() >= RECORD_HEADER_SIZE) {
+            int length = records.getInt(records.position());
+            records.position(records.position() + RECORD_HEADER_SIZE + length);
+            count++;
+        }
+        return count;
+    }
+
+    // Flush the records written so far to the disk itself (see the class comment)
+    // (throws if a record could not be written since the last reset)
+    public void sync() throws IOException {
+        drain();
+        synchronized (this) {
+            if (failure != null) {
+                throw new IOException("Could not write " + file, failure);
+            }
+            if (channel != null) {
+                channel.force(false);
+            }
+        }
+    }
+
+    public synchronized boolean isOpen() {
+        return channel != null;
+    }
+
+    // Records a replay would apply (since the last reset)
+    public int getRecordCount() {
+        drain();
+        synchronized (this) {
+            return recordCount;
+        }
+    }
+
+    // Flush the records to disk and stop recording
+    @Override
+    public void close() throws IOException {
+        if (writer != null) {
+            writer.close(); // Later events are recorded on the caller's thread
+        }
+        closeNow();
+    }
+
+    private synchronized void closeNow() throws IOException {
+        if (channel == null) return;
+        try {
+            channel.force(true);
+        } finally {
+            channel.close();
+            channel = null;
+        }
+    }
+
+    // Wait for the group commit writer to record the events published so far
+    // (not while holding the lock: the writer needs it)
+    private void drain() {
+        if (writer != null) {
+            writer.flush();
+        }
+    }
+
+    // Append the record built in body; a failed write surfaces as an UncheckedIOException
+    // from the inventory call (the change is in memory, but would not survive a restart),
+    // and with group commit from the next sync()
+    private void append() {
+        try {
+            body.flush();
+            byte[] content = bytes.toByteArray();
+            crc.reset();
+            crc.update(content);
+            recordHeader.clear();
+            recordHeader.putInt(content.length).putInt((int) crc.getValue()).flip();
+            ByteBuffer[] parts = {recordHeader, ByteBuffer.wrap(content)};
+            while (parts[1].hasRemaining()) {
+                channel.write(parts);
+            }
+            intactLength = channel.position();
+            recordCount++;
+        } catch (IOException e) {
+            if (failure == null) failure = e;
+            throw new UncheckedIOException(e);
+        } finally {
+            bytes.reset();
+        }
+    }
+
+    private static void writeFully(FileChannel channel, ByteBuffer buffer) throws IOException {
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+    }
+
+    // ============== EVENTS ==============
+
+    @Override
+    public void carAdded(Car car) {
+        records.carAdded(car);
+        delegate.carAdded(car);
+    }
+
+    @Override
+    public void carRemoved(Car car) {
+        records.carRemoved(car);
+        delegate.carRemoved(car);
+    }
+
+    @Override
+    public void priceChanged(Car car) {
+        records.priceChanged(car);
+        delegate.priceChanged(car);
+    }
+
+    @Override
+    public void carNotFound(String carId) {
+        delegate.carNotFound(carId);
+    }
+
+    @Override
+    public void carRented(Rental rental) {
+        records.carRented(rental);
+        delegate.carRented(rental);
+    }
+
+    @Override
+    public void carReserved(Rental rental) {
+        records.carReserved(rental);
+        delegate.carReserved(rental);
+    }
+
+    @Override
+    public void rentRejected(String carId, BatchResult.Status reason) {
+        delegate.rentRejected(carId, reason);
+    }
+
+    @Override
+    public void carReturned(Rental rental) {
+        records.carReturned(rental);
+        delegate.carReturned(rental);
+    }
+
+    @Override
+    public void returnRejected(String rentalId, BatchResult.Status reason) {
+        delegate.returnRejected(rentalId, reason);
+    }
+
+    @Override
+    public void batchRented(BatchResult result) {
+        records.batchRented(result);
+        delegate.batchRented(result);
+    }
+
+    @Override
+    public void batchReturned(BatchResult result) {
+        records.batchReturned(result);
+        delegate.batchReturned(result);
+    }
+
+    // Turns events into records (on the caller's thread, or on the group commit writer's)
+    private class Recorder implements InventoryEventSink {
+
+        @Override
+        public void carAdded(Car car) {
+            if (car instanceof ElectricCar || car instanceof GasCar) { // Others are not saved at all (as in cars.csv)
+                recordIfOpen(CAR_ADDED, car, null);
+            }
+        }
+
+        @Override public void carRemoved(Car car) { recordIfOpen(CAR_REMOVED, car, null); }
+        @Override public void priceChanged(Car car) { recordIfOpen(PRICE_CHANGED, car, null); }
+        @Override public void carNotFound(String carId) { }
+        @Override public void carRented(Rental rental) { recordIfOpen(RENTED, null, rental); }
+        @Override public void carReserved(Rental rental) { recordIfOpen(RENTED, null, rental); }
+        @Override public void rentRejected(String carId, BatchResult.Status reason) { }
+        @Override public void carReturned(Rental rental) { recordIfOpen(rental.isCancelled() ? CANCELLED : RETURNED, null, rental); }
+        @Override public void returnRejected(String rentalId, BatchResult.Status reason) { }
+        @Override public void batchRented(BatchResult result) { recordBatch(RENTED, result); }
+        @Override public void batchReturned(BatchResult result) { recordBatch(RETURNED, result); }
+    }
+
+    private synchronized void recordIfOpen(byte type, Car car, Rental rental) {
+        if (channel != null) {
+            record(type, car, rental);
+        }
+    }
+
+    // A rolled-back batch changed nothing
+    private synchronized void recordBatch(byte type, BatchResult result) {
+        if (channel == null || !result.isSuccess()) return;
+        for (BatchResult.Item item : result.getItems()) {
+            Rental rental = item.getRental();
+            record(type == RETURNED && rental.isCancelled() ? CANCELLED : type, null, rental);
+        }
+    }
+
+    // ============== ENCODING ==============
+
+    // Caller holds the lock
+    private void record(byte type, Car car, Rental rental) {
+        try {
+            body.writeByte(type);
+            switch (type) {
+                case CAR_ADDED:
+                    writeCar(car);
+                    break;
+                case CAR_REMOVED:
+                    writeString(car.getId());
+                    break;
+                case PRICE_CHANGED:
+                    writeString(car.getId());
+                    body.writeDouble(car.getPricePerDay());
+                    break;
+                case RENTED: {
+                    Customer customer = rental.getCustomer();
+                    writeString(rental.getRentalId());
+                    writeString(rental.getCar().getId());
+                    writeString(customer.getCustomerId());
+                    writeString(customer.getName());
+                    writeString(customer.getPhone());
+                    body.writeLong(rental.getStartDate().toEpochDay());
+                    body.writeInt(rental.getDays());
+                    body.writeDouble(rental.getTotalFee());
+                    break;
+                }
+                default: // RETURNED, CANCELLED
+                    writeString(rental.getRentalId());
+                    break;
+            }
+        } catch (IOException e) {
+            bytes.reset();
+            throw new UncheckedIOException(e); // Cannot happen: writes go to memory
+        }
+        append();
+    }
+
+    // Availability is not recorded: it follows from the rentals, as on load
+    private void writeCar(Car car) throws IOException {
+        body.writeByte(car instanceof ElectricCar ? ELECTRIC : GAS);
+        writeString(car.getId());
+        writeString(car.getBrand());
+        body.writeDouble(car.getPricePerDay());
+        if (car instanceof ElectricCar) {
+            body.writeDouble(((ElectricCar) car).getBatteryCapacity());
+        } else {
+            writeString(((GasCar) car).getFuelType());
+        }
+    }
+
+    private Car readCar(ByteBuffer in) throws IOException {
+        byte type = in.get();
+        String id = readString(in);
+        String brand = readString(in);
+        double price = in.getDouble();
+        if (type == ELECTRIC) return new ElectricCar(id, brand, price, in.getDouble());
+        if (type == GAS) return new GasCar(id, brand, price, readString(in));
+        throw new IOException(file + " has unknown car type " + type);
+    }
+
+    // UTF-8 with its length in front; -1 for null
+    private void writeString(String value) throws IOException {
+        if (value == null) {
+            body.writeInt(-1);
+            return;
+        }
+        byte[] utf8 = value.getBytes(StandardCharsets.UTF_8);
+        body.writeInt(utf8.length);
+        body.write(utf8);
+    }
+
+    private static String readString(ByteBuffer in) {
+        int length = in.getInt();
+        if (length < 0) return null;
+        if (length > in.remaining()) throw new BufferUnderflowException();
+        String value = new String(in.array(), in.arrayOffset() + in.position(), length, StandardCharsets.UTF_8);
+        in.position(in.position() + length);
+        return value;
+    }
+}
@@ -0,0 +1,134 @@
+package service;
+
+import model.Rental;
+
+import java.util.*;
+
+// Append-only rental history. Rentals live in fixed-size chunks that never move,
+// so readers need no lock and no copy: a reader takes the current size and can
+// then safely read every position below it, even while new rentals are appended.
+//
+// Every rental also gets a sequence number when it first enters the history. Positions
+// shift when archiving copies the log without the archived rentals, but sequence numbers
+// travel with the rentals, so they serve as stable paging cursors (see getRentalPage).
+class RentalLog {
+
+    private static final int CHUNK_BITS = 10;
+    private static final int CHUNK_SIZE = 1 << CHUNK_BITS;
+    private static final int CHUNK_MASK = CHUNK_SIZE - 1;
+
+    private volatile Rental[][] chunks = new Rental[16][];
+    private volatile long[][] sequences = new long[16][]; // Same layout as chunks
+    private volatile int size;
+    private long nextSequence; // Guarded by this
+
+    // Appends are serialized; publishing the new size makes them visible to readers
+    synchronized void add(Rental rental) {
+        store(size, rental, nextSequence++);
+        size = size + 1;
+    }
+
+    synchronized void addAll(List<Rental> batch) {
+        int n = size;
+        for (Rental rental : batch) {
+            store(n++, rental, nextSequence++);
+        }
+        size = n;
+    }
+
+    // Append a rental from another log, keeping its sequence number (for archiving).
+    // Rentals must be copied in their original order.
+    synchronized void copy(RentalLog from, int index) {
+        long sequence = from.sequence(index);
+        store(size, from.get(index), sequence);
+        nextSequence = Math.max(nextSequence, sequence + 1);
+        size = size + 1;
+    }
+
+    // New rentals continue after every sequence number the other log handed out
+    synchronized void continueAfter(RentalLog other) {
+        long next;
+        synchronized (other) {
+            next = other.nextSequence;
+        }
+        nextSequence = Math.max(nextSequence, next);
+    }
+
+    private void store(int index, Rental rental, long sequence) {
+        int chunk = index >>> CHUNK_BITS;
+        Rental[][] current = chunks;
+        long[][] currentSequences = sequences;
+        if (chunk == current.length) {
+            current = Arrays.copyOf(current, current.length * 2);
+            currentSequences = Arrays.copyOf(currentSequences, currentSequences.length * 2);
+            chunks = current;
+            sequences = currentSequences;
+        }
+        if (current[chunk] == null) {
+            current[chunk] = new Rental[CHUNK_SIZE];
+            currentSequences[chunk] = new long[CHUNK_SIZE];
+        }
+        current[chunk][index & CHUNK_MASK] = rental;
+        currentSequences[chunk][index & CHUNK_MASK] = sequence;
+    }
+
+    int size() {
+        return size;
+    }
+
+    // Caller must have read size() first and pass an index below it
+    Rental get(int index) {
+        return chunks[index >>> CHUNK_BITS][index & CHUNK_MASK];
+    }
+
+    // Sequence number of the rental at index (same rule as get)
+    long sequence(int index) {
+        return sequences[index >>> CHUNK_BITS][index & CHUNK_MASK];
+    }
+
+    // Index of the first rental with a sequence number >= sequence, among the first size
+    int indexOf(long sequence, int size) {
+        int low = 0;
+        int high = size;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (sequence(mid) < sequence) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    // Read-only view of positions [from, to); both must be <= size()
+    List<Rental> view(int from, int to) {
+        return new View(from, to);
+    }
+
+    // Read-only view of everything appended so far
+    List<Rental> view() {
+        return new View(0, size);
+    }
+
+    private class View extends AbstractList<Rental> implements RandomAccess {
+        private final int from;
+        private final int to;
+
+        View(int from, int to) {
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        public Rental get(int index) {
+            Objects.checkIndex(index, to - from);
+            return RentalLog.this.get(from + index);
+        }
+
+        @Override
+        public int size() {
+            return to - from;
+        }
+    }
+}
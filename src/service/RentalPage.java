@@ -0,0 +1,35 @@
+package service;
+
+import model.Rental;
+
+import java.util.List;
+
+// One page of the rental history (see CarInventory.getRentalPage).
+// Pages are addressed by cursor, not by position: a cursor stays attached to the same
+// rental even when archiving removes older rentals from memory, so pages neither skip
+// nor repeat. Pass getNextCursor() to fetch the following page.
+public class RentalPage {
+
+    private final List<Rental> rentals;
+    private final long nextCursor;
+    private final boolean hasMore;
+
+    RentalPage(List<Rental> rentals, long nextCursor, boolean hasMore) {
+        this.rentals = rentals;
+        this.nextCursor = nextCursor;
+        this.hasMore = hasMore;
+    }
+
+    // Read-only view, not a copy
+    public List<Rental> getRentals() {
+        return rentals;
+    }
+
+    public long getNextCursor() {
+        return nextCursor;
+    }
+
+    public boolean hasMore() {
+        return hasMore;
+    }
+}
@@ -0,0 +1,31 @@
+package service;
+
+import model.Customer;
+
+// One item of a batch rental (see CarInventory.rentCars)
+public class RentalRequest {
+
+    private final String carId;
+    private final Customer customer;
+    private final int days;
+
+    // Constructor
+    public RentalRequest(String carId, Customer customer, int days) {
+        this.carId = carId;
+        this.customer = customer;
+        this.days = days;
+    }
+
+    // Getters
+    public String getCarId() {
+        return carId;
+    }
+
+    public Customer getCustomer() {
+        return customer;
+    }
+
+    public int getDays() {
+        return days;
+    }
+}
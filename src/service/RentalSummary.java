@@ -0,0 +1,57 @@
+package service;
+
+// Rental statistics at one point in time (see CarInventory.getRentalSummary).
+// Revenue is kept in whole cents, so sums are exact; the getters convert for display.
+public class RentalSummary {
+
+    private final long activeRentals;
+    private final long completedRentals;
+    private final long completedRevenueCents;
+    private final long pendingRevenueCents;
+
+    // Constructor (revenue in cents)
+    public RentalSummary(long activeRentals, long completedRentals, long completedRevenueCents, long pendingRevenueCents) {
+        this.activeRentals = activeRentals;
+        this.completedRentals = completedRentals;
+        this.completedRevenueCents = completedRevenueCents;
+        this.pendingRevenueCents = pendingRevenueCents;
+    }
+
+    // A fee in whole cents
+    public static long toCents(double amount) {
+        return Math.round(amount * 100);
+    }
+
+    // Getters
+    public long getTotalRentals() {
+        return activeRentals + completedRentals;
+    }
+
+    public long getActiveRentals() {
+        return activeRentals;
+    }
+
+    public long getCompletedRentals() {
+        return completedRentals;
+    }
+
+    public long getCompletedRevenueCents() {
+        return completedRevenueCents;
+    }
+
+    public long getPendingRevenueCents() {
+        return pendingRevenueCents;
+    }
+
+    public double getCompletedRevenue() {
+        return completedRevenueCents / 100.0;
+    }
+
+    public double getPendingRevenue() {
+        return pendingRevenueCents / 100.0;
+    }
+
+    public double getTotalPotentialRevenue() {
+        return (completedRevenueCents + pendingRevenueCents) / 100.0;
+    }
+}
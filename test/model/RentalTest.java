@@ -2,6 +2,7 @@ package model;
 
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.BeforeEach;
+import java.time.LocalDate;
 import static org.junit.jupiter.api.Assertions.*;
 
 class RentalTest {
@@ -66,6 +67,17 @@ class RentalTest {
         assertFalse(rental.isReturned());
     }
     
+    @Test
+    void testIsReservation_OnlyBeforeStartDate() {
+        LocalDate today = LocalDate.now();
+        Rental future = new Rental("R002", bmw, customer, today.plusDays(1), 2);
+        
+        assertFalse(rental.isReservation());
+        assertFalse(new Rental("R003", bmw, customer, today.minusDays(1), 2).isReservation());
+        assertTrue(future.isReservation());
+        assertTrue(new Rental(future, bmw).isReservation()); // copies derive it the same way
+    }
+    
     @Test
     void testGetTotalFee_ElectricCar() {
         double fee = rental.getTotalFee();
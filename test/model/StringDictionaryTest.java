@@ -0,0 +1,47 @@
+package model;
+
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+class StringDictionaryTest {
+    
+    @Test
+    void testInternSharesInstances() {
+        StringDictionary dictionary = new StringDictionary();
+        String first = dictionary.intern(new String("Hybrid"));
+        String second = dictionary.intern(new String("Hybrid"));
+        
+        assertSame(first, second);
+        assertNull(dictionary.intern(null));
+    }
+    
+    @Test
+    void testCodesIgnoreCase() {
+        StringDictionary dictionary = new StringDictionary();
+        int code = dictionary.code("Diesel");
+        
+        assertEquals(code, dictionary.code("DIESEL"));
+        assertEquals(code, dictionary.find("diesel"));
+        assertNotEquals(code, dictionary.code("Gasoline"));
+        assertEquals("DIESEL", dictionary.intern("DIESEL")); // each spelling is kept as written
+    }
+    
+    @Test
+    void testFindDoesNotAdd() {
+        StringDictionary dictionary = new StringDictionary();
+        assertEquals(StringDictionary.NO_CODE, dictionary.find("Electric"));
+        assertEquals(StringDictionary.NO_CODE, dictionary.find(null));
+        assertEquals(0, dictionary.size());
+    }
+    
+    @Test
+    void testCarsShareDictionaryStrings() {
+        GasCar a = new GasCar("G1", new String("BMW X5"), 150.0, new String("Diesel"));
+        GasCar b = new GasCar("G2", new String("BMW X5"), 140.0, new String("diesel"));
+        
+        assertSame(a.getBrand(), b.getBrand());
+        assertEquals(a.getFuelCode(), b.getFuelCode());
+        assertEquals("diesel", b.getFuelType());
+        assertEquals(b.calculateRentalFee(2), 140.0 * 2 * 1.15, 0.001); // surcharge ignores case
+    }
+}
@@ -0,0 +1,135 @@
+package service;
+
+import model.*;
+import org.junit.jupiter.api.Test;
+import java.util.*;
+import java.util.concurrent.*;
+import static org.junit.jupiter.api.Assertions.*;
+
+class AsyncEventSinkTest {
+    
+    // Records events as short strings on the consumer thread
+    private static class RecordingSink implements InventoryEventSink {
+        final List<String> events = Collections.synchronizedList(new ArrayList<>());
+        final Set<Thread> threads = ConcurrentHashMap.newKeySet();
+        
+        private void record(String event) {
+            threads.add(Thread.currentThread());
+            events.add(event);
+        }
+        
+        @Override public void carAdded(Car car) { record("added " + car.getId()); }
+        @Override public void carRemoved(Car car) { record("removed " + car.getId()); }
+        @Override public void priceChanged(Car car) { record("price " + car.getId()); }
+        @Override public void carNotFound(String carId) { record("missing " + carId); }
+        @Override public void carRented(Rental rental) { record("rented " + rental.getRentalId()); }
+        @Override public void carReserved(Rental rental) { record("reserved " + rental.getRentalId()); }
+        @Override public void rentRejected(String carId, BatchResult.Status reason) { record("rent-rejected " + carId + " " + reason); }
+        @Override public void carReturned(Rental rental) { record("returned " + rental.getRentalId()); }
+        @Override public void returnRejected(String rentalId, BatchResult.Status reason) { record("return-rejected " + rentalId + " " + reason); }
+        @Override public void batchRented(BatchResult result) { record("batch-rented " + result.isSuccess()); }
+        @Override public void batchReturned(BatchResult result) { record("batch-returned " + result.isSuccess()); }
+    }
+    
+    @Test
+    void testEventsDeliveredInOrderOnBackgroundThread() {
+        RecordingSink recorder = new RecordingSink();
+        try (AsyncEventSink sink = new AsyncEventSink(recorder, 4)) {
+            CarInventory inventory = new CarInventory(sink);
+            inventory.addCar(new ElectricCar("E001", "Tesla Model 3", 100.0, 75.0));
+            inventory.findCarById("E001").setPricePerDay(110.0);
+            inventory.rentCar("E001", new Customer("C1", "Alice", "111"), 2);
+            inventory.rentCar("E001", new Customer("C2", "Bob", "222"), 2);
+            inventory.returnCar("R1");
+            inventory.returnCar("R9");
+            inventory.removeCar("E001");
+            inventory.removeCar("E001");
+            sink.flush();
+            
+            assertEquals(List.of(
+                    "added E001",
+                    "price E001",
+                    "rented R1",
+                    "rent-rejected E001 CAR_NOT_AVAILABLE",
+                    "returned R1",
+                    "return-rejected R9 RENTAL_NOT_FOUND",
+                    "removed E001",
+                    "missing E001"), recorder.events);
+            assertFalse(recorder.threads.contains(Thread.currentThread()));
+        }
+    }
+    
+    @Test
+    void testManyPublishersSmallRing() throws Exception {
+        RecordingSink recorder = new RecordingSink();
+        int threads = 8;
+        int perThread = 2000;
+        
+        AsyncEventSink sink = new AsyncEventSink(recorder, 16);
+        ExecutorService pool = Executors.newFixedThreadPool(threads);
+        List<Future<?>> futures = new ArrayList<>();
+        for (int t = 0; t < threads; t++) {
+            final int threadNo = t;
+            futures.add(pool.submit(() -> {
+                for (int i = 0; i < perThread; i++) {
+                    sink.carNotFound(threadNo + "-" + i);
+                }
+            }));
+        }
+        for (Future<?> f : futures) {
+            f.get(30, TimeUnit.SECONDS);
+        }
+        pool.shutdown();
+        sink.close();
+        
+        assertEquals(threads * perThread, recorder.events.size());
+        assertEquals(threads * perThread, new HashSet<>(recorder.events).size());
+    }
+    
+    @Test
+    void testPublishAfterCloseIsDeliveredOnCallerThread() throws Exception {
+        RecordingSink recorder = new RecordingSink();
+        AsyncEventSink sink = new AsyncEventSink(recorder, 2);
+        sink.carNotFound("before");
+        sink.close();
+        
+        // More events than the ring holds: must neither block nor get lost
+        ExecutorService pool = Executors.newSingleThreadExecutor();
+        Future<Thread> publisher = pool.submit(() -> {
+            for (int i = 0; i < 10; i++) {
+                sink.carNotFound("after-" + i);
+            }
+            sink.flush();
+            return Thread.currentThread();
+        });
+        Thread caller = publisher.get(10, TimeUnit.SECONDS);
+        pool.shutdown();
+        
+        assertEquals(11, recorder.events.size());
+        assertEquals("missing before", recorder.events.get(0));
+        assertEquals("missing after-9", recorder.events.get(10));
+        assertTrue(recorder.threads.contains(caller));
+    }
+    
+    @Test
+    void testAfterPublishedRunsBehindEarlierEvents() {
+        RecordingSink recorder = new RecordingSink();
+        try (AsyncEventSink sink = new AsyncEventSink(recorder, 4)) {
+            for (int i = 0; i < 10; i++) {
+                sink.carNotFound("X" + i);
+            }
+            List<Integer> seen = new ArrayList<>();
+            sink.afterPublished(() -> seen.add(recorder.events.size()));
+            sink.carNotFound("X10");
+            sink.flush();
+
+            assertEquals(List.of(10), seen);
+            assertEquals(11, recorder.events.size());
+        }
+    }
+    
+    @Test
+    void testInvalidCapacity() {
+        assertThrows(IllegalArgumentException.class, () -> new AsyncEventSink(InventoryEventSink.NONE, 0));
+    }
+}
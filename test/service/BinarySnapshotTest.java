@@ -0,0 +1,124 @@
+package service;
+
+import model.*;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.io.TempDir;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.*;
+import static org.junit.jupiter.api.Assertions.*;
+
+class BinarySnapshotTest {
+    
+    @TempDir
+    Path tempDir;
+    
+    private Path file;
+    private CarInventory inventory;
+    private Customer customer;
+    
+    @BeforeEach
+    void setUp() {
+        file = tempDir.resolve("inventory.snapshot");
+        inventory = new CarInventory(InventoryEventSink.NONE);
+        inventory.addCar(new ElectricCar("E001", "Tesla Model 3", 100.0, 75.0));
+        inventory.addCar(new GasCar("G001", "BMW X5", 150.0, "Diesel"));
+        inventory.addCar(new GasCar("G002", "Toyota Camry", 80.0, "Gasoline"));
+        customer = new Customer("CUST001", "José \"Jo\" Núñez", "555-1234");
+    }
+    
+    private CarInventory reload() throws Exception {
+        CarInventory loaded = new CarInventory(InventoryEventSink.NONE);
+        assertTrue(BinarySnapshot.load(loaded, file));
+        return loaded;
+    }
+    
+    @Test
+    void testCancelledReservationRoundTrip() throws Exception {
+        Rental reservation = inventory.reserveCar("G002", customer, LocalDate.now().plusDays(3), 2);
+        inventory.returnCar(reservation.getRentalId());
+        BinarySnapshot.save(inventory.snapshot(), file);
+        
+        CarInventory loaded = reload();
+        
+        assertTrue(loaded.findRentalById(reservation.getRentalId()).isCancelled());
+        assertEquals(0, loaded.getRentalSummary().getCompletedRentals());
+        assertEquals(0.0, loaded.getRentalSummary().getTotalPotentialRevenue(), 0.001);
+    }
+    
+    @Test
+    void testRoundTripKeepsFullState() throws Exception {
+        Rental returned = inventory.rentCar("E001", customer, 3);
+        inventory.returnCar(returned.getRentalId());
+        Rental active = inventory.rentCar("G001", customer, 2);
+        LocalDate future = LocalDate.now().plusDays(10);
+        inventory.reserveCar("G002", new Customer("CUST002", "Ann", "555-0000"), future, 4);
+        inventory.findCarById("G002").setPricePerDay(85.5); // fees stay as charged
+        BinarySnapshot.save(inventory.snapshot(), file);
+        
+        CarInventory loaded = reload();
+        
+        assertEquals(3, loaded.getAllCars().size());
+        assertEquals(85.5, loaded.findCarById("G002").getPricePerDay());
+        assertEquals("Diesel", ((GasCar) loaded.findCarById("G001")).getFuelType());
+        assertEquals(75.0, ((ElectricCar) loaded.findCarById("E001")).getBatteryCapacity());
+        assertTrue(loaded.findCarById("E001").isAvailable());
+        assertFalse(loaded.findCarById("G001").isAvailable());
+        
+        assertEquals(3, loaded.getRentalCount());
+        assertTrue(loaded.findRentalById(returned.getRentalId()).isReturned());
+        assertEquals(active.getTotalFee(), loaded.findRentalById(active.getRentalId()).getTotalFee());
+        Rental reservation = loaded.findRentalById("R3");
+        assertTrue(reservation.isReservation());
+        assertEquals(future, reservation.getStartDate());
+        assertEquals(80.0 * 4, reservation.getTotalFee());
+        assertFalse(loaded.isCarFree("G002", future, future.plusDays(1)));
+        
+        assertEquals(customer.getName(), loaded.findRentalById("R1").getCustomer().getName());
+        assertSame(loaded.findRentalById("R1").getCustomer(), loaded.findRentalById("R2").getCustomer());
+        assertEquals(inventory.getRentalSummary().getTotalPotentialRevenue(),
+                loaded.getRentalSummary().getTotalPotentialRevenue(), 0.001);
+        assertEquals("R4", loaded.rentCar("E001", customer, 1).getRentalId());
+    }
+    
+    @Test
+    void testUnusualRentalIdsAndRemovedCars() throws Exception {
+        Rental legacy = new Rental("R007", inventory.findCarById("E001"), customer, 1);
+        legacy.setReturned(true);
+        inventory.addRentalFromStorage(legacy);
+        Rental gone = inventory.rentCar("G002", customer, 1);
+        inventory.returnCar(gone.getRentalId());
+        inventory.removeCar("G002");
+        BinarySnapshot.save(inventory.snapshot(), file);
+        
+        CarInventory loaded = reload();
+        
+        assertNotNull(loaded.findRentalById("R007"));
+        assertNull(loaded.findRentalById(gone.getRentalId())); // like cars.csv: rentals need their car
+        assertEquals("R9", loaded.rentCar("E001", customer, 1).getRentalId());
+    }
+    
+    @Test
+    void testDamagedFilesAreRejectedWithoutLoadingAnything() throws Exception {
+        assertFalse(BinarySnapshot.load(new CarInventory(), file));
+        
+        inventory.rentCar("E001", customer, 3);
+        BinarySnapshot.save(inventory.snapshot(), file);
+        byte[] good = Files.readAllBytes(file);
+        
+        byte[] flipped = good.clone();
+        flipped[good.length - 3] ^= 0x10;
+        byte[] truncated = Arrays.copyOf(good, good.length - 5);
+        byte[] newer = good.clone();
+        newer[7] = 99; // format version
+        for (byte[] bad : List.of(flipped, truncated, newer, "cars.csv".getBytes())) {
+            Files.write(file, bad);
+            CarInventory target = new CarInventory();
+            assertThrows(IOException.class, () -> BinarySnapshot.load(target, file));
+            assertEquals(0, target.getAllCars().size());
+        }
+    }
+}
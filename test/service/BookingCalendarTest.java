@@ -0,0 +1,75 @@
+package service;
+
+import model.*;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.BeforeEach;
+import java.time.LocalDate;
+import java.util.Set;
+import static org.junit.jupiter.api.Assertions.*;
+
+class BookingCalendarTest {
+    
+    private static final LocalDate DAY = LocalDate.of(2030, 6, 1);
+    
+    private BookingCalendar calendar;
+    private Car car;
+    private Customer customer;
+    
+    @BeforeEach
+    void setUp() {
+        calendar = new BookingCalendar();
+        car = new GasCar("G001", "BMW X5", 150.0, "Diesel");
+        customer = new Customer("C1", "Alice", "111");
+    }
+    
+    private Rental booking(int startOffset, int days) {
+        return new Rental("R" + startOffset, car, customer, DAY.plusDays(startOffset), days);
+    }
+    
+    @Test
+    void testBookAndOverlap() {
+        assertTrue(calendar.book(booking(0, 3)));   // days 0..2
+        assertTrue(calendar.book(booking(5, 5)));   // days 5..9
+        
+        assertFalse(calendar.book(booking(2, 1)));  // inside first
+        assertFalse(calendar.book(booking(-1, 2))); // ends inside first
+        assertFalse(calendar.book(booking(4, 2)));  // starts in the gap, runs into second
+        assertFalse(calendar.book(booking(1, 20))); // covers both
+        assertTrue(calendar.book(booking(3, 2)));   // exactly fills the gap
+        assertEquals(3, calendar.bookings("G001").size());
+    }
+    
+    @Test
+    void testIsFreeUsesExclusiveEnd() {
+        calendar.book(booking(5, 5));
+        
+        assertTrue(calendar.isFree("G001", DAY, DAY.plusDays(5)));
+        assertTrue(calendar.isFree("G001", DAY.plusDays(10), DAY.plusDays(12)));
+        assertFalse(calendar.isFree("G001", DAY.plusDays(9), DAY.plusDays(10)));
+        assertTrue(calendar.isFree("OTHER", DAY, DAY.plusDays(100)));
+    }
+    
+    @Test
+    void testRelease() {
+        Rental first = booking(0, 3);
+        calendar.book(first);
+        
+        calendar.release(booking(0, 3)); // a different rental on the same dates is ignored
+        assertFalse(calendar.isFree("G001", DAY, DAY.plusDays(1)));
+        
+        calendar.release(first);
+        assertTrue(calendar.isFree("G001", DAY, DAY.plusDays(3)));
+        assertEquals(0, calendar.bookedCarCount()); // busyCars no longer visits the car
+    }
+    
+    @Test
+    void testBusyCarsOnlyListsOverlappingBookings() {
+        Car other = new GasCar("G002", "Toyota Camry", 80.0, "Gasoline");
+        calendar.book(booking(0, 3));
+        calendar.book(new Rental("R9", other, customer, DAY.plusDays(5), 2));
+        
+        assertEquals(Set.of("G001"), calendar.busyCars(DAY.plusDays(2), DAY.plusDays(4)));
+        assertEquals(Set.of("G001", "G002"), calendar.busyCars(DAY, DAY.plusDays(10)));
+        assertTrue(calendar.busyCars(DAY.plusDays(3), DAY.plusDays(5)).isEmpty()); // exclusive ends
+    }
+}
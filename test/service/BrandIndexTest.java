@@ -0,0 +1,86 @@
+package service;
+
+import model.*;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.BeforeEach;
+import java.util.*;
+import static org.junit.jupiter.api.Assertions.*;
+
+class BrandIndexTest {
+    
+    private BrandIndex index;
+    private Car model3;
+    private Car modelY;
+    private Car bmw;
+    
+    @BeforeEach
+    void setUp() {
+        index = new BrandIndex();
+        model3 = new ElectricCar("E001", "Tesla Model 3", 100.0, 75.0);
+        modelY = new ElectricCar("E002", "Tesla Model Y", 120.0, 80.0);
+        bmw = new GasCar("G001", "BMW X5", 150.0, "Diesel");
+        index.add(model3);
+        index.add(modelY);
+        index.add(bmw);
+    }
+    
+    private Set<String> ids(List<Car> cars) {
+        Set<String> ids = new HashSet<>();
+        for (Car car : cars) ids.add(car.getId());
+        return ids;
+    }
+    
+    @Test
+    void testLongQuery() {
+        assertEquals(Set.of("E001", "E002"), ids(index.search("tesla model")));
+        assertEquals(Set.of("E001"), ids(index.search("MODEL 3")));
+    }
+    
+    @Test
+    void testShortQueries() {
+        assertEquals(Set.of("G001"), ids(index.search("x5")));
+        assertEquals(Set.of("E001", "E002", "G001"), ids(index.search("m")));
+        assertEquals(Set.of("E001", "E002", "G001"), ids(index.search("")));
+    }
+    
+    @Test
+    void testTrigramsPresentButNotContiguous() {
+        // "tesla" and "model" trigrams all exist, but not as one substring
+        assertTrue(index.search("model tesla").isEmpty());
+        assertTrue(index.search("honda").isEmpty());
+    }
+    
+    @Test
+    void testRemove() {
+        index.remove(model3);
+        assertEquals(Set.of("E002"), ids(index.search("tesla")));
+        assertTrue(index.search("model 3").isEmpty());
+        
+        index.remove(modelY);
+        assertTrue(index.search("tesla").isEmpty());
+        assertEquals(Set.of("G001"), ids(index.search("m")));
+    }
+    
+    @Test
+    void testMatchesLinearScan() {
+        String[] brands = {"Tesla Model 3", "Toyota Camry", "Toyota Corolla", "BMW X5", "Kia EV6", "Audi e-tron"};
+        BrandIndex big = new BrandIndex();
+        List<Car> fleet = new ArrayList<>();
+        Random random = new Random(42);
+        for (int i = 0; i < 500; i++) {
+            Car car = new GasCar("G" + i, brands[random.nextInt(brands.length)], 50.0, "Gasoline");
+            fleet.add(car);
+            big.add(car);
+        }
+        
+        for (String query : new String[] {"to", "toyota c", "ron", "a", "e-t", "camry", "zzz", "OTA"}) {
+            Set<String> expected = new HashSet<>();
+            for (Car car : fleet) {
+                if (car.getBrand().toLowerCase().contains(query.toLowerCase())) {
+                    expected.add(car.getId());
+                }
+            }
+            assertEquals(expected, ids(big.search(query)), "query: " + query);
+        }
+    }
+}
@@ -0,0 +1,200 @@
+package service;
+
+import model.*;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.io.TempDir;
+import java.io.ByteArrayOutputStream;
+import java.io.PrintStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import static org.junit.jupiter.api.Assertions.*;
+
+class CSVExporterTest {
+    
+    @TempDir
+    Path tempDir;
+    
+    private String carsFile;
+    private String rentalsFile;
+    private CarInventory inventory;
+    private Customer customer;
+    
+    private final PrintStream originalOut = System.out;
+    
+    @BeforeEach
+    void setUp() {
+        carsFile = tempDir.resolve("cars.csv").toString();
+        rentalsFile = tempDir.resolve("rentals.csv").toString();
+        
+        inventory = new CarInventory();
+        inventory.addCarFromStorage(new ElectricCar("E001", "Tesla Model 3", 100.0, 75.0));
+        inventory.addCarFromStorage(new GasCar("G001", "BMW X5", 150.0, "Diesel"));
+        customer = new Customer("CUST001", "John Smith", "555-1234");
+        
+        System.setOut(new PrintStream(new ByteArrayOutputStream()));
+    }
+    
+    @AfterEach
+    void restoreStreams() {
+        System.setOut(originalOut);
+    }
+    
+    private CarInventory reload() throws Exception {
+        CarInventory loaded = new CarInventory();
+        CSVExporter.loadCarsIntoInventory(loaded, carsFile);
+        CSVExporter.loadRentalsIntoInventory(loaded, rentalsFile);
+        return loaded;
+    }
+    
+    @Test
+    void testSaveAndLoadRoundTrip() throws Exception {
+        inventory.rentCar("E001", customer, 5);
+        CSVExporter.saveCars(inventory, carsFile);
+        CSVExporter.saveRentals(inventory, rentalsFile);
+        
+        CarInventory loaded = reload();
+        
+        assertEquals(2, loaded.getAllCars().size());
+        assertFalse(loaded.findCarById("E001").isAvailable());
+        assertTrue(loaded.findCarById("G001").isAvailable());
+        
+        Rental rental = loaded.findRentalById("R1");
+        assertNotNull(rental);
+        assertEquals("John Smith", rental.getCustomer().getName());
+        assertEquals(450.0, rental.getTotalFee(), 0.01);
+    }
+    
+    @Test
+    void testReservationDatesRoundTrip() throws Exception {
+        LocalDate start = LocalDate.now().plusDays(14);
+        inventory.reserveCar("G001", customer, start, 4);
+        inventory.rentCar("E001", customer, 2);
+        CSVExporter.saveCars(inventory, carsFile);
+        CSVExporter.saveRentals(inventory, rentalsFile);
+        
+        CarInventory loaded = reload();
+        
+        Rental reservation = loaded.findRentalById("R1");
+        assertEquals(start, reservation.getStartDate());
+        assertEquals(start.plusDays(4), reservation.getEndDate());
+        assertTrue(reservation.isReservation());
+        assertTrue(loaded.findCarById("G001").isAvailable());
+        assertFalse(loaded.isCarFree("G001", start, start.plusDays(1)));
+        assertFalse(loaded.findCarById("E001").isAvailable());
+    }
+    
+    @Test
+    void testCancelledReservationRoundTrip() throws Exception {
+        Rental reservation = inventory.reserveCar("G001", customer, LocalDate.now().plusDays(3), 2);
+        inventory.returnCar(reservation.getRentalId());
+        CSVExporter.saveCars(inventory, carsFile);
+        CSVExporter.saveRentals(inventory, rentalsFile);
+        
+        CarInventory loaded = reload();
+        
+        assertTrue(loaded.findRentalById("R1").isCancelled());
+        assertTrue(loaded.findRentalById("R1").isReturned());
+        assertEquals(0, loaded.getRentalSummary().getCompletedRentals());
+        assertEquals(0.0, loaded.getRentalSummary().getTotalPotentialRevenue(), 0.001);
+    }
+    
+    @Test
+    void testRentalIdsNotReissuedAfterRestart() throws Exception {
+        inventory.rentCar("E001", customer, 5);
+        inventory.rentCar("G001", customer, 2);
+        CSVExporter.saveCars(inventory, carsFile);
+        CSVExporter.saveRentals(inventory, rentalsFile);
+        
+        CarInventory loaded = reload();
+        loaded.returnCar("R1");
+        
+        Rental next = loaded.rentCar("E001", customer, 1);
+        assertEquals("R3", next.getRentalId());
+    }
+    
+    @Test
+    void testSkippedRentalIdSurvivesSaveAndLoad() throws Exception {
+        Files.writeString(Path.of(rentalsFile),
+                "RentalID,CarID,CustomerID,CustomerName,CustomerPhone,Days,Returned,TotalFee\n"
+                        + "R1,E001,C1,Alice,111,2,Yes,180.0\n"
+                        + "R2,X999,C2,Bob,222,3,No,300.0\n");
+        CSVExporter.saveCars(inventory, carsFile);
+        
+        // R2 is skipped (unknown car) and dropped by the next save
+        CarInventory first = reload();
+        assertNull(first.findRentalById("R2"));
+        CSVExporter.saveRentals(first, rentalsFile);
+        
+        CarInventory second = reload();
+        Rental next = second.rentCar("G001", customer, 1);
+        assertEquals("R3", next.getRentalId());
+    }
+    
+    @Test
+    void testQuotedLineBreaksAndRepeatCustomersRoundTrip() throws Exception {
+        Customer multiline = new Customer("CUST002", "Ann \"A\", Lee\r\nJr.", "555-9999");
+        inventory.rentCar("E001", multiline, 2);
+        inventory.returnCar("R1");
+        inventory.rentCar("E001", multiline, 3);
+        CSVExporter.save(inventory, carsFile, rentalsFile);
+        
+        CarInventory loaded = reload();
+        
+        assertEquals(2, loaded.getRentalCount());
+        Customer first = loaded.findRentalById("R1").getCustomer();
+        assertEquals(multiline.getName(), first.getName());
+        assertSame(first, loaded.findRentalById("R2").getCustomer());
+    }
+    
+    @Test
+    void testFeesKeptAfterPriceChange() throws Exception {
+        Rental active = inventory.rentCar("E001", customer, 5);
+        Rental returned = inventory.rentCar("G001", customer, 2);
+        inventory.returnCar(returned.getRentalId());
+        inventory.findCarById("E001").setPricePerDay(250.0);
+        inventory.findCarById("G001").setPricePerDay(10.0);
+        CSVExporter.save(inventory, carsFile, rentalsFile);
+        
+        CarInventory loaded = reload();
+        
+        assertEquals(active.getTotalFee(), loaded.findRentalById(active.getRentalId()).getTotalFee());
+        assertEquals(returned.getTotalFee(), loaded.findRentalById(returned.getRentalId()).getTotalFee());
+        RentalSummary summary = loaded.getRentalSummary();
+        assertEquals(inventory.getRentalSummary().getCompletedRevenue(), summary.getCompletedRevenue());
+        assertEquals(inventory.getRentalSummary().getPendingRevenue(), summary.getPendingRevenue());
+    }
+    
+    @Test
+    void testMalformedValuesFallBackToDefaults() throws Exception {
+        Files.writeString(Path.of(carsFile),
+                "CarID,Brand,Type,PricePerDay,Available,BatteryCapacity,FuelType\r\n"
+                + "E001,Tesla,Electric,abc,maybe,7.5e1,\r\n"
+                + "\r\n"
+                + "G001,BMW,Gas,1e999999,NO,,Diesel\r\n");
+        Files.writeString(Path.of(rentalsFile),
+                "RentalID,CarID,CustomerID,CustomerName,CustomerPhone,Days,Returned,TotalFee,StartDate,EndDate\n"
+                + "R1,E001,C1,Ann,555,99999999999,Yes,0,2024-02-30,\n"
+                + "R2,E001,C1,Ann,555, 3 ,no,n/a,2024-02-29,\n");
+        
+        CarInventory loaded = reload();
+        
+        Car electric = loaded.findCarById("E001");
+        assertEquals(0.0, electric.getPricePerDay());
+        assertEquals(75.0, ((ElectricCar) electric).getBatteryCapacity());
+        assertEquals(Double.POSITIVE_INFINITY, loaded.findCarById("G001").getPricePerDay());
+        assertFalse(loaded.findCarById("G001").isAvailable());
+        
+        Rental invalid = loaded.findRentalById("R1");
+        assertEquals(1, invalid.getDays());
+        assertEquals(LocalDate.now(), invalid.getStartDate());
+        Rental valid = loaded.findRentalById("R2");
+        assertEquals(3, valid.getDays());
+        assertEquals(0.0, invalid.getTotalFee());
+        assertEquals(electric.calculateRentalFee(3), valid.getTotalFee()); // fee unreadable: recomputed
+        assertEquals(LocalDate.of(2024, 2, 29), valid.getStartDate());
+        assertFalse(valid.isReturned());
+    }
+}
@@ -0,0 +1,146 @@
+package service;
+
+import model.*;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.AfterEach;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import static org.junit.jupiter.api.Assertions.*;
+
+class CarInventoryConcurrencyTest {
+    
+    private static final int THREADS = 64;
+    private static final int CARS = 16;
+    private static final int ATTEMPTS_PER_THREAD = 500;
+    
+    private CarInventory inventory;
+    private final PrintStream originalOut = System.out;
+    
+    @BeforeEach
+    void setUp() {
+        inventory = new CarInventory();
+        for (int i = 0; i < CARS; i++) {
+            inventory.addCarFromStorage(new GasCar("G" + i, "Car " + i, 50.0 + i, "Gasoline"));
+        }
+        // Discard console output from the worker threads
+        System.setOut(new PrintStream(OutputStream.nullOutputStream()));
+    }
+    
+    @AfterEach
+    void restoreStreams() {
+        System.setOut(originalOut);
+    }
+    
+    @Test
+    void testNoCarIsEverRentedTwice() throws Exception {
+        AtomicIntegerArray activePerCar = new AtomicIntegerArray(CARS);
+        AtomicInteger doubleBookings = new AtomicInteger();
+        AtomicInteger successfulRentals = new AtomicInteger();
+        Set<String> rentalIds = ConcurrentHashMap.newKeySet();
+        
+        ExecutorService pool = Executors.newFixedThreadPool(THREADS);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<?>> futures = new ArrayList<>();
+        
+        for (int t = 0; t < THREADS; t++) {
+            final int threadNo = t;
+            futures.add(pool.submit(() -> {
+                Customer customer = new Customer("C" + threadNo, "Clerk " + threadNo, "000");
+                Random random = new Random(threadNo);
+                start.await();
+                
+                for (int i = 0; i < ATTEMPTS_PER_THREAD; i++) {
+                    int carNo = random.nextInt(CARS);
+                    Rental rental = inventory.rentCar("G" + carNo, customer, 1);
+                    if (rental == null) continue;
+                    
+                    successfulRentals.incrementAndGet();
+                    assertTrue(rentalIds.add(rental.getRentalId()), "Duplicate rental ID");
+                    if (activePerCar.incrementAndGet(carNo) != 1) {
+                        doubleBookings.incrementAndGet();
+                    }
+                    
+                    // Release our claim before the car becomes available again
+                    activePerCar.decrementAndGet(carNo);
+                    inventory.returnCar(rental.getRentalId());
+                }
+                return null;
+            }));
+        }
+        
+        start.countDown();
+        for (Future<?> f : futures) {
+            f.get(60, TimeUnit.SECONDS);
+        }
+        pool.shutdown();
+        
+        assertEquals(0, doubleBookings.get());
+        assertTrue(successfulRentals.get() > 0);
+        assertEquals(successfulRentals.get(), inventory.getAllRentals().size());
+        for (int i = 0; i < CARS; i++) {
+            assertTrue(inventory.findCarById("G" + i).isAvailable());
+        }
+    }
+    
+    // Remembers, per thread, the outcome of that thread's last return
+    private static class ReturnOutcomes implements InventoryEventSink {
+        final ThreadLocal<BatchResult.Status> last = new ThreadLocal<>();
+        
+        @Override public void carAdded(Car car) { }
+        @Override public void carRemoved(Car car) { }
+        @Override public void priceChanged(Car car) { }
+        @Override public void carNotFound(String carId) { }
+        @Override public void carRented(Rental rental) { }
+        @Override public void carReserved(Rental rental) { }
+        @Override public void rentRejected(String carId, BatchResult.Status reason) { }
+        @Override public void carReturned(Rental rental) { last.set(BatchResult.Status.RETURNED); }
+        @Override public void returnRejected(String rentalId, BatchResult.Status reason) { last.set(reason); }
+        @Override public void batchRented(BatchResult result) { }
+        @Override public void batchReturned(BatchResult result) { }
+    }
+    
+    @Test
+    void testConcurrentReturnOnlySucceedsOnce() throws Exception {
+        ReturnOutcomes outcomes = new ReturnOutcomes();
+        inventory = new CarInventory(outcomes);
+        inventory.addCarFromStorage(new GasCar("G0", "Car 0", 50.0, "Gasoline"));
+        Rental rental = inventory.rentCar("G0", new Customer("C1", "Alice", "111"), 3);
+        
+        ExecutorService pool = Executors.newFixedThreadPool(THREADS);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<BatchResult.Status>> futures = new ArrayList<>();
+        for (int t = 0; t < THREADS; t++) {
+            futures.add(pool.submit(() -> {
+                start.await();
+                outcomes.last.remove();
+                inventory.returnCar(rental.getRentalId());
+                return outcomes.last.get();
+            }));
+        }
+        start.countDown();
+        int successes = 0;
+        for (Future<BatchResult.Status> f : futures) {
+            BatchResult.Status status = f.get(60, TimeUnit.SECONDS);
+            if (status == BatchResult.Status.RETURNED) {
+                successes++;
+            } else {
+                assertEquals(BatchResult.Status.ALREADY_RETURNED, status);
+            }
+        }
+        pool.shutdown();
+        
+        assertEquals(1, successes);
+        assertEquals(1, inventory.getRentalSummary().getCompletedRentals());
+        assertTrue(rental.isReturned());
+        assertTrue(inventory.findCarById("G0").isAvailable());
+        
+        // A second clerk can now rent it exactly once
+        assertNotNull(inventory.rentCar("G0", new Customer("C2", "Bob", "222"), 1));
+        assertNull(inventory.rentCar("G0", new Customer("C3", "Carol", "333"), 1));
+    }
+}
@@ -6,6 +6,8 @@ import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.AfterEach;
 import java.io.ByteArrayOutputStream;
 import java.io.PrintStream;
+import java.time.LocalDate;
+import java.util.ArrayList;
 import java.util.List;
 import static org.junit.jupiter.api.Assertions.*;
 
@@ -110,6 +112,19 @@ class CarInventoryTest {
         assertTrue(output.contains("BMW X5"));
     }
     
+    @Test
+    void testSilentEventSink() {
+        CarInventory silent = new CarInventory(InventoryEventSink.NONE);
+        silent.addCar(tesla);
+        silent.rentCar("E001", customer, 5);
+        silent.rentCar("X999", customer, 5);
+        silent.returnCar("R1");
+        silent.removeCar("E001");
+        
+        assertEquals("", outputStream.toString());
+        assertTrue(tesla.isAvailable());
+    }
+    
     // ============== RENTAL MANAGEMENT TESTS ==============
     
     @Test
@@ -178,6 +193,17 @@ class CarInventoryTest {
         assertEquals("R3", r3.getRentalId());
     }
     
+    @Test
+    void testRentCar_IdDoesNotCollideWithStoredRental() {
+        inventory.addCarFromStorage(bmw);
+        inventory.addRentalFromStorage(new Rental("R1", bmw, customer, 2));
+        inventory.addCar(tesla);
+        
+        Rental rental = inventory.rentCar("E001", customer, 5);
+        assertEquals("R2", rental.getRentalId());
+        assertEquals(rental, inventory.findRentalById("R2"));
+    }
+    
     @Test
     void testReturnCar_Success() {
         inventory.addCar(tesla);
@@ -227,6 +253,29 @@ class CarInventoryTest {
         assertEquals("R2", rental2.getRentalId());
     }
     
+    @Test
+    void testFindRentalById() {
+        inventory.addCar(tesla);
+        Rental rental = inventory.rentCar("E001", customer, 5);
+        
+        assertEquals(rental, inventory.findRentalById("R1"));
+        assertNull(inventory.findRentalById("R999"));
+    }
+    
+    @Test
+    void testReturnCar_RentalFromStorage() {
+        inventory.addCarFromStorage(bmw);
+        Rental stored = new Rental("R7", bmw, customer, 2);
+        inventory.addRentalFromStorage(stored);
+        assertFalse(bmw.isAvailable());
+        
+        inventory.returnCar("R7");
+        
+        assertTrue(stored.isReturned());
+        assertTrue(bmw.isAvailable());
+        assertEquals(stored, inventory.findRentalById("R7"));
+    }
+    
     // ============== SEARCH & FILTER TESTS ==============
     
     @Test
@@ -273,6 +322,18 @@ class CarInventoryTest {
         assertEquals("E002", available.get(0).getId());
     }
     
+    @Test
+    void testSearchByBrand_RemovedAndReplacedCars() {
+        inventory.addCar(tesla);
+        inventory.addCar(bmw);
+        inventory.removeCar("E001");
+        inventory.addCar(new GasCar("G001", "Toyota Corolla", 70.0, "Gasoline"));
+        
+        assertTrue(inventory.searchByBrand("Tesla").isEmpty());
+        assertTrue(inventory.searchByBrand("BMW").isEmpty());
+        assertEquals(1, inventory.searchByBrand("corolla").size());
+    }
+    
     @Test
     void testSearchByFuelType_Diesel() {
         inventory.addCar(bmw);
@@ -315,6 +376,93 @@ class CarInventoryTest {
         assertEquals("G003", available.get(0).getId());
     }
     
+    @Test
+    void testSearchByType() {
+        inventory.addCar(tesla);
+        inventory.addCar(bmw);
+        inventory.addCar(toyota);
+        inventory.rentCar("G001", customer, 2);
+        
+        List<Car> electric = inventory.searchByType(ElectricCar.class);
+        List<Car> gas = inventory.searchByType(GasCar.class);
+        
+        assertEquals(1, electric.size());
+        assertEquals("E001", electric.get(0).getId());
+        assertEquals(1, gas.size());
+        assertEquals("G002", gas.get(0).getId());
+    }
+    
+    @Test
+    void testAvailabilityCountsFollowRentAndReturn() {
+        inventory.addCar(tesla);
+        inventory.addCar(bmw);
+        assertEquals(2, inventory.getAvailableCarCount());
+        assertEquals(0, inventory.getRentedCarCount());
+        
+        inventory.rentCar("E001", customer, 5);
+        assertEquals(1, inventory.getAvailableCarCount());
+        assertEquals(1, inventory.getRentedCarCount());
+        
+        inventory.returnCar("R1");
+        assertEquals(2, inventory.getAvailableCarCount());
+        assertEquals(0, inventory.getRentedCarCount());
+        
+        inventory.removeCar("E001");
+        assertEquals(1, inventory.getAvailableCarCount());
+    }
+    
+    @Test
+    void testIndexesFollowStorageLoadAndDirectUpdates() {
+        inventory.addCarFromStorage(bmw);
+        inventory.addCarFromStorage(new GasCar("G003", "Mercedes", 130.0, "Diesel"));
+        inventory.addRentalFromStorage(new Rental("R1", bmw, customer, 2));
+        
+        assertEquals(1, inventory.searchByFuelType("diesel").size());
+        
+        bmw.setAvailable(true);
+        assertEquals(2, inventory.searchByFuelType("DIESEL").size());
+        
+        // A removed car no longer updates this inventory's indexes
+        inventory.removeCar("G001");
+        bmw.setAvailable(false);
+        bmw.setAvailable(true);
+        assertEquals(1, inventory.searchByFuelType("Diesel").size());
+        assertEquals(1, inventory.getAvailableCarCount());
+    }
+    
+    @Test
+    void testSearchByPriceRange_FollowsPriceChanges() {
+        inventory.addCar(tesla);
+        inventory.addCar(bmw);
+        inventory.addCar(toyota);
+        
+        List<Car> midRange = inventory.searchByPriceRange(80.0, 120.0);
+        assertEquals(2, midRange.size());
+        assertEquals("G002", midRange.get(0).getId());
+        assertEquals("E001", midRange.get(1).getId());
+        
+        bmw.setPricePerDay(90.0);
+        inventory.rentCar("G002", customer, 1);
+        
+        midRange = inventory.searchByPriceRange(80.0, 120.0);
+        assertEquals(2, midRange.size());
+        assertEquals("G001", midRange.get(0).getId());
+        assertEquals("E001", midRange.get(1).getId());
+    }
+    
+    @Test
+    void testFindCheapestAvailable() {
+        inventory.addCar(tesla);
+        inventory.addCar(bmw);
+        inventory.addCar(toyota);
+        inventory.rentCar("G002", customer, 1);
+        
+        List<Car> cheapest = inventory.findCheapestAvailable(2);
+        assertEquals(2, cheapest.size());
+        assertEquals("E001", cheapest.get(0).getId());
+        assertEquals("G001", cheapest.get(1).getId());
+    }
+    
     @Test
     void testGetAllRentals_Empty() {
         List<Rental> rentals = inventory.getAllRentals();
@@ -349,6 +497,342 @@ class CarInventoryTest {
         assertEquals(1, rentalsAgain.size());
     }
     
+    // ============== RESERVATION TESTS ==============
+    
+    @Test
+    void testReserveCar_FutureBookingKeepsCarAvailable() {
+        inventory.addCar(tesla);
+        LocalDate start = LocalDate.now().plusDays(10);
+        
+        Rental reservation = inventory.reserveCar("E001", customer, start, 3);
+        
+        assertNotNull(reservation);
+        assertTrue(reservation.isReservation());
+        assertEquals(start.plusDays(3), reservation.getEndDate());
+        assertTrue(tesla.isAvailable());
+        assertFalse(inventory.isCarFree("E001", start.plusDays(2), start.plusDays(5)));
+        assertTrue(inventory.isCarFree("E001", start.plusDays(3), start.plusDays(5)));
+        assertEquals(1, inventory.getRentalSummary().getActiveRentals());
+    }
+    
+    @Test
+    void testReserveCar_RejectsOverlapAndPastDates() {
+        inventory.addCar(tesla);
+        LocalDate start = LocalDate.now().plusDays(10);
+        inventory.reserveCar("E001", customer, start, 3);
+        
+        assertNull(inventory.reserveCar("E001", customer, start.plusDays(1), 1));
+        assertTrue(outputStream.toString().contains("already booked"));
+        assertNull(inventory.reserveCar("E001", customer, LocalDate.now(), 1));
+        assertTrue(outputStream.toString().contains("must start after today"));
+    }
+    
+    @Test
+    void testRentCar_BlockedByUpcomingReservation() {
+        inventory.addCar(tesla);
+        inventory.reserveCar("E001", customer, LocalDate.now().plusDays(3), 2);
+        
+        assertNull(inventory.rentCar("E001", customer, 5));
+        assertTrue(tesla.isAvailable());
+        
+        Rental shortRental = inventory.rentCar("E001", customer, 3);
+        assertNotNull(shortRental);
+        assertFalse(tesla.isAvailable());
+    }
+    
+    @Test
+    void testReturnFreesDatesAndOnlyReleasesHeldCar() {
+        inventory.addCar(tesla);
+        Rental reservation = inventory.reserveCar("E001", customer, LocalDate.now().plusDays(1), 30);
+        inventory.returnCar(reservation.getRentalId()); // cancel
+        
+        Rental rental = inventory.rentCar("E001", customer, 5);
+        assertNotNull(rental);
+        
+        Rental later = inventory.reserveCar("E001", customer, LocalDate.now().plusDays(20), 2);
+        inventory.returnCar(later.getRentalId());
+        assertFalse(tesla.isAvailable()); // still out on the current rental
+        
+        inventory.returnCar(rental.getRentalId());
+        assertTrue(tesla.isAvailable());
+        assertTrue(inventory.getBookings("E001").isEmpty());
+    }
+    
+    @Test
+    void testCancellingStartedBookingKeepsCarWithItsHolder() {
+        inventory.addCar(tesla);
+        LocalDate today = LocalDate.now();
+        // Loaded: an overdue rental still has the car when the next booking's start date passes
+        Rental overdue = new Rental("R1", tesla, customer, today.minusDays(3), 2);
+        Rental started = new Rental("R2", tesla, customer, today.minusDays(1), 3);
+        inventory.addRentalFromStorage(overdue);
+        inventory.addRentalFromStorage(started);
+        assertTrue(overdue.holdsCar());
+        assertFalse(started.holdsCar());
+        assertFalse(started.isReservation()); // by the clock it has started
+        
+        inventory.returnCar("R2");
+        assertFalse(tesla.isAvailable()); // still out on R1
+        assertNull(inventory.rentCar("E001", customer, 1));
+        
+        inventory.returnCar("R1");
+        assertTrue(tesla.isAvailable());
+    }
+    
+    @Test
+    void testFindCarsFreeBetween() {
+        inventory.addCar(tesla);
+        inventory.addCar(bmw);
+        LocalDate start = LocalDate.now().plusDays(7);
+        inventory.reserveCar("G001", customer, start, 7);
+        
+        List<Car> free = inventory.findCarsFreeBetween(start.plusDays(1), start.plusDays(2));
+        assertEquals(1, free.size());
+        assertEquals("E001", free.get(0).getId());
+        assertEquals(2, inventory.findCarsFreeBetween(start.plusDays(7), start.plusDays(9)).size());
+    }
+    
+    // ============== STATISTICS TESTS ==============
+    
+    @Test
+    void testRentalSummary_Empty() {
+        RentalSummary summary = inventory.getRentalSummary();
+        assertEquals(0, summary.getTotalRentals());
+        assertEquals(0.0, summary.getTotalPotentialRevenue(), 0.001);
+    }
+    
+    @Test
+    void testRentalSummary_TracksRentReturnAndStorage() {
+        inventory.addCar(tesla);
+        inventory.addCar(bmw);
+        inventory.addCarFromStorage(toyota);
+        
+        Rental stored = new Rental("R10", toyota, customer, 3);  // $240
+        stored.setReturned(true);
+        inventory.addRentalFromStorage(stored);
+        inventory.rentCar("E001", customer, 5);                  // $450
+        inventory.rentCar("G001", customer, 5);                  // $862.50
+        inventory.returnCar("R11");
+        inventory.returnCar("R11"); // already returned: no change
+        
+        RentalSummary summary = inventory.getRentalSummary();
+        assertEquals(3, summary.getTotalRentals());
+        assertEquals(1, summary.getActiveRentals());
+        assertEquals(2, summary.getCompletedRentals());
+        assertEquals(690.0, summary.getCompletedRevenue(), 0.001);
+        assertEquals(862.5, summary.getPendingRevenue(), 0.001);
+        assertEquals(1552.5, summary.getTotalPotentialRevenue(), 0.001);
+    }
+    
+    @Test
+    void testRentalSummary_Batches() {
+        inventory.addCar(tesla);
+        inventory.addCar(toyota);
+        inventory.rentCars(List.of(
+                new RentalRequest("E001", customer, 5),
+                new RentalRequest("G002", customer, 5)));
+        inventory.returnCars(List.of("R2"));
+        
+        RentalSummary summary = inventory.getRentalSummary();
+        assertEquals(1, summary.getActiveRentals());
+        assertEquals(1, summary.getCompletedRentals());
+        assertEquals(400.0, summary.getCompletedRevenue(), 0.001);
+        assertEquals(450.0, summary.getPendingRevenue(), 0.001);
+    }
+    
+    @Test
+    void testRentalSummary_NothingPendingOnceAllReturned() {
+        double[] prices = {0.1, 33.3, 70.7, 99.99, 12.34};
+        List<String> rentalIds = new ArrayList<>();
+        for (int i = 0; i < prices.length; i++) {
+            inventory.addCar(new GasCar("G10" + i, "Car " + i, prices[i], "Gasoline"));
+            rentalIds.add(inventory.rentCar("G10" + i, customer, 3).getRentalId());
+        }
+        for (int i = rentalIds.size() - 1; i >= 1; i--) {
+            inventory.returnCar(rentalIds.get(i));
+        }
+        // Counted in whole cents: what is left pending is exactly the last fee
+        long firstFee = RentalSummary.toCents(inventory.findRentalById(rentalIds.get(0)).getTotalFee());
+        assertEquals(firstFee, inventory.getRentalSummary().getPendingRevenueCents());
+        inventory.returnCar(rentalIds.get(0));
+        
+        RentalSummary summary = inventory.getRentalSummary();
+        assertEquals(0, summary.getActiveRentals());
+        assertEquals(0.0, summary.getPendingRevenue());
+        long earned = 0;
+        for (String rentalId : rentalIds) {
+            earned += RentalSummary.toCents(inventory.findRentalById(rentalId).getTotalFee());
+        }
+        assertEquals(earned, summary.getCompletedRevenueCents());
+    }
+    
+    @Test
+    void testRentalSummary_CancelledReservationEarnsNothing() {
+        inventory.addCar(tesla);
+        inventory.addCar(bmw);
+        Rental reservation = inventory.reserveCar("G001", customer, LocalDate.now().plusDays(5), 4);
+        Rental rental = inventory.rentCar("E001", customer, 2);
+        inventory.returnCar(rental.getRentalId());
+        
+        inventory.returnCar(reservation.getRentalId());
+        
+        assertTrue(reservation.isCancelled());
+        assertFalse(rental.isCancelled());
+        RentalSummary summary = inventory.getRentalSummary();
+        assertEquals(0, summary.getActiveRentals());
+        assertEquals(1, summary.getCompletedRentals());
+        assertEquals(rental.getTotalFee(), summary.getCompletedRevenue(), 0.001);
+        assertEquals(0.0, summary.getPendingRevenue(), 0.001);
+        assertEquals(summary.getCompletedRevenue(), inventory.snapshot().getRentalSummary().getCompletedRevenue(), 0.001);
+        assertTrue(outputStream.toString().contains("RESERVATION CANCELLED"));
+    }
+    
+    @Test
+    void testRentalFeeLockedInAtRentalTime() {
+        inventory.addCar(tesla);
+        Rental rental = inventory.rentCar("E001", customer, 5);
+        tesla.setPricePerDay(200.0);
+        
+        assertEquals(450.0, rental.getTotalFee(), 0.01);
+        assertEquals(450.0, inventory.getRentalSummary().getPendingRevenue(), 0.01);
+    }
+    
+    // ============== BATCH TESTS ==============
+    
+    @Test
+    void testRentCars_AllSucceed() {
+        inventory.addCar(tesla);
+        inventory.addCar(bmw);
+        
+        BatchResult result = inventory.rentCars(List.of(
+                new RentalRequest("E001", customer, 5),
+                new RentalRequest("G001", customer, 2)));
+        
+        assertTrue(result.isSuccess());
+        assertEquals(2, result.getRentals().size());
+        assertEquals(BatchResult.Status.RENTED, result.getItems().get(0).getStatus());
+        assertEquals("R1", result.getItems().get(0).getRental().getRentalId());
+        assertEquals("R2", result.getItems().get(1).getRental().getRentalId());
+        assertFalse(tesla.isAvailable());
+        assertFalse(bmw.isAvailable());
+        assertEquals(2, inventory.getAllRentals().size());
+        assertNotNull(inventory.findRentalById("R2"));
+    }
+    
+    @Test
+    void testRentCars_RollsBackWhenOneCarUnavailable() {
+        inventory.addCar(tesla);
+        inventory.addCar(bmw);
+        inventory.addCar(toyota);
+        inventory.rentCar("G002", customer, 1);
+        
+        BatchResult result = inventory.rentCars(List.of(
+                new RentalRequest("E001", customer, 5),
+                new RentalRequest("G002", customer, 2),
+                new RentalRequest("X999", customer, 2),
+                new RentalRequest("G001", customer, 0)));
+        
+        assertFalse(result.isSuccess());
+        assertTrue(result.getRentals().isEmpty());
+        assertEquals(BatchResult.Status.ROLLED_BACK, result.getItems().get(0).getStatus());
+        assertEquals(BatchResult.Status.CAR_NOT_AVAILABLE, result.getItems().get(1).getStatus());
+        assertEquals(BatchResult.Status.CAR_NOT_FOUND, result.getItems().get(2).getStatus());
+        assertEquals(BatchResult.Status.INVALID_DAYS, result.getItems().get(3).getStatus());
+        assertTrue(tesla.isAvailable());
+        assertTrue(bmw.isAvailable());
+        assertEquals(1, inventory.getAllRentals().size());
+    }
+    
+    @Test
+    void testRentCars_DuplicateCar() {
+        inventory.addCar(tesla);
+        
+        BatchResult result = inventory.rentCars(List.of(
+                new RentalRequest("E001", customer, 5),
+                new RentalRequest("E001", customer, 3)));
+        
+        assertFalse(result.isSuccess());
+        assertEquals(BatchResult.Status.DUPLICATE, result.getItems().get(1).getStatus());
+        assertTrue(tesla.isAvailable());
+    }
+    
+    @Test
+    void testReturnCars() {
+        inventory.addCar(tesla);
+        inventory.addCar(bmw);
+        inventory.rentCar("E001", customer, 5);
+        inventory.rentCar("G001", customer, 2);
+        
+        BatchResult failed = inventory.returnCars(List.of("R1", "R999"));
+        assertFalse(failed.isSuccess());
+        assertEquals(BatchResult.Status.ROLLED_BACK, failed.getItems().get(0).getStatus());
+        assertEquals(BatchResult.Status.RENTAL_NOT_FOUND, failed.getItems().get(1).getStatus());
+        assertFalse(inventory.findRentalById("R1").isReturned());
+        assertFalse(tesla.isAvailable());
+        
+        BatchResult result = inventory.returnCars(List.of("R1", "R2"));
+        assertTrue(result.isSuccess());
+        assertEquals(BatchResult.Status.RETURNED, result.getItems().get(1).getStatus());
+        assertTrue(tesla.isAvailable());
+        assertTrue(bmw.isAvailable());
+        
+        BatchResult again = inventory.returnCars(List.of("R2"));
+        assertEquals(BatchResult.Status.ALREADY_RETURNED, again.getItems().get(0).getStatus());
+    }
+    
+    @Test
+    void testGetRentals_ReadOnlyView() {
+        inventory.addCar(tesla);
+        inventory.rentCar("E001", customer, 5);
+        
+        List<Rental> view = inventory.getRentals();
+        assertEquals(1, view.size());
+        assertThrows(UnsupportedOperationException.class, () -> view.clear());
+        assertEquals(1, inventory.getRentalCount());
+    }
+    
+    @Test
+    void testGetRentalPage() {
+        inventory.addCar(tesla);
+        for (int i = 0; i < 5; i++) {
+            inventory.rentCar("E001", customer, 1);
+            inventory.returnCar("R" + (i + 1));
+        }
+        
+        RentalPage first = inventory.getRentalPage(0, 2);
+        assertEquals(2, first.getRentals().size());
+        assertEquals("R1", first.getRentals().get(0).getRentalId());
+        assertTrue(first.hasMore());
+        
+        RentalPage second = inventory.getRentalPage(first.getNextCursor(), 2);
+        assertEquals("R3", second.getRentals().get(0).getRentalId());
+        
+        RentalPage last = inventory.getRentalPage(4, 10);
+        assertEquals(1, last.getRentals().size());
+        assertFalse(last.hasMore());
+        assertTrue(inventory.getRentalPage(99, 10).getRentals().isEmpty());
+        assertThrows(IllegalArgumentException.class, () -> inventory.getRentalPage(0, 0));
+    }
+    
+    @Test
+    void testActiveAndCompletedRentals() {
+        inventory.addCar(tesla);
+        inventory.addCar(bmw);
+        inventory.addCar(toyota);
+        inventory.rentCar("E001", customer, 5);
+        inventory.rentCar("G001", customer, 5);
+        inventory.rentCar("G002", customer, 5);
+        inventory.returnCar("R2");
+        
+        List<String> active = new ArrayList<>();
+        for (Rental r : inventory.getActiveRentals()) active.add(r.getRentalId());
+        List<String> completed = new ArrayList<>();
+        for (Rental r : inventory.getCompletedRentals()) completed.add(r.getRentalId());
+        
+        assertEquals(List.of("R1", "R3"), active);
+        assertEquals(List.of("R2"), completed);
+    }
+    
     // ============== INTEGRATION TESTS ==============
     
     @Test
@@ -0,0 +1,91 @@
+package service;
+
+import model.*;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.AfterEach;
+import java.io.ByteArrayOutputStream;
+import java.io.PrintStream;
+import java.util.*;
+import static org.junit.jupiter.api.Assertions.*;
+
+class CarQueryTest {
+    
+    private CarInventory inventory;
+    private final PrintStream originalOut = System.out;
+    
+    @BeforeEach
+    void setUp() {
+        System.setOut(new PrintStream(new ByteArrayOutputStream()));
+        inventory = new CarInventory();
+        inventory.addCar(new ElectricCar("E001", "Tesla Model 3", 100.0, 75.0));
+        inventory.addCar(new ElectricCar("E002", "Tesla Model Y", 120.0, 80.0));
+        inventory.addCar(new ElectricCar("E003", "Kia EV6", 90.0, 58.0));
+        inventory.addCar(new GasCar("G001", "BMW X5", 150.0, "Diesel"));
+        inventory.addCar(new GasCar("G002", "Toyota Camry", 80.0, "Gasoline"));
+        inventory.addCar(new GasCar("G003", "Toyota Hilux", 110.0, "Diesel"));
+    }
+    
+    @AfterEach
+    void restoreStreams() {
+        System.setOut(originalOut);
+    }
+    
+    private Set<String> ids(List<Car> cars) {
+        Set<String> ids = new HashSet<>();
+        for (Car car : cars) ids.add(car.getId());
+        return ids;
+    }
+    
+    @Test
+    void testEmptyQueryMatchesEverything() {
+        assertEquals(6, inventory.search(new CarQuery()).size());
+    }
+    
+    @Test
+    void testPriceRange() {
+        List<Car> results = inventory.search(new CarQuery().priceBetween(80, 110));
+        assertEquals(Set.of("E001", "E003", "G002", "G003"), ids(results));
+    }
+    
+    @Test
+    void testBrandAndFuelType() {
+        List<Car> results = inventory.search(new CarQuery().brand("toyota").fuelType("DIESEL"));
+        assertEquals(Set.of("G003"), ids(results));
+    }
+    
+    @Test
+    void testBatteryRangeImpliesElectric() {
+        List<Car> results = inventory.search(new CarQuery().batteryBetween(70, 100));
+        assertEquals(Set.of("E001", "E002"), ids(results));
+    }
+    
+    @Test
+    void testTypeAndAvailability() {
+        inventory.rentCar("E001", new Customer("C1", "Alice", "111"), 3);
+        
+        List<Car> results = inventory.search(new CarQuery().type(ElectricCar.class).availableOnly());
+        assertEquals(Set.of("E002", "E003"), ids(results));
+    }
+    
+    @Test
+    void testStreamIsLazy() {
+        long count = inventory.stream(new CarQuery().type(GasCar.class)).limit(2).count();
+        assertEquals(2, count);
+    }
+    
+    @Test
+    void testPlannerPicksMostSelectiveIndex() {
+        assertEquals(CarInventory.QueryPlan.SCAN, inventory.plan(new CarQuery()));
+        assertEquals(CarInventory.QueryPlan.SCAN, inventory.plan(new CarQuery().priceBetween(0, 1000)));
+        assertEquals(CarInventory.QueryPlan.PRICE, inventory.plan(new CarQuery().priceBetween(0, 85)));
+        assertEquals(CarInventory.QueryPlan.BRAND, inventory.plan(new CarQuery().brand("kia").type(ElectricCar.class)));
+        assertEquals(CarInventory.QueryPlan.FUEL, inventory.plan(new CarQuery().fuelType("Gasoline")));
+        
+        inventory.rentCar("E001", new Customer("C1", "Alice", "111"), 3);
+        inventory.rentCar("E002", new Customer("C2", "Bob", "222"), 3);
+        inventory.rentCar("G001", new Customer("C3", "Carol", "333"), 3);
+        assertEquals(CarInventory.QueryPlan.TYPE,
+                inventory.plan(new CarQuery().type(ElectricCar.class).availableOnly()));
+    }
+}
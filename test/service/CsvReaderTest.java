@@ -0,0 +1,117 @@
+package service;
+
+import org.junit.jupiter.api.Test;
+import java.io.StringReader;
+import java.time.LocalDate;
+import java.util.*;
+import static org.junit.jupiter.api.Assertions.*;
+
+class CsvReaderTest {
+    
+    private static double parseDouble(String s) {
+        return CsvReader.parseDouble(s.toCharArray(), 0, s.length(), -1.0);
+    }
+    
+    private static int parseInt(String s) {
+        return CsvReader.parseInt(s.toCharArray(), 0, s.length(), 0);
+    }
+    
+    private static LocalDate parseDate(String s, LocalDate defaultValue) {
+        return CsvReader.parseDate(s.toCharArray(), 0, s.length(), defaultValue);
+    }
+    
+    private static List<List<String>> records(String text) throws Exception {
+        List<List<String>> records = new ArrayList<>();
+        try (CsvReader csv = new CsvReader(new StringReader(text))) {
+            while (csv.next()) {
+                List<String> fields = new ArrayList<>();
+                for (int i = 0; i < csv.size(); i++) fields.add(csv.getString(i));
+                records.add(fields);
+            }
+        }
+        return records;
+    }
+    
+    @Test
+    void testQuotedFieldsAndLineEndings() throws Exception {
+        assertEquals(List.of(
+                List.of("a", "b,c", "say \"hi\""),
+                List.of("line1\r\nline2", ""),
+                List.of("", "", "last")),
+                records("a,\"b,c\",\"say \"\"hi\"\"\"\r\n\"line1\r\nline2\",\n   \r\n\r,,last"));
+        assertEquals(List.of(), records(""));
+    }
+    
+    @Test
+    void testRecordsLongerThanTheBuffer() throws Exception {
+        String longField = "x".repeat(200_000);
+        List<List<String>> parsed = records("\"" + longField + "\",1\n2," + longField);
+        assertEquals(List.of(List.of(longField, "1"), List.of("2", longField)), parsed);
+    }
+    
+    @Test
+    void testParseDoubleMatchesDoubleParseDouble() {
+        Random random = new Random(42);
+        for (int i = 0; i < 10_000; i++) {
+            double value = switch (i % 4) {
+                case 0 -> Math.round(random.nextDouble() * 100_000) / 100.0; // prices
+                case 1 -> random.nextDouble();
+                case 2 -> random.nextDouble() * Math.pow(10, random.nextInt(600) - 300);
+                default -> -random.nextInt(1000);
+            };
+            String text = Double.toString(value);
+            assertEquals(Double.parseDouble(text), parseDouble(text), text);
+        }
+        assertEquals(0.1, parseDouble(" .1 "));
+        assertEquals(5.0, parseDouble("5."));
+        assertEquals(1234.5, parseDouble("+1.2345E3"));
+        assertEquals(0.1, parseDouble("0.1000000000000000000000000000001"));
+        assertEquals(Double.NEGATIVE_INFINITY, parseDouble("-Infinity"));
+        assertTrue(Double.isNaN(parseDouble("NaN")));
+        for (String bad : List.of("", " ", ".", "-", "1e", "1.2.3", "12a", "e5", "1,5")) {
+            assertEquals(-1.0, parseDouble(bad), bad);
+        }
+    }
+    
+    @Test
+    void testParseIntAndLong() {
+        assertEquals(42, parseInt(" 42 "));
+        assertEquals(-7, parseInt("-7"));
+        assertEquals(Integer.MAX_VALUE, parseInt("2147483647"));
+        assertEquals(0, parseInt("2147483648"));
+        assertEquals(0, parseInt("99999999999999999999999"));
+        assertEquals(0, parseInt("4 2"));
+        assertEquals(0, parseInt(""));
+        String max = String.valueOf(Long.MAX_VALUE);
+        assertEquals(Long.MAX_VALUE, CsvReader.parseLong(max.toCharArray(), 0, max.length(), 0));
+    }
+    
+    @Test
+    void testParseDatesAndFlags() {
+        LocalDate fallback = LocalDate.of(2000, 1, 1);
+        assertEquals(LocalDate.of(2024, 2, 29), parseDate("2024-02-29", fallback));
+        for (String bad : List.of("2023-02-29", "2024-13-01", "2024-1-01", "2024-01-+1", "24-01-01x", "")) {
+            assertEquals(fallback, parseDate(bad, fallback), bad);
+        }
+        
+        String flags = "Yes, NO ,TRUE,false,maybe";
+        char[] chars = flags.toCharArray();
+        assertTrue(CsvReader.parseYesNo(chars, 0, 3, false));
+        assertFalse(CsvReader.parseYesNo(chars, 4, 8, true));
+        assertTrue(CsvReader.parseYesNo(chars, 9, 13, false));
+        assertFalse(CsvReader.parseYesNo(chars, 14, 19, true));
+        assertTrue(CsvReader.parseYesNo(chars, 20, 25, true));
+    }
+    
+    @Test
+    void testHeaderMatching() throws Exception {
+        try (CsvReader csv = new CsvReader(new StringReader("  carid,BRAND  \nCarID,Brand,Type\n"))) {
+            assertTrue(csv.next());
+            assertTrue(csv.matchesHeader("CarID,Brand"));
+            assertFalse(csv.matchesHeader("CarID,Brand,Type"));
+            assertFalse(csv.matchesHeader("CarID"));
+            assertTrue(csv.next());
+            assertFalse(csv.matchesHeader("CarID,Brand"));
+        }
+    }
+}
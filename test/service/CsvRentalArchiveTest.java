@@ -0,0 +1,199 @@
+package service;
+
+import model.*;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.io.TempDir;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDate;
+import java.util.*;
+import static org.junit.jupiter.api.Assertions.*;
+
+class CsvRentalArchiveTest {
+    
+    @TempDir
+    Path tempDir;
+    
+    private Path archiveFile;
+    private CarInventory inventory;
+    private Customer customer;
+    
+    @BeforeEach
+    void setUp() throws Exception {
+        archiveFile = tempDir.resolve("archive.csv");
+        inventory = new CarInventory(InventoryEventSink.NONE);
+        inventory.setArchive(new CsvRentalArchive(archiveFile));
+        inventory.addCarFromStorage(new ElectricCar("E001", "Tesla Model 3", 100.0, 75.0));
+        inventory.addCarFromStorage(new GasCar("G001", "BMW X5", 150.0, "Diesel"));
+        customer = new Customer("CUST001", "José, \"Jo\" Núñez", "555-1234");
+    }
+    
+    // Rent and return the car n times
+    private List<Rental> churn(String carId, int n) {
+        List<Rental> done = new ArrayList<>();
+        for (int i = 0; i < n; i++) {
+            Rental rental = inventory.rentCar(carId, customer, 1 + i);
+            inventory.returnCar(rental.getRentalId());
+            done.add(rental);
+        }
+        return done;
+    }
+    
+    @Test
+    void testArchiveMovesOnlyOldReturnedRentals() throws Exception {
+        List<Rental> done = churn("E001", 5);
+        Rental active = inventory.rentCar("G001", customer, 3);
+        
+        assertEquals(4, inventory.archiveReturnedRentals(2));
+        
+        // Hot tier: the two newest rentals (one returned, one active)
+        assertEquals(2, inventory.getRentalCount());
+        assertSame(active, inventory.findRentalById(active.getRentalId()));
+        assertSame(done.get(4), inventory.findRentalById(done.get(4).getRentalId()));
+        
+        // Cold tier: still found by ID, as a returned copy with the same fee
+        Rental archived = inventory.findRentalById(done.get(0).getRentalId());
+        assertNotSame(done.get(0), archived);
+        assertTrue(archived.isReturned());
+        assertEquals(done.get(0).getTotalFee(), archived.getTotalFee());
+        assertEquals("E001", archived.getCar().getId());
+        assertEquals(customer.getName(), archived.getCustomer().getName());
+        
+        // Statistics still cover the whole history
+        assertEquals(6, inventory.getRentalSummary().getTotalRentals());
+        assertEquals(0, inventory.archiveReturnedRentals(2));
+    }
+    
+    @Test
+    void testReturnOfArchivedRentalIsRejected() throws Exception {
+        List<Rental> done = churn("E001", 2);
+        inventory.archiveReturnedRentals(0);
+        
+        inventory.returnCar(done.get(0).getRentalId());
+        
+        assertTrue(inventory.findCarById("E001").isAvailable());
+        assertEquals(2, inventory.getRentalSummary().getCompletedRentals());
+    }
+    
+    @Test
+    void testSnapshotStreamsArchivedAndHotRentals() throws Exception {
+        churn("E001", 3);
+        inventory.archiveReturnedRentals(1);
+        inventory.rentCar("G001", customer, 2);
+        
+        InventorySnapshot snapshot = inventory.snapshot();
+        churn("E001", 2);
+        inventory.archiveReturnedRentals(0); // later archiving is not part of the snapshot
+        
+        List<String> ids = new ArrayList<>();
+        snapshot.forEachRental(rental -> ids.add(rental.getRentalId()));
+        assertEquals(List.of("R1", "R2", "R3", "R4"), ids);
+        assertEquals(2, snapshot.getArchivedRentalCount());
+        assertEquals(4, snapshot.getRentalSummary().getTotalRentals());
+    }
+    
+    @Test
+    void testReopenedArchiveKeepsIndexAndStatistics() throws Exception {
+        churn("E001", 4);
+        inventory.archiveReturnedRentals(0);
+        
+        CarInventory restarted = new CarInventory(InventoryEventSink.NONE);
+        restarted.setArchive(new CsvRentalArchive(archiveFile));
+        restarted.addCarFromStorage(new ElectricCar("E001", "Tesla Model 3", 100.0, 75.0));
+        
+        assertEquals(4, restarted.getRentalSummary().getCompletedRentals());
+        assertEquals(inventory.getRentalSummary().getCompletedRevenue(),
+                restarted.getRentalSummary().getCompletedRevenue(), 0.001);
+        assertNotNull(restarted.findRentalById("R3"));
+        assertNull(restarted.findRentalById("R99"));
+        assertEquals("R5", restarted.rentCar("E001", customer, 1).getRentalId());
+    }
+    
+    @Test
+    void testZeroPaddedIdIsNotItsNumber() throws Exception {
+        Rental padded = new Rental("R042", inventory.findCarById("E001"), customer, 3);
+        padded.setReturned(true);
+        CsvRentalArchive archive = new CsvRentalArchive(tempDir.resolve("padded.csv"));
+        archive.append(List.of(padded));
+        
+        assertEquals("R042", archive.find("R042").getRentalId());
+        assertFalse(archive.contains("R42"));
+        assertNull(archive.find("R42"));
+        assertEquals(42, archive.getHighestRentalNumber()); // still never handed out again
+    }
+    
+    @Test
+    void testStoredRentalsAlreadyArchivedStayOnDisk() throws Exception {
+        List<Rental> done = churn("E001", 2);
+        inventory.archiveReturnedRentals(0);
+        
+        // e.g. rentals.csv written before the last archiving run
+        inventory.addRentalFromStorage(done.get(0));
+        
+        assertEquals(0, inventory.getRentalCount());
+        assertEquals(2, inventory.getRentalSummary().getTotalRentals());
+    }
+    
+    @Test
+    void testTornLastRecordIsIgnoredAndOverwritten() throws Exception {
+        CsvRentalArchive archive = new CsvRentalArchive(archiveFile);
+        Rental first = new Rental("R1", inventory.findCarById("E001"), customer, 2);
+        first.setReturned(true);
+        archive.append(List.of(first));
+        Files.writeString(archiveFile, "R2,E001,Electric,Tes", StandardCharsets.UTF_8, StandardOpenOption.APPEND);
+        
+        CsvRentalArchive reopened = new CsvRentalArchive(archiveFile);
+        assertEquals(1, reopened.size());
+        
+        Rental second = new Rental("R3", inventory.findCarById("G001"), customer, 1);
+        reopened.append(List.of(second));
+        
+        List<String> ids = new ArrayList<>();
+        new CsvRentalArchive(archiveFile).scan(rental -> ids.add(rental.getRentalId()));
+        assertEquals(List.of("R1", "R3"), ids);
+        assertEquals("G001", reopened.find("R3").getCar().getId());
+    }
+    
+    @Test
+    void testQuotedLineBreaksStayInOneRecord() throws Exception {
+        Customer multiline = new Customer("CUST002", "Ann\nLee", "555\r\n0100");
+        CsvRentalArchive archive = new CsvRentalArchive(archiveFile);
+        Rental first = new Rental("R1", inventory.findCarById("E001"), multiline, 2);
+        Rental second = new Rental("R2", inventory.findCarById("G001"), customer, 3);
+        archive.append(List.of(first, second));
+        
+        // Reopening rebuilds the offsets; a break inside quotes does not end the record
+        CsvRentalArchive reopened = new CsvRentalArchive(archiveFile);
+        assertEquals(2, reopened.size());
+        assertEquals("Ann\nLee", reopened.find("R1").getCustomer().getName());
+        assertEquals("555\r\n0100", reopened.find("R1").getCustomer().getPhone());
+        assertEquals("G001", reopened.find("R2").getCar().getId());
+        assertEquals(second.getTotalFee(), reopened.find("R2").getTotalFee());
+        
+        List<String> names = new ArrayList<>();
+        reopened.scan(rental -> names.add(rental.getCustomer().getName()));
+        assertEquals(List.of("Ann\nLee", customer.getName()), names);
+    }
+    
+    @Test
+    void testCancelledBookingsAreDroppedNotArchived() throws Exception {
+        Rental reservation = inventory.reserveCar("G001", customer, LocalDate.now().plusDays(2), 2);
+        inventory.returnCar(reservation.getRentalId());
+        churn("E001", 1);
+        
+        assertEquals(2, inventory.archiveReturnedRentals(0));
+        
+        assertEquals(1, new CsvRentalArchive(archiveFile).size());
+        assertNull(inventory.findRentalById(reservation.getRentalId()));
+        assertEquals(1, inventory.getRentalSummary().getCompletedRentals());
+    }
+    
+    @Test
+    void testArchivingWithoutArchiveFails() {
+        CarInventory plain = new CarInventory(InventoryEventSink.NONE);
+        assertThrows(IllegalStateException.class, () -> plain.archiveReturnedRentals(0));
+    }
+}
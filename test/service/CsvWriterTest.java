@@ -0,0 +1,97 @@
+package service;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.*;
+import static org.junit.jupiter.api.Assertions.*;
+
+class CsvWriterTest {
+    
+    @TempDir
+    Path tempDir;
+    
+    private String write(Object... fields) throws Exception {
+        Path file = tempDir.resolve("out.csv");
+        try (CsvWriter out = new CsvWriter(file)) {
+            for (Object field : fields) {
+                if (field instanceof Double) out.field((double) field);
+                else if (field instanceof Long) out.field((long) field);
+                else if (field instanceof LocalDate) out.field((LocalDate) field);
+                else if (field instanceof Boolean) out.yesNo((boolean) field);
+                else out.field((String) field);
+            }
+            out.endRow();
+            out.commit();
+        }
+        return Files.readString(file, StandardCharsets.UTF_8);
+    }
+    
+    @Test
+    void testFieldsAreEscapedOnlyWhenNeeded() throws Exception {
+        assertEquals("plain,\"a,b\",\"say \"\"hi\"\"\",\"two\r\nlines\",,José 🚗,Yes,No\n",
+                write("plain", "a,b", "say \"hi\"", "two\r\nlines", null, "José 🚗", true, false));
+        assertEquals("42,-7,0,2024-02-29,0999-01-01\n",
+                write(42L, -7L, 0L, LocalDate.of(2024, 2, 29), LocalDate.of(999, 1, 1)));
+    }
+    
+    @Test
+    void testDoublesReadBackExactly() throws Exception {
+        assertEquals("100.0,93.15,0.001,-0.5,-0.0,1.0E7,1.0E-4,NaN\n",
+                write(100.0, 93.15, 0.001, -0.5, -0.0, 1e7, 1e-4, Double.NaN));
+        
+        Random random = new Random(7);
+        for (int i = 0; i < 2_000; i++) {
+            double price = Math.round(random.nextDouble() * 100_000) / 100.0;
+            double fee = (1 + random.nextInt(30)) * price * 1.15;
+            String line = write(price, fee);
+            String[] parts = line.trim().split(",");
+            assertEquals(Double.toString(price), parts[0]);
+            assertEquals(fee, Double.parseDouble(parts[1]), line);
+        }
+    }
+    
+    @Test
+    void testFileIsReplacedOnlyOnCommit() throws Exception {
+        Path file = tempDir.resolve("cars.csv");
+        Files.writeString(file, "old contents\n");
+        
+        try (CsvWriter out = new CsvWriter(file)) {
+            out.line("new header").field("half a row");
+            // no commit: e.g. an exception while writing
+        }
+        assertEquals("old contents\n", Files.readString(file));
+        assertFalse(Files.exists(tempDir.resolve("cars.csv.tmp")));
+        
+        try (CsvWriter out = new CsvWriter(file)) {
+            for (int i = 0; i < 20_000; i++) {
+                out.field("row").field(i).endRow(); // several buffer flushes
+            }
+            out.commit();
+        }
+        List<String> lines = Files.readAllLines(file);
+        assertEquals(20_000, lines.size());
+        assertEquals("row,19999", lines.get(19_999));
+        assertEquals(List.of(file), Files.list(tempDir).toList());
+    }
+    
+    @Test
+    void testAppendAtCutsOffWhatFollows() throws Exception {
+        Path file = tempDir.resolve("archive.csv");
+        Files.writeString(file, "kept\ntorn,rec");
+        
+        long end;
+        try (CsvWriter out = CsvWriter.appendAt(file, 5)) {
+            assertEquals(5, out.position());
+            out.field("R1").field(2L).endRow();
+            end = out.position();
+            out.commit();
+        }
+        assertEquals("kept\nR1,2\n", Files.readString(file));
+        assertEquals(Files.size(file), end);
+        assertEquals(List.of(file), Files.list(tempDir).toList());
+    }
+}
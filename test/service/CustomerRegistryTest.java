@@ -0,0 +1,106 @@
+package service;
+
+import model.*;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.io.TempDir;
+import java.nio.file.Path;
+import java.util.*;
+import static org.junit.jupiter.api.Assertions.*;
+
+class CustomerRegistryTest {
+    
+    @TempDir
+    Path tempDir;
+    
+    private CustomerRegistry registry;
+    
+    @BeforeEach
+    void setUp() {
+        registry = new CustomerRegistry();
+    }
+    
+    @Test
+    void testRepeatCustomerSharesOneInstance() {
+        Customer first = registry.canonical("C1", "Alice", "111");
+        Customer again = registry.canonical("C1", new String("Alice"), new String("111"));
+        Customer other = registry.canonical(new Customer("C1", "Alice", "111"));
+        
+        assertSame(first, again);
+        assertSame(first, other);
+        assertEquals(1, registry.size());
+        assertSame(first, registry.findCustomerById("C1"));
+    }
+    
+    @Test
+    void testChangedDetailsBecomeCurrent() {
+        Customer old = registry.canonical("C1", "Alice", "111");
+        Customer updated = registry.canonical("C1", "Alice", "222");
+        
+        assertNotSame(old, updated);
+        assertEquals("222", registry.findCustomerById("C1").getPhone());
+        assertEquals("111", old.getPhone());
+    }
+    
+    @Test
+    void testInventoryRentalsShareCustomerAndAreListed() {
+        CarInventory inventory = new CarInventory(InventoryEventSink.NONE);
+        inventory.addCarFromStorage(new GasCar("G1", "BMW X5", 150.0, "Diesel"));
+        inventory.addCarFromStorage(new GasCar("G2", "Toyota Camry", 80.0, "Gasoline"));
+        
+        Rental r1 = inventory.rentCar("G1", new Customer("C1", "Alice", "111"), 2);
+        Rental r2 = inventory.rentCar("G2", new Customer("C1", "Alice", "111"), 3);
+        inventory.rentCar("G1", new Customer("C2", "Bob", "222"), 1); // rejected, car is out
+        
+        assertSame(r1.getCustomer(), r2.getCustomer());
+        assertEquals(List.of(r1, r2), inventory.findRentalsByCustomer("C1"));
+        assertTrue(inventory.findRentalsByCustomer("C2").isEmpty());
+    }
+    
+    @Test
+    void testLoadedRentalsShareCustomer() throws Exception {
+        CarInventory inventory = new CarInventory(InventoryEventSink.NONE);
+        inventory.addCarFromStorage(new GasCar("G1", "BMW X5", 150.0, "Diesel"));
+        Customer alice = new Customer("C1", "Alice", "111");
+        for (int i = 0; i < 3; i++) {
+            Rental rental = inventory.rentCar("G1", alice, 1);
+            inventory.returnCar(rental.getRentalId());
+        }
+        String carsFile = tempDir.resolve("cars.csv").toString();
+        String rentalsFile = tempDir.resolve("rentals.csv").toString();
+        CSVExporter.save(inventory, carsFile, rentalsFile);
+        
+        CarInventory loaded = new CarInventory(InventoryEventSink.NONE);
+        CSVExporter.loadCarsIntoInventory(loaded, carsFile);
+        CSVExporter.loadRentalsIntoInventory(loaded, rentalsFile);
+        
+        List<Rental> rentals = loaded.findRentalsByCustomer("C1");
+        assertEquals(3, rentals.size());
+        assertSame(rentals.get(0).getCustomer(), rentals.get(2).getCustomer());
+        assertEquals(1, loaded.getCustomerRegistry().size());
+    }
+    
+    @Test
+    void testArchivedRentalsLeaveCustomerList() throws Exception {
+        CarInventory inventory = new CarInventory(InventoryEventSink.NONE);
+        inventory.setArchive(new CsvRentalArchive(tempDir.resolve("archive.csv")));
+        inventory.addCarFromStorage(new GasCar("G1", "BMW X5", 150.0, "Diesel"));
+        Customer alice = new Customer("C1", "Alice", "111");
+        Rental done = inventory.rentCar("G1", alice, 1);
+        inventory.returnCar(done.getRentalId());
+        Rental active = inventory.rentCar("G1", alice, 2);
+        
+        inventory.archiveReturnedRentals(0);
+        
+        assertEquals(List.of(active), inventory.findRentalsByCustomer("C1"));
+        
+        // A customer whose rentals all moved to the archive leaves no empty entry behind
+        inventory.returnCar(active.getRentalId());
+        Rental bobs = inventory.rentCar("G1", new Customer("C2", "Bob", "222"), 1);
+        inventory.returnCar(bobs.getRentalId());
+        inventory.archiveReturnedRentals(0);
+        
+        assertEquals(0, inventory.getCustomerRegistry().customersWithRentals());
+        assertEquals(List.of(), inventory.findRentalsByCustomer("C2"));
+    }
+}
@@ -0,0 +1,153 @@
+package service;
+
+import model.*;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.BeforeEach;
+import java.util.*;
+import static org.junit.jupiter.api.Assertions.*;
+
+class FleetColumnsTest {
+    
+    private CarInventory inventory;
+    
+    @BeforeEach
+    void setUp() {
+        inventory = new CarInventory(InventoryEventSink.NONE);
+        inventory.addCar(new ElectricCar("E001", "Tesla Model 3", 100.0, 75.0));
+        inventory.addCar(new ElectricCar("E002", "Tesla Model Y", 120.0, 80.0));
+        inventory.addCar(new ElectricCar("E003", "Kia EV6", 90.0, 58.0));
+        inventory.addCar(new GasCar("G001", "BMW X5", 150.0, "Diesel"));
+        inventory.addCar(new GasCar("G002", "Toyota Camry", 80.0, "Gasoline"));
+        inventory.addCar(new GasCar("G003", "Toyota Hilux", 110.0, "diesel"));
+    }
+    
+    private Set<String> ids(Collection<Car> cars) {
+        Set<String> ids = new HashSet<>();
+        for (Car car : cars) ids.add(car.getId());
+        return ids;
+    }
+    
+    // What a plain object-by-object scan would return
+    private Set<String> expected(CarQuery query) {
+        Set<String> ids = new HashSet<>();
+        for (Car car : inventory.getAllCars()) {
+            if (query.matches(car)) ids.add(car.getId());
+        }
+        return ids;
+    }
+    
+    @Test
+    void testColumnScanMatchesObjectScan() {
+        FleetColumns columns = new FleetColumns();
+        for (Car car : inventory.getAllCars()) columns.add(car);
+        inventory.rentCar("E002", new Customer("C1", "Alice", "111"), 2);
+        columns.refresh(inventory.findCarById("E002"));
+        
+        List<CarQuery> queries = List.of(
+                new CarQuery(),
+                new CarQuery().availableOnly(),
+                new CarQuery().type(ElectricCar.class),
+                new CarQuery().fuelType("DIESEL"),
+                new CarQuery().fuelType("Hydrogen"),
+                new CarQuery().priceBetween(90, 120),
+                new CarQuery().batteryBetween(70, 100).availableOnly(),
+                new CarQuery().brand("toyota").priceBetween(0, 100),
+                new CarQuery().brand("tesla").availableOnly());
+        for (CarQuery query : queries) {
+            assertEquals(expected(query), ids(columns.select(query)));
+        }
+    }
+    
+    @Test
+    void testMixedCriteriaAndSubclassesMatchObjectScan() {
+        Car custom = new ElectricCar("E900", "Custom EV", 95.0, 65.0) { }; // ElectricCar subclass
+        inventory.addCar(custom);
+        FleetColumns columns = new FleetColumns();
+        for (Car car : inventory.getAllCars()) columns.add(car);
+        
+        List<CarQuery> queries = List.of(
+                new CarQuery().type(ElectricCar.class),           // exact class: not the subclass
+                new CarQuery().type(custom.getClass()),
+                new CarQuery().batteryBetween(0, 100),             // any electric car, subclass too
+                new CarQuery().type(ElectricCar.class).fuelType("Xenon"),
+                new CarQuery().type(ElectricCar.class).fuelType("Diesel"),
+                new CarQuery().type(GasCar.class).batteryBetween(0, 100));
+        for (CarQuery query : queries) {
+            assertEquals(expected(query), ids(columns.select(query)));
+        }
+        assertEquals(Set.of("E900"), ids(columns.select(new CarQuery().type(custom.getClass()))));
+        assertTrue(columns.select(new CarQuery().type(ElectricCar.class).fuelType("Xenon")).isEmpty());
+    }
+    
+    @Test
+    void testPriceStats() {
+        PriceStats all = inventory.getPriceStats(new CarQuery());
+        assertEquals(6, all.getCount());
+        assertEquals(650.0, all.getTotal(), 0.001);
+        assertEquals(80.0, all.getMin());
+        assertEquals(150.0, all.getMax());
+        
+        PriceStats electric = inventory.getPriceStats(new CarQuery().type(ElectricCar.class));
+        assertEquals(310.0 / 3, electric.getAverage(), 0.001);
+        
+        PriceStats none = inventory.getPriceStats(new CarQuery().fuelType("Hydrogen"));
+        assertEquals(0, none.getCount());
+        assertEquals(0.0, none.getAverage());
+    }
+    
+    @Test
+    void testColumnsFollowCarChanges() {
+        inventory.rentCar("G002", new Customer("C1", "Alice", "111"), 1);
+        inventory.findCarById("G001").setPricePerDay(60.0);
+        
+        PriceStats available = inventory.getPriceStats(new CarQuery().availableOnly());
+        assertEquals(5, available.getCount());
+        assertEquals(60.0, available.getMin());
+        
+        inventory.removeCar("E003");
+        inventory.addCar(new GasCar("G004", "Ford Focus", 70.0, "Gasoline")); // reuses the free slot
+        assertEquals(Set.of("G002", "G004"), ids(inventory.search(new CarQuery().fuelType("gasoline"))));
+        assertEquals(6, inventory.getPriceStats(new CarQuery()).getCount());
+    }
+    
+    @Test
+    void testFeeStatsMatchCalculateRentalFee() {
+        CarQuery query = new CarQuery().availableOnly().priceBetween(0, 150);
+        double total = 0;
+        double max = 0;
+        for (Car car : inventory.search(query)) {
+            total += car.calculateRentalFee(3);
+            max = Math.max(max, car.calculateRentalFee(3));
+        }
+        
+        PriceStats fees = inventory.getFeeStats(query, 3);
+        assertEquals(6, fees.getCount());
+        assertEquals(total, fees.getTotal(), 0.001);
+        assertEquals(max, fees.getMax()); // BMW X5: 3 * 150 * 1.15 (diesel)
+        assertEquals(3 * 80.0, fees.getMin()); // Toyota Camry, no surcharge
+        assertThrows(IllegalArgumentException.class, () -> inventory.getFeeStats(query, 0));
+    }
+    
+    @Test
+    void testScanAcrossManyBatches() {
+        // Several 64-slot batches, with removed cars leaving holes
+        for (int i = 0; i < 300; i++) {
+            inventory.addCar(i % 2 == 0
+                    ? new ElectricCar("EX" + i, "Brand" + (i % 7), 50.0 + i, 40.0 + i % 60)
+                    : new GasCar("GX" + i, "Brand" + (i % 7), 50.0 + i, i % 3 == 0 ? "Diesel" : "Gasoline"));
+        }
+        for (int i = 0; i < 300; i += 11) {
+            inventory.removeCar((i % 2 == 0 ? "EX" : "GX") + i);
+        }
+        
+        List<CarQuery> queries = List.of(
+                new CarQuery().priceBetween(100, 250),
+                new CarQuery().type(GasCar.class).fuelType("diesel"),
+                new CarQuery().batteryBetween(60, 80).priceBetween(200, 400),
+                new CarQuery().brand("brand3").availableOnly());
+        for (CarQuery query : queries) {
+            assertEquals(expected(query), ids(inventory.search(query)));
+            assertEquals(expected(query).size(), inventory.getPriceStats(query).getCount());
+        }
+    }
+}
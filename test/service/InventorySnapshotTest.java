@@ -0,0 +1,105 @@
+package service;
+
+import model.*;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.BeforeEach;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicBoolean;
+import static org.junit.jupiter.api.Assertions.*;
+
+class InventorySnapshotTest {
+    
+    private static final int CARS = 16;
+    
+    private CarInventory inventory;
+    private Customer customer;
+    
+    @BeforeEach
+    void setUp() {
+        inventory = new CarInventory(InventoryEventSink.NONE);
+        customer = new Customer("C1", "Alice", "111");
+        for (int i = 0; i < CARS; i++) {
+            inventory.addCarFromStorage(new GasCar("G" + i, "Car " + i, 50.0 + i, "Gasoline"));
+        }
+    }
+    
+    @Test
+    void testSnapshotIsFrozen() {
+        Rental rental = inventory.rentCar("G0", customer, 2);
+        InventorySnapshot snapshot = inventory.snapshot();
+        long version = snapshot.getVersion();
+        
+        inventory.returnCar(rental.getRentalId());
+        inventory.rentCar("G1", customer, 1);
+        inventory.findCarById("G2").setPricePerDay(999.0);
+        
+        assertEquals(version, snapshot.getVersion());
+        assertTrue(inventory.getVersion() > version);
+        assertEquals(1, snapshot.getRentals().size());
+        assertFalse(snapshot.getRentals().get(0).isReturned());
+        assertFalse(snapshot.findCarById("G0").isAvailable());
+        assertTrue(snapshot.findCarById("G1").isAvailable());
+        assertEquals(52.0, snapshot.findCarById("G2").getPricePerDay());
+        assertEquals(1, snapshot.getRentalSummary().getActiveRentals());
+    }
+    
+    @Test
+    void testCopiesKeepFeeAndPointAtFrozenCars() {
+        Rental rental = inventory.rentCar("G3", customer, 4);
+        inventory.findCarById("G3").setPricePerDay(500.0);
+        
+        InventorySnapshot snapshot = inventory.snapshot();
+        Rental copy = snapshot.getRentals().get(0);
+        
+        assertEquals(rental.getTotalFee(), copy.getTotalFee());
+        assertSame(snapshot.findCarById("G3"), copy.getCar());
+        assertNotSame(rental.getCar(), copy.getCar());
+        
+        // Changing the copies does not touch the live inventory
+        copy.getCar().setAvailable(true);
+        assertFalse(inventory.findCarById("G3").isAvailable());
+        assertEquals(CARS - 1, inventory.getAvailableCarCount());
+    }
+    
+    @Test
+    void testSnapshotsStayConsistentUnderWrites() throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        AtomicBoolean stop = new AtomicBoolean(false);
+        List<Future<?>> writers = new ArrayList<>();
+        for (int t = 0; t < 4; t++) {
+            int offset = t;
+            writers.add(executor.submit(() -> {
+                int i = offset;
+                while (!stop.get()) {
+                    Rental rental = inventory.rentCar("G" + (i++ % CARS), customer, 1);
+                    if (rental != null) {
+                        inventory.returnCar(rental.getRentalId());
+                    }
+                }
+            }));
+        }
+        
+        try {
+            for (int s = 0; s < 200; s++) {
+                InventorySnapshot snapshot = inventory.snapshot();
+                // A car is out exactly when the snapshot has an active rental for it
+                Set<String> rentedCars = new HashSet<>();
+                for (Rental rental : snapshot.getRentals()) {
+                    if (!rental.isReturned()) {
+                        assertTrue(rentedCars.add(rental.getCar().getId()));
+                    }
+                }
+                for (Car car : snapshot.getCars()) {
+                    assertEquals(!rentedCars.contains(car.getId()), car.isAvailable());
+                }
+            }
+        } finally {
+            stop.set(true);
+            for (Future<?> writer : writers) {
+                writer.get();
+            }
+            executor.shutdown();
+        }
+    }
+}
@@ -0,0 +1,97 @@
+package service;
+
+import model.*;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.io.TempDir;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import static org.junit.jupiter.api.Assertions.*;
+
+class InventoryStoreTest {
+
+    @TempDir
+    Path tempDir;
+
+    private Path cars;
+    private Path rentals;
+    private Path snapshot;
+    private RentalJournal journal;
+    private CarInventory inventory;
+    private Customer customer;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        cars = tempDir.resolve("cars.csv");
+        rentals = tempDir.resolve("rentals.csv");
+        snapshot = tempDir.resolve("inventory.snapshot");
+        journal = new RentalJournal(tempDir.resolve("inventory.journal"), InventoryEventSink.NONE);
+        journal.open();
+        inventory = new CarInventory(journal);
+        inventory.addCar(new ElectricCar("E001", "Tesla Model 3", 100.0, 75.0));
+        inventory.addCar(new GasCar("G001", "BMW X5", 150.0, "Diesel"));
+        customer = new Customer("CUST001", "Alice", "555-1234");
+    }
+
+    private InventoryStore store(int checkpointRecords) {
+        return new InventoryStore(cars, rentals, snapshot, journal, checkpointRecords, 100);
+    }
+
+    private CarInventory restart() throws Exception {
+        CarInventory restarted = new CarInventory(InventoryEventSink.NONE);
+        assertTrue(BinarySnapshot.load(restarted, snapshot));
+        new RentalJournal(tempDir.resolve("inventory.journal"), InventoryEventSink.NONE).replay(restarted);
+        return restarted;
+    }
+
+    @Test
+    void testSaveAfterOneRentalLeavesFilesUntouched() throws Exception {
+        InventoryStore store = store(InventoryStore.DEFAULT_CHECKPOINT_RECORDS);
+        store.export(inventory);
+        byte[] carsBefore = Files.readAllBytes(cars);
+        byte[] rentalsBefore = Files.readAllBytes(rentals);
+        FileTime old = FileTime.fromMillis(1_000_000);
+        for (Path file : new Path[] {cars, rentals, snapshot}) {
+            Files.setLastModifiedTime(file, old);
+        }
+
+        Rental rental = inventory.rentCar("G001", customer, 2);
+        assertFalse(store.save(inventory));
+
+        assertArrayEquals(carsBefore, Files.readAllBytes(cars));
+        assertArrayEquals(rentalsBefore, Files.readAllBytes(rentals));
+        for (Path file : new Path[] {cars, rentals, snapshot}) {
+            assertEquals(old, Files.getLastModifiedTime(file));
+        }
+        assertEquals(1, journal.getRecordCount());
+
+        // The rental still survives a restart (through the journal)
+        assertFalse(restart().findRentalById(rental.getRentalId()).isReturned());
+    }
+
+    @Test
+    void testSaveCheckpointsOnceJournalIsFull() throws Exception {
+        InventoryStore store = store(2);
+        store.export(inventory);
+        Rental rental = inventory.rentCar("G001", customer, 2);
+        assertFalse(store.save(inventory));
+        inventory.returnCar(rental.getRentalId());
+
+        assertTrue(store.save(inventory));
+
+        assertEquals(0, journal.getRecordCount());
+        assertTrue(Files.readString(rentals).contains(rental.getRentalId()));
+        assertTrue(restart().findRentalById(rental.getRentalId()).isReturned());
+    }
+
+    @Test
+    void testSaveWithoutOpenJournalCheckpoints() throws Exception {
+        journal.close();
+        inventory.rentCar("G001", customer, 2);
+
+        assertTrue(store(InventoryStore.DEFAULT_CHECKPOINT_RECORDS).save(inventory));
+        assertEquals(1, restart().getRentalCount());
+        assertThrows(IllegalArgumentException.class, () -> store(0));
+    }
+}
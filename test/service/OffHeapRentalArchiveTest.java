@@ -0,0 +1,185 @@
+package service;
+
+import model.*;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.io.TempDir;
+import java.nio.file.Path;
+import java.util.*;
+import static org.junit.jupiter.api.Assertions.*;
+
+class OffHeapRentalArchiveTest {
+    
+    @TempDir
+    Path tempDir;
+    
+    private CarInventory inventory;
+    private Customer customer;
+    
+    @BeforeEach
+    void setUp() {
+        inventory = new CarInventory(InventoryEventSink.NONE);
+        inventory.addCarFromStorage(new ElectricCar("E001", "Tesla Model 3", 100.0, 75.0));
+        inventory.addCarFromStorage(new GasCar("G001", "BMW X5", 150.0, "Diesel"));
+        customer = new Customer("CUST001", "John Doe", "555-1234");
+    }
+    
+    // Rent and return the car n times
+    private List<Rental> churn(String carId, int n) {
+        List<Rental> done = new ArrayList<>();
+        for (int i = 0; i < n; i++) {
+            Rental rental = inventory.rentCar(carId, customer, 1 + i);
+            inventory.returnCar(rental.getRentalId());
+            done.add(rental);
+        }
+        return done;
+    }
+    
+    @Test
+    void testDirectArchiveKeepsRentalsFindable() throws Exception {
+        inventory.setArchive(new OffHeapRentalArchive());
+        List<Rental> done = churn("E001", 3);
+        done.addAll(churn("G001", 2));
+        
+        assertEquals(4, inventory.archiveReturnedRentals(1));
+        
+        Rental archived = inventory.findRentalById(done.get(3).getRentalId());
+        assertNotSame(done.get(3), archived);
+        assertTrue(archived.isReturned());
+        assertEquals(done.get(3).getTotalFee(), archived.getTotalFee());
+        assertEquals(done.get(3).getStartDate(), archived.getStartDate());
+        assertEquals(done.get(3).getDays(), archived.getDays());
+        assertEquals("Diesel", ((GasCar) archived.getCar()).getFuelType());
+        assertEquals("John Doe", archived.getCustomer().getName());
+        assertNull(inventory.findRentalById("R99"));
+        
+        assertEquals(5, inventory.getRentalSummary().getCompletedRentals());
+    }
+    
+    @Test
+    void testPagingContinuesAcrossArchiving() throws Exception {
+        inventory.setArchive(new OffHeapRentalArchive());
+        churn("E001", 4);                                             // R1-R4, returned
+        Rental active = inventory.rentCar("G001", customer, 2);       // R5
+        churn("E001", 2);                                             // R6-R7
+        
+        RentalPage first = inventory.getRentalPage(0, 3);
+        assertEquals("R3", first.getRentals().get(2).getRentalId());
+        assertEquals(4, inventory.archiveReturnedRentals(2));          // R1-R4 leave memory
+        
+        RentalPage second = inventory.getRentalPage(first.getNextCursor(), 3);
+        List<String> ids = new ArrayList<>();
+        second.getRentals().forEach(rental -> ids.add(rental.getRentalId()));
+        assertEquals(List.of("R5", "R6", "R7"), ids);                  // R4 archived, nothing repeated
+        assertFalse(second.hasMore());
+        assertSame(active, second.getRentals().get(0));
+        
+        inventory.rentCar("E001", customer, 1);                        // R8
+        RentalPage third = inventory.getRentalPage(second.getNextCursor(), 3);
+        assertEquals(1, third.getRentals().size());
+        assertEquals("R8", third.getRentals().get(0).getRentalId());
+    }
+    
+    @Test
+    void testArchivedRentalsShareCarAndCustomerObjects() throws Exception {
+        OffHeapRentalArchive archive = new OffHeapRentalArchive();
+        inventory.setArchive(archive);
+        churn("E001", 3);
+        inventory.archiveReturnedRentals(0);
+        
+        List<Rental> scanned = new ArrayList<>();
+        archive.scan(scanned::add);
+        assertEquals(3, scanned.size());
+        assertSame(scanned.get(0).getCar(), scanned.get(2).getCar());
+        assertSame(scanned.get(0).getCustomer(), scanned.get(2).getCustomer());
+    }
+    
+    @Test
+    void testMappedArchiveSurvivesRestart() throws Exception {
+        Path file = tempDir.resolve("archive.bin");
+        try (OffHeapRentalArchive archive = OffHeapRentalArchive.open(file)) {
+            inventory.setArchive(archive);
+            churn("E001", 4);
+            inventory.archiveReturnedRentals(0);
+        }
+        
+        try (OffHeapRentalArchive reopened = OffHeapRentalArchive.open(file)) {
+            CarInventory restarted = new CarInventory(InventoryEventSink.NONE);
+            restarted.setArchive(reopened);
+            restarted.addCarFromStorage(new ElectricCar("E001", "Tesla Model 3", 100.0, 75.0));
+            
+            assertEquals(4, reopened.size());
+            assertEquals(4, reopened.getHighestRentalNumber());
+            assertEquals(inventory.getRentalSummary().getCompletedRevenue(),
+                    restarted.getRentalSummary().getCompletedRevenue(), 0.001);
+            assertEquals("E001", restarted.findRentalById("R2").getCar().getId());
+            assertEquals("R5", restarted.rentCar("E001", customer, 1).getRentalId());
+        }
+    }
+    
+    @Test
+    void testRefsWithQuotedLineBreaksSurviveRestart() throws Exception {
+        Path file = tempDir.resolve("archive.bin");
+        Customer multiline = new Customer("CUST002", "Ann\nLee", "555\r\n0100");
+        Rental first = new Rental("R1", inventory.findCarById("E001"), multiline, 2);
+        Rental second = new Rental("R2", inventory.findCarById("G001"), customer, 3);
+        try (OffHeapRentalArchive archive = OffHeapRentalArchive.open(file)) {
+            archive.append(List.of(first, second));
+        }
+        
+        try (OffHeapRentalArchive reopened = OffHeapRentalArchive.open(file)) {
+            assertEquals("Ann\nLee", reopened.find("R1").getCustomer().getName());
+            assertEquals("555\r\n0100", reopened.find("R1").getCustomer().getPhone());
+            assertEquals("John Doe", reopened.find("R2").getCustomer().getName());
+            
+            // The reloaded entry is reused, not added again
+            reopened.append(List.of(new Rental("R3", inventory.findCarById("G001"), multiline, 1)));
+            assertSame(reopened.find("R1").getCustomer(), reopened.find("R3").getCustomer());
+        }
+    }
+    
+    @Test
+    void testRentalIdsOutsideTheNumberingAreKept() throws Exception {
+        Path file = tempDir.resolve("archive.bin");
+        Rental imported = new Rental("LEGACY-7", inventory.findCarById("G001"), customer, 2);
+        Rental padded = new Rental("R042", inventory.findCarById("E001"), customer, 3);
+        imported.setReturned(true);
+        padded.setReturned(true);
+        try (OffHeapRentalArchive archive = OffHeapRentalArchive.open(file)) {
+            archive.append(List.of(imported, padded));
+        }
+        
+        try (OffHeapRentalArchive reopened = OffHeapRentalArchive.open(file)) {
+            assertTrue(reopened.contains("LEGACY-7"));
+            assertEquals("G001", reopened.find("LEGACY-7").getCar().getId());
+            assertEquals("R042", reopened.find("R042").getRentalId());
+            assertFalse(reopened.contains("R42"));
+            List<String> scanned = new ArrayList<>();
+            reopened.scan(10, rental -> scanned.add(rental.getRentalId()));
+            assertEquals(List.of("LEGACY-7", "R042"), scanned);
+            assertEquals(42, reopened.getHighestRentalNumber()); // still never handed out again
+        }
+    }
+    
+    @Test
+    void testAppendAcrossChunkBoundary() throws Exception {
+        OffHeapRentalArchive archive = new OffHeapRentalArchive();
+        Car car = inventory.findCarById("E001");
+        int total = (1 << 16) + 10;
+        List<Rental> batch = new ArrayList<>(total);
+        for (int i = 1; i <= total; i++) {
+            Rental rental = new Rental("R" + i, car, customer, 1);
+            rental.setReturned(true);
+            batch.add(rental);
+        }
+        archive.append(batch);
+        
+        assertEquals(total, archive.size());
+        assertEquals(total, archive.getHighestRentalNumber());
+        assertEquals(batch.get(0).getTotalFee() * total, archive.getTotalFees(), 0.001);
+        assertNotNull(archive.find("R" + total));
+        int[] seen = {0};
+        archive.scan(rental -> seen[0]++);
+        assertEquals(total, seen[0]);
+    }
+}
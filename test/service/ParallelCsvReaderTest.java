@@ -0,0 +1,110 @@
+package service;
+
+import model.*;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.io.TempDir;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.*;
+import java.util.concurrent.ForkJoinPool;
+import static org.junit.jupiter.api.Assertions.*;
+
+class ParallelCsvReaderTest {
+    
+    @TempDir
+    Path tempDir;
+    
+    private Path carsFile;
+    private Path rentalsFile;
+    private final ForkJoinPool pool = ForkJoinPool.commonPool();
+    
+    @BeforeEach
+    void setUp() throws Exception {
+        carsFile = tempDir.resolve("cars.csv");
+        rentalsFile = tempDir.resolve("rentals.csv");
+        
+        CarInventory inventory = new CarInventory(InventoryEventSink.NONE);
+        for (int i = 0; i < 40; i++) {
+            inventory.addCar(i % 2 == 0
+                    ? new ElectricCar("E" + i, "Tesla, \"Model " + i + "\"", 100.0 + i, 75.0)
+                    : new GasCar("G" + i, "BMW\r\nX" + i, 150.0 + i, "Diesel"));
+        }
+        for (int i = 0; i < 60; i++) {
+            // Names with commas, quotes and line breaks, so some chunks start inside quotes
+            Customer customer = new Customer("C" + (i % 7), "Name \"" + (i % 7) + "\",\nline two", "555-" + (i % 7));
+            Rental rental = inventory.rentCar((i % 2 == 0 ? "E" : "G") + (i % 40), customer, 1 + i % 5);
+            if (rental != null && i % 3 != 0) inventory.returnCar(rental.getRentalId());
+        }
+        CSVExporter.save(inventory, carsFile.toString(), rentalsFile.toString());
+    }
+    
+    private CarInventory loadSequentially() throws Exception {
+        CarInventory loaded = new CarInventory(InventoryEventSink.NONE);
+        CSVExporter.loadCarsIntoInventory(loaded, carsFile.toString());
+        CSVExporter.loadRentalsIntoInventory(loaded, rentalsFile.toString());
+        return loaded;
+    }
+    
+    private CarInventory loadInParallel(long chunkBytes) throws Exception {
+        CarInventory loaded = new CarInventory(InventoryEventSink.NONE);
+        CSVExporter.loadCarsInParallel(loaded, carsFile, chunkBytes, pool);
+        CSVExporter.loadRentalsInParallel(loaded, rentalsFile, chunkBytes, pool);
+        return loaded;
+    }
+    
+    private static List<String> describeCars(CarInventory inventory) {
+        List<String> cars = new ArrayList<>();
+        for (Car car : inventory.getAllCars()) {
+            cars.add(car.getId() + "|" + car.getBrand() + "|" + car.getPricePerDay() + "|" + car.isAvailable());
+        }
+        Collections.sort(cars);
+        return cars;
+    }
+    
+    private static List<String> describeRentals(CarInventory inventory) {
+        List<String> rentals = new ArrayList<>();
+        for (Rental rental : inventory.getAllRentals()) {
+            rentals.add(rental.getRentalId() + "|" + rental.getCar().getId() + "|" + rental.getCustomer().getName()
+                    + "|" + rental.getDays() + "|" + rental.isReturned() + "|" + rental.getStartDate());
+        }
+        return rentals;
+    }
+    
+    @Test
+    void testParallelLoadMatchesSequentialLoadForAnyChunkSize() throws Exception {
+        CarInventory expected = loadSequentially();
+        assertEquals(40, expected.getAllCars().size());
+        assertEquals(53, expected.getRentalCount());
+        
+        for (long chunkBytes : new long[] {1, 2, 3, 7, 16, 61, 100, 257, 1000, 1 << 20}) {
+            CarInventory loaded = loadInParallel(chunkBytes);
+            assertEquals(describeCars(expected), describeCars(loaded), "chunk " + chunkBytes);
+            assertEquals(describeRentals(expected), describeRentals(loaded), "chunk " + chunkBytes);
+            assertEquals(7, loaded.getCustomerRegistry().size());
+        }
+    }
+    
+    @Test
+    void testHeaderHandling() throws Exception {
+        Files.writeString(carsFile, "");
+        assertEquals(0, CSVExporter.loadCarsInParallel(new CarInventory(), carsFile, 4, pool));
+        
+        Files.writeString(carsFile, "\r\n  \n" + "CarID,Brand,Type,PricePerDay,Available,BatteryCapacity,FuelType\n"
+                + "E1,Kia,Electric,90,Yes,58,\n" + "G1,Ford,Gas,70,No,,Gasoline");
+        CarInventory loaded = new CarInventory();
+        assertEquals(2, CSVExporter.loadCarsInParallel(loaded, carsFile, 4, pool));
+        assertFalse(loaded.findCarById("G1").isAvailable());
+        
+        Files.writeString(carsFile, "Id,Brand\nE1,Kia\n");
+        assertThrows(IOException.class, () -> CSVExporter.loadCarsInParallel(new CarInventory(), carsFile, 4, pool));
+    }
+    
+    @Test
+    void testChunkSizeGrowsWithFileSize() {
+        assertEquals(1 << 20, ParallelCsvReader.chunkBytesFor(1000, pool));
+        long big = 1L << 34;
+        assertTrue(ParallelCsvReader.chunkBytesFor(big, pool) * pool.getParallelism() * 4 >= big);
+    }
+}
@@ -0,0 +1,117 @@
+package service;
+
+import model.*;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.BeforeEach;
+import java.util.*;
+import java.util.concurrent.*;
+import static org.junit.jupiter.api.Assertions.*;
+
+class PartitionedInventoryTest {
+
+    private static final int CARS = 40;
+
+    private PartitionedInventory inventory;
+    private Customer customer;
+
+    @BeforeEach
+    void setUp() {
+        inventory = new PartitionedInventory(4, InventoryEventSink.NONE);
+        customer = new Customer("C1", "Alice", "111");
+        for (int i = 0; i < CARS; i++) {
+            if (i % 2 == 0) {
+                inventory.addCarFromStorage(new GasCar("G" + i, (i % 4 == 0 ? "BMW " : "Audi ") + i,
+                        100.0 + i, i % 4 == 0 ? "Diesel" : "Gasoline"));
+            } else {
+                inventory.addCarFromStorage(new ElectricCar("E" + i, "Tesla " + i, 100.0 + i, 75));
+            }
+        }
+    }
+
+    @Test
+    void testCarsAreSpreadOverPartitions() {
+        Set<Integer> used = new HashSet<>();
+        for (Car car : inventory.getAllCars()) {
+            used.add(inventory.partitionOf(car.getId()));
+        }
+        assertEquals(CARS, inventory.getAllCars().size());
+        assertTrue(used.size() > 1);
+    }
+
+    @Test
+    void testSearchesMergeAllPartitions() {
+        assertEquals(10, inventory.searchByBrand("bmw").size());
+        assertEquals(10, inventory.searchByFuelType("Diesel").size());
+        assertEquals(20, inventory.searchByType(ElectricCar.class).size());
+        assertEquals(20, inventory.search(new CarQuery().type(GasCar.class)).size());
+    }
+
+    @Test
+    void testPriceQueriesAreGloballyOrdered() {
+        List<Car> range = inventory.searchByPriceRange(110.0, 119.0);
+        assertEquals(10, range.size());
+        for (int i = 0; i < range.size(); i++) {
+            assertEquals(110.0 + i, range.get(i).getPricePerDay());
+        }
+
+        List<Car> cheapest = inventory.findCheapestAvailable(3);
+        assertEquals(List.of("G0", "E1", "G2"), cheapest.stream().map(Car::getId).toList());
+    }
+
+    @Test
+    void testRentAndReturnRouteToOwningShard() {
+        Rental r1 = inventory.rentCar("G0", customer, 2);
+        Rental r2 = inventory.rentCar("E1", customer, 3);
+
+        assertNotEquals(r1.getRentalId(), r2.getRentalId());
+        assertSame(r2, inventory.findRentalById(r2.getRentalId()));
+        assertEquals(CARS - 2, inventory.getAvailableCarCount());
+        assertEquals(9, inventory.searchByBrand("bmw").size());
+
+        inventory.returnCar(r1.getRentalId());
+        assertTrue(inventory.findCarById("G0").isAvailable());
+
+        RentalSummary summary = inventory.getRentalSummary();
+        assertEquals(1, summary.getActiveRentals());
+        assertEquals(1, summary.getCompletedRentals());
+        assertEquals(List.of(r1, r2), inventory.getAllRentals());
+    }
+
+    @Test
+    void testReturnUnknownRentalIsIgnored() {
+        assertDoesNotThrow(() -> inventory.returnCar("R999"));
+        assertNull(inventory.findRentalById("R999"));
+    }
+
+    @Test
+    void testConcurrentRentalsAcrossShards() throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        List<Future<Rental>> futures = new ArrayList<>();
+        for (int t = 0; t < 8; t++) {
+            for (int i = 0; i < CARS; i++) {
+                String carId = (i % 2 == 0 ? "G" : "E") + i;
+                futures.add(executor.submit(() -> inventory.rentCar(carId, customer, 1)));
+            }
+        }
+        Set<String> ids = new HashSet<>();
+        int rented = 0;
+        for (Future<Rental> future : futures) {
+            Rental rental = future.get();
+            if (rental != null) {
+                rented++;
+                assertTrue(ids.add(rental.getRentalId()));
+            }
+        }
+        executor.shutdown();
+
+        assertEquals(CARS, rented);
+        assertEquals(0, inventory.getAvailableCarCount());
+        assertEquals(CARS, inventory.getRentedCarCount());
+    }
+
+    @Test
+    void testInvalidPartitionCount() {
+        assertThrows(IllegalArgumentException.class,
+                () -> new PartitionedInventory(0, InventoryEventSink.NONE));
+    }
+}
@@ -0,0 +1,70 @@
+package service;
+
+import model.*;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.BeforeEach;
+import java.util.*;
+import static org.junit.jupiter.api.Assertions.*;
+
+class PriceIndexTest {
+    
+    private PriceIndex index;
+    private Car cheap;
+    private Car mid;
+    private Car midTwin;
+    private Car expensive;
+    
+    @BeforeEach
+    void setUp() {
+        index = new PriceIndex();
+        cheap = new GasCar("G001", "Toyota Camry", 60.0, "Gasoline");
+        mid = new ElectricCar("E001", "Tesla Model 3", 100.0, 75.0);
+        midTwin = new ElectricCar("E002", "Tesla Model 3", 100.0, 75.0);
+        expensive = new GasCar("G002", "BMW X5", 150.0, "Diesel");
+        for (Car car : List.of(expensive, mid, cheap, midTwin)) {
+            index.add(car);
+        }
+    }
+    
+    private List<String> ids(Collection<Car> cars) {
+        List<String> ids = new ArrayList<>();
+        for (Car car : cars) ids.add(car.getId());
+        return ids;
+    }
+    
+    @Test
+    void testRangeIsInclusiveAndSorted() {
+        assertEquals(List.of("G001", "E001", "E002"), ids(index.range(60.0, 100.0, false)));
+        assertEquals(List.of("E001", "E002", "G002"), ids(index.range(100.0, Double.POSITIVE_INFINITY, false)));
+        assertTrue(index.range(101.0, 149.0, false).isEmpty());
+        assertTrue(index.range(200.0, 100.0, false).isEmpty());
+    }
+    
+    @Test
+    void testCheapest() {
+        assertEquals(List.of("G001", "E001"), ids(index.cheapest(2, false)));
+        assertEquals(4, index.cheapest(10, false).size());
+        assertTrue(index.cheapest(0, false).isEmpty());
+    }
+    
+    @Test
+    void testRefreshAfterPriceAndAvailabilityChange() {
+        cheap.setPricePerDay(200.0);
+        index.refresh(cheap);
+        mid.setAvailable(false);
+        index.refresh(mid);
+        
+        assertEquals(List.of("E002", "G002"), ids(index.cheapest(2, true)));
+        assertEquals(List.of("E001", "E002", "G002", "G001"), ids(index.cheapest(4, false)));
+    }
+    
+    @Test
+    void testRemove() {
+        index.remove(mid);
+        index.refresh(mid); // ignored once removed
+        
+        assertEquals(List.of("G001", "E002", "G002"), ids(index.range(0, 1000, false)));
+        assertEquals(3, index.countRange(0, 1000, true, 100));
+        assertEquals(2, index.countRange(0, 1000, true, 2));
+    }
+}
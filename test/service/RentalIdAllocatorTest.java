@@ -0,0 +1,91 @@
+package service;
+
+import org.junit.jupiter.api.Test;
+import java.util.*;
+import java.util.concurrent.*;
+import static org.junit.jupiter.api.Assertions.*;
+
+class RentalIdAllocatorTest {
+    
+    @Test
+    void testSequentialIdsOnOneThread() {
+        RentalIdAllocator allocator = new RentalIdAllocator();
+        assertEquals("R1", allocator.nextId());
+        assertEquals("R2", allocator.nextId());
+        assertEquals("R3", allocator.nextId());
+        assertEquals(3, allocator.getHighWaterMark());
+    }
+    
+    @Test
+    void testAdvanceToSkipsUsedNumbers() {
+        RentalIdAllocator allocator = new RentalIdAllocator();
+        allocator.nextId();
+        
+        allocator.advanceTo(100);
+        
+        assertEquals("R101", allocator.nextId());
+        assertEquals(101, allocator.getHighWaterMark());
+    }
+    
+    @Test
+    void testObserve() {
+        RentalIdAllocator allocator = new RentalIdAllocator();
+        allocator.observe("R41");
+        allocator.observe("R7");
+        allocator.observe("legacy-id");
+        
+        assertEquals(41, allocator.getHighWaterMark());
+        assertEquals("R42", allocator.nextId());
+    }
+    
+    @Test
+    void testParseNumber() {
+        assertEquals(42, RentalIdAllocator.parseNumber("R42"));
+        assertEquals(-1, RentalIdAllocator.parseNumber("R"));
+        assertEquals(-1, RentalIdAllocator.parseNumber("X42"));
+        assertEquals(-1, RentalIdAllocator.parseNumber("R4a"));
+        assertEquals(42, RentalIdAllocator.parseNumber("R042"));
+        assertEquals(42, RentalIdAllocator.keyOf("R42"));
+        assertEquals(-1, RentalIdAllocator.keyOf("R042")); // would read back as "R42"
+        assertEquals(-1, RentalIdAllocator.keyOf("R0"));
+        assertEquals(-1, RentalIdAllocator.keyOf("X42"));
+        assertEquals(-1, RentalIdAllocator.parseNumber(null));
+    }
+    
+    @Test
+    void testInvalidBlockSize() {
+        assertThrows(IllegalArgumentException.class, () -> new RentalIdAllocator(0));
+    }
+    
+    @Test
+    void testUniqueAcrossThreads() throws Exception {
+        RentalIdAllocator allocator = new RentalIdAllocator(8);
+        int threads = 16;
+        int perThread = 1000;
+        
+        ExecutorService pool = Executors.newFixedThreadPool(threads);
+        List<Future<List<Long>>> futures = new ArrayList<>();
+        for (int t = 0; t < threads; t++) {
+            futures.add(pool.submit(() -> {
+                List<Long> numbers = new ArrayList<>();
+                for (int i = 0; i < perThread; i++) {
+                    numbers.add(allocator.nextNumber());
+                }
+                return numbers;
+            }));
+        }
+        
+        Set<Long> all = new HashSet<>();
+        for (Future<List<Long>> f : futures) {
+            List<Long> numbers = f.get(30, TimeUnit.SECONDS);
+            for (int i = 1; i < numbers.size(); i++) {
+                assertTrue(numbers.get(i) > numbers.get(i - 1), "IDs must increase per thread");
+            }
+            all.addAll(numbers);
+        }
+        pool.shutdown();
+        
+        assertEquals(threads * perThread, all.size());
+        assertEquals(Collections.max(all).longValue(), allocator.getHighWaterMark());
+    }
+}
@@ -0,0 +1,247 @@
+package service;
+
+import model.*;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.io.TempDir;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDate;
+import java.util.*;
+import java.util.concurrent.*;
+import static org.junit.jupiter.api.Assertions.*;
+
+class RentalJournalTest {
+
+    @TempDir
+    Path tempDir;
+
+    private Path file;
+    private RentalJournal journal;
+    private CarInventory inventory;
+    private Customer customer;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        file = tempDir.resolve("inventory.journal");
+        journal = new RentalJournal(file, InventoryEventSink.NONE);
+        journal.open();
+        inventory = new CarInventory(journal);
+        inventory.addCar(new ElectricCar("E001", "Tesla Model 3", 100.0, 75.0));
+        inventory.addCar(new GasCar("G001", "BMW X5", 150.0, "Diesel"));
+        inventory.addCar(new GasCar("G002", "Toyota Camry", 80.0, "Gasoline"));
+        customer = new Customer("CUST001", "José Núñez", null);
+    }
+
+    private CarInventory replay() throws Exception {
+        CarInventory replayed = new CarInventory(InventoryEventSink.NONE);
+        new RentalJournal(file, InventoryEventSink.NONE).replay(replayed);
+        return replayed;
+    }
+
+    @Test
+    void testReplayRebuildsEveryChange() throws Exception {
+        Rental returned = inventory.rentCar("E001", customer, 3);
+        inventory.returnCar(returned.getRentalId());
+        Rental active = inventory.rentCar("G001", customer, 2);
+        Rental reserved = inventory.reserveCar("G002", new Customer("CUST002", "Ann", "555"),
+                LocalDate.now().plusDays(10), 4);
+        inventory.findCarById("G002").setPricePerDay(85.5);
+        inventory.addCar(new GasCar("G003", "Kia Rio", 40.0, "Gasoline"));
+        BatchResult batch = inventory.rentCars(List.of(new RentalRequest("G003", customer, 1)));
+        inventory.returnCars(List.of(batch.getItems().get(0).getRental().getRentalId()));
+        inventory.rentCars(List.of(new RentalRequest("G001", customer, 1))); // rolled back
+        inventory.removeCar("E001");
+        journal.close();
+
+        CarInventory replayed = replay();
+
+        assertEquals(3, replayed.getAllCars().size());
+        assertNull(replayed.findCarById("E001"));
+        assertEquals(85.5, replayed.findCarById("G002").getPricePerDay());
+        assertFalse(replayed.findCarById("G001").isAvailable());
+        assertTrue(replayed.findCarById("G002").isAvailable());
+        assertTrue(replayed.findCarById("G003").isAvailable());
+
+        assertEquals(4, replayed.getRentalCount());
+        assertTrue(replayed.findRentalById(returned.getRentalId()).isReturned());
+        assertFalse(replayed.findRentalById(active.getRentalId()).isReturned());
+        assertEquals(active.getTotalFee(), replayed.findRentalById(active.getRentalId()).getTotalFee());
+        assertEquals(reserved.getStartDate(), replayed.findRentalById(reserved.getRentalId()).getStartDate());
+        assertNull(replayed.findRentalById(active.getRentalId()).getCustomer().getPhone());
+        assertEquals(inventory.getRentalSummary().getCompletedRevenue(),
+                replayed.getRentalSummary().getCompletedRevenue());
+
+        // New IDs continue after the replayed ones
+        assertNotEquals(active.getRentalId(), replayed.rentCar("G002", customer, 1).getRentalId());
+    }
+
+    @Test
+    void testReplayKeepsCancellations() throws Exception {
+        Rental reservation = inventory.reserveCar("G002", customer, LocalDate.now().plusDays(3), 2);
+        inventory.returnCar(reservation.getRentalId());
+        Rental rental = inventory.rentCar("G001", customer, 1);
+        inventory.returnCars(List.of(rental.getRentalId()));
+        journal.close();
+        
+        CarInventory replayed = replay();
+        
+        assertTrue(replayed.findRentalById(reservation.getRentalId()).isCancelled());
+        assertFalse(replayed.findRentalById(rental.getRentalId()).isCancelled());
+        assertEquals(1, replayed.getRentalSummary().getCompletedRentals());
+        assertEquals(rental.getTotalFee(), replayed.getRentalSummary().getCompletedRevenue(), 0.001);
+    }
+    
+    @Test
+    void testReplayOnTopOfSaveSkipsSavedChanges() throws Exception {
+        Rental rental = inventory.rentCar("G001", customer, 2);
+        inventory.findCarById("G002").setPricePerDay(90.0);
+        Path snapshot = tempDir.resolve("inventory.snapshot");
+        BinarySnapshot.save(inventory.snapshot(), snapshot);
+        inventory.returnCar(rental.getRentalId()); // after the save
+        journal.close(); // crash before reset(): every record is still there
+
+        CarInventory loaded = new CarInventory(InventoryEventSink.NONE);
+        assertTrue(BinarySnapshot.load(loaded, snapshot));
+        Car g001 = loaded.findCarById("G001");
+        assertEquals(6, new RentalJournal(file, InventoryEventSink.NONE).replay(loaded)); // 3 adds, rent, price, return
+
+        assertSame(g001, loaded.findCarById("G001")); // not replaced by its add record
+        assertEquals(1, loaded.getRentalCount());
+        assertTrue(loaded.findRentalById(rental.getRentalId()).isReturned());
+        assertTrue(g001.isAvailable());
+        assertEquals(90.0, loaded.findCarById("G002").getPricePerDay());
+    }
+
+    @Test
+    void testTornLastRecordIsCutOff() throws Exception {
+        inventory.rentCar("G001", customer, 2);
+        journal.close();
+        long intact = Files.size(file);
+        Files.write(file, new byte[] {0, 0, 0, 40, 1, 2, 3}, StandardOpenOption.APPEND); // crash mid-write
+
+        assertEquals(1, replay().getRentalCount());
+
+        // Reopening drops the torn bytes and appends after the last whole record
+        RentalJournal reopened = new RentalJournal(file, InventoryEventSink.NONE);
+        CarInventory restarted = new CarInventory(reopened);
+        assertEquals(4, reopened.replay(restarted));
+        reopened.open();
+        assertEquals(intact, Files.size(file));
+        restarted.rentCar("G002", customer, 1);
+        reopened.close();
+
+        assertEquals(2, replay().getRentalCount());
+    }
+
+    @Test
+    void testResetDropsRecordsAndNotRecordingBeforeOpen() throws Exception {
+        inventory.rentCar("G001", customer, 2);
+        journal.reset();
+        inventory.addCar(new GasCar("G003", "Kia Rio", 40.0, "Gasoline"));
+        inventory.rentCar("G003", customer, 2);
+        journal.close();
+
+        CarInventory replayed = replay();
+        assertEquals(1, replayed.getAllCars().size());
+        assertFalse(replayed.findCarById("G003").isAvailable());
+        assertEquals(1, replayed.getRentalCount());
+
+        // Closed (or never opened): events are only passed on
+        inventory.removeCar("G003");
+        assertNotNull(replay().findCarById("G003"));
+    }
+
+    @Test
+    void testReplayRentalRecordedBeforeTheReturnThatFreedItsCar() throws Exception {
+        // R1 is returned early and R2 takes the car, but R2's record lands first
+        CarInventory live = new CarInventory(InventoryEventSink.NONE);
+        live.addCar(new GasCar("G001", "BMW X5", 150.0, "Diesel"));
+        Rental first = live.rentCar("G001", customer, 3);
+        live.returnCar(first.getRentalId());
+        Rental second = live.rentCar("G001", customer, 2);
+        journal.carRented(first);
+        journal.carRented(second);
+        journal.carReturned(first);
+        journal.close();
+
+        CarInventory replayed = replay();
+        assertTrue(replayed.findRentalById(first.getRentalId()).isReturned());
+        assertFalse(replayed.findRentalById(second.getRentalId()).isReturned());
+        assertFalse(replayed.findCarById("G001").isAvailable());
+
+        // And returning R2 frees it
+        replayed.returnCar(second.getRentalId());
+        assertTrue(replayed.findCarById("G001").isAvailable());
+    }
+
+    @Test
+    void testGroupCommitWritesRecordsBySync() throws Exception {
+        journal.close();
+        Files.delete(file);
+        RentalJournal grouped = new RentalJournal(file, InventoryEventSink.NONE, true);
+        grouped.open();
+        CarInventory shared = new CarInventory(grouped);
+        for (int i = 0; i < 8; i++) {
+            shared.addCar(new GasCar("G" + i, "Car " + i, 50.0, "Diesel"));
+        }
+        ExecutorService pool = Executors.newFixedThreadPool(4);
+        List<Future<Rental>> rented = new ArrayList<>();
+        for (int i = 0; i < 8; i++) {
+            String carId = "G" + i;
+            rented.add(pool.submit(() -> shared.rentCar(carId, customer, 2)));
+        }
+        for (Future<Rental> future : rented) {
+            assertNotNull(future.get());
+        }
+        pool.shutdown();
+
+        long[] mark = new long[1];
+        shared.snapshot(() -> grouped.atPosition(position -> mark[0] = position));
+        shared.returnCar(rented.get(0).get().getRentalId());
+        grouped.sync();
+        assertEquals(17, grouped.getRecordCount());
+        assertTrue(mark[0] > 0);
+
+        grouped.dropBefore(mark[0]);
+        assertEquals(1, grouped.getRecordCount());
+        grouped.close();
+    }
+
+    @Test
+    void testDropBeforeKeepsLaterRecords() throws Exception {
+        inventory.rentCar("G001", customer, 2);
+        long[] mark = new long[1];
+        inventory.snapshot(() -> mark[0] = journal.position());
+        Rental later = inventory.rentCar("G002", customer, 3); // written during the save
+        inventory.findCarById("E001").setPricePerDay(90.0);
+
+        journal.dropBefore(mark[0]);
+        assertEquals(2, journal.getRecordCount());
+        inventory.returnCar(later.getRentalId()); // still appends after the rotation
+        journal.close();
+
+        CarInventory replayed = new CarInventory(InventoryEventSink.NONE);
+        replayed.addCar(new ElectricCar("E001", "Tesla Model 3", 100.0, 75.0));
+        replayed.addCar(new GasCar("G002", "Toyota Camry", 80.0, "Gasoline"));
+        assertEquals(3, new RentalJournal(file, InventoryEventSink.NONE).replay(replayed));
+        assertTrue(replayed.findRentalById(later.getRentalId()).isReturned());
+        assertEquals(90.0, replayed.findCarById("E001").getPricePerDay());
+        assertEquals(1, replayed.getRentalCount());
+    }
+
+    @Test
+    void testOtherFilesRejected() throws Exception {
+        Path other = tempDir.resolve("cars.csv");
+        Files.writeString(other, "ID,Type,Brand,Price/Day,Available,Battery/Fuel\n");
+        RentalJournal wrong = new RentalJournal(other, InventoryEventSink.NONE);
+        assertThrows(IOException.class, () -> wrong.replay(new CarInventory(InventoryEventSink.NONE)));
+        assertThrows(IOException.class, wrong::open);
+
+        // A missing journal is an empty one
+        RentalJournal missing = new RentalJournal(tempDir.resolve("none.journal"), InventoryEventSink.NONE);
+        assertEquals(0, missing.replay(new CarInventory(InventoryEventSink.NONE)));
+    }
+}
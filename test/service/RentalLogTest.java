@@ -0,0 +1,78 @@
+package service;
+
+import model.*;
+import org.junit.jupiter.api.Test;
+import java.util.*;
+import java.util.concurrent.*;
+import static org.junit.jupiter.api.Assertions.*;
+
+class RentalLogTest {
+    
+    private final Car car = new GasCar("G001", "Toyota Camry", 80.0, "Gasoline");
+    private final Customer customer = new Customer("C1", "Alice", "111");
+    
+    private Rental rental(int n) {
+        return new Rental("R" + n, car, customer, 1);
+    }
+    
+    @Test
+    void testAppendAcrossChunks() {
+        RentalLog log = new RentalLog();
+        for (int i = 0; i < 5000; i++) {
+            log.add(rental(i));
+        }
+        log.addAll(List.of(rental(5000), rental(5001)));
+        
+        assertEquals(5002, log.size());
+        assertEquals("R0", log.get(0).getRentalId());
+        assertEquals("R1024", log.get(1024).getRentalId());
+        assertEquals("R5001", log.get(5001).getRentalId());
+    }
+    
+    @Test
+    void testViewIsStablePrefix() {
+        RentalLog log = new RentalLog();
+        log.add(rental(1));
+        log.add(rental(2));
+        
+        List<Rental> view = log.view();
+        log.add(rental(3));
+        
+        assertEquals(2, view.size());
+        assertEquals(3, log.view().size());
+        assertEquals("R2", log.view(1, 3).get(0).getRentalId());
+        assertThrows(IndexOutOfBoundsException.class, () -> view.get(2));
+        assertThrows(UnsupportedOperationException.class, () -> view.add(rental(4)));
+    }
+    
+    @Test
+    void testReadersDuringAppends() throws Exception {
+        RentalLog log = new RentalLog();
+        int total = 50_000;
+        
+        ExecutorService pool = Executors.newFixedThreadPool(4);
+        Future<?> writer = pool.submit(() -> {
+            for (int i = 0; i < total; i++) {
+                log.add(rental(i));
+            }
+        });
+        List<Future<?>> readers = new ArrayList<>();
+        for (int r = 0; r < 3; r++) {
+            readers.add(pool.submit(() -> {
+                while (log.size() < total) {
+                    List<Rental> view = log.view();
+                    for (int i = 0; i < view.size(); i++) {
+                        assertNotNull(view.get(i));
+                    }
+                }
+            }));
+        }
+        writer.get(30, TimeUnit.SECONDS);
+        for (Future<?> f : readers) {
+            f.get(30, TimeUnit.SECONDS);
+        }
+        pool.shutdown();
+        
+        assertEquals(total, log.size());
+    }
+}